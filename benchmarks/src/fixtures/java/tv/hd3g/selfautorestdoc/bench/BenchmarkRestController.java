@@ -0,0 +1,78 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.bench;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import tv.hd3g.commons.authkit.CheckBefore;
+
+/**
+ * One endpoint by DTO shape: flat, deep, wide and generic.
+ */
+@RestController
+@RequestMapping(value = "/bench", produces = APPLICATION_JSON_VALUE)
+@CheckBefore("bench")
+public class BenchmarkRestController {
+
+	/**
+	 * Get a flat DTO
+	 */
+	@GetMapping(name = "Get flat", value = "flat/{id}")
+	public ResponseEntity<FlatDto> getFlat(@PathVariable("id") final String id,
+	                                       @RequestParam(defaultValue = "10") final int limit) {
+		return null;
+	}
+
+	@PostMapping(name = "Post flat", value = "flat")
+	@CheckBefore("write")
+	public ResponseEntity<FlatDto> postFlat(@RequestBody final FlatDto flat) {
+		return null;
+	}
+
+	/**
+	 * Get a deep DTO
+	 */
+	@GetMapping(name = "Get deep", value = "deep/{id}")
+	public ResponseEntity<DeepDto> getDeep(@PathVariable("id") final String id) {
+		return null;
+	}
+
+	@GetMapping(name = "Get wide", value = "wide")
+	public ResponseEntity<WideDto> getWide() {
+		return null;
+	}
+
+	/**
+	 * Get a generic DTO
+	 */
+	@GetMapping(name = "Get page", value = "page")
+	@CheckBefore({ "read", "list" })
+	public ResponseEntity<PageDto<FlatDto>> getPage(@RequestParam(defaultValue = "0") final int page,
+	                                                @RequestParam(required = false) final String filter) {
+		return null;
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.bench;
+
+/**
+ * A chain of 8 nested DTOs, and a link back to the root (recursive DTO).
+ */
+public class DeepDto {
+
+	private String value;
+	private Level1 next;
+
+	public String getValue() {
+		return value;
+	}
+
+	public Level1 getNext() {
+		return next;
+	}
+
+	public static class Level1 {
+		private String value;
+		private Level2 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level2 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level2 {
+		private String value;
+		private Level3 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level3 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level3 {
+		private String value;
+		private Level4 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level4 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level4 {
+		private String value;
+		private Level5 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level5 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level5 {
+		private String value;
+		private Level6 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level6 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level6 {
+		private String value;
+		private Level7 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level7 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level7 {
+		private String value;
+		private Level8 next;
+
+		public String getValue() {
+			return value;
+		}
+
+		public Level8 getNext() {
+			return next;
+		}
+	}
+
+	public static class Level8 {
+		private String value;
+		private DeepDto root;
+
+		public String getValue() {
+			return value;
+		}
+
+		public DeepDto getRoot() {
+			return root;
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.bench;
+
+/**
+ * Only values.
+ */
+public class FlatDto {
+
+	private String name;
+	private String description;
+	private int count;
+	private boolean enabled;
+	private long size;
+	private double ratio;
+	private String created;
+	private String owner;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(final String name) {
+		this.name = name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(final String description) {
+		this.description = description;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(final int count) {
+		this.count = count;
+	}
+
+	public boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public void setSize(final long size) {
+		this.size = size;
+	}
+
+	public double getRatio() {
+		return ratio;
+	}
+
+	public void setRatio(final double ratio) {
+		this.ratio = ratio;
+	}
+
+	public String getCreated() {
+		return created;
+	}
+
+	public void setCreated(final String created) {
+		this.created = created;
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	public void setOwner(final String owner) {
+		this.owner = owner;
+	}
+
+}
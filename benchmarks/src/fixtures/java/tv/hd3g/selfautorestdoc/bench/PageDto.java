@@ -0,0 +1,52 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.bench;
+
+import java.util.List;
+
+/**
+ * A generic DTO, like PageDto<FlatDto>.
+ */
+public class PageDto<T> {
+
+	private List<T> items;
+	private T first;
+	private int total;
+	private int page;
+	private int pageSize;
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public T getFirst() {
+		return first;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.bench;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 48 fields, values, collections and sub DTOs.
+ */
+public class WideDto {
+
+	private String text0;
+	private int number0;
+	private List<String> list0;
+	private Map<String, String> map0;
+	private FlatDto flat0;
+	private List<FlatDto> flatList0;
+	private String text1;
+	private int number1;
+	private List<String> list1;
+	private Map<String, String> map1;
+	private FlatDto flat1;
+	private List<FlatDto> flatList1;
+	private String text2;
+	private int number2;
+	private List<String> list2;
+	private Map<String, String> map2;
+	private FlatDto flat2;
+	private List<FlatDto> flatList2;
+	private String text3;
+	private int number3;
+	private List<String> list3;
+	private Map<String, String> map3;
+	private FlatDto flat3;
+	private List<FlatDto> flatList3;
+	private String text4;
+	private int number4;
+	private List<String> list4;
+	private Map<String, String> map4;
+	private FlatDto flat4;
+	private List<FlatDto> flatList4;
+	private String text5;
+	private int number5;
+	private List<String> list5;
+	private Map<String, String> map5;
+	private FlatDto flat5;
+	private List<FlatDto> flatList5;
+	private String text6;
+	private int number6;
+	private List<String> list6;
+	private Map<String, String> map6;
+	private FlatDto flat6;
+	private List<FlatDto> flatList6;
+	private String text7;
+	private int number7;
+	private List<String> list7;
+	private Map<String, String> map7;
+	private FlatDto flat7;
+	private List<FlatDto> flatList7;
+
+	public String getText0() {
+		return text0;
+	}
+
+	public int getNumber0() {
+		return number0;
+	}
+
+	public List<String> getList0() {
+		return list0;
+	}
+
+	public Map<String, String> getMap0() {
+		return map0;
+	}
+
+	public FlatDto getFlat0() {
+		return flat0;
+	}
+
+	public List<FlatDto> getFlatList0() {
+		return flatList0;
+	}
+
+	public String getText1() {
+		return text1;
+	}
+
+	public int getNumber1() {
+		return number1;
+	}
+
+	public List<String> getList1() {
+		return list1;
+	}
+
+	public Map<String, String> getMap1() {
+		return map1;
+	}
+
+	public FlatDto getFlat1() {
+		return flat1;
+	}
+
+	public List<FlatDto> getFlatList1() {
+		return flatList1;
+	}
+
+	public String getText2() {
+		return text2;
+	}
+
+	public int getNumber2() {
+		return number2;
+	}
+
+	public List<String> getList2() {
+		return list2;
+	}
+
+	public Map<String, String> getMap2() {
+		return map2;
+	}
+
+	public FlatDto getFlat2() {
+		return flat2;
+	}
+
+	public List<FlatDto> getFlatList2() {
+		return flatList2;
+	}
+
+	public String getText3() {
+		return text3;
+	}
+
+	public int getNumber3() {
+		return number3;
+	}
+
+	public List<String> getList3() {
+		return list3;
+	}
+
+	public Map<String, String> getMap3() {
+		return map3;
+	}
+
+	public FlatDto getFlat3() {
+		return flat3;
+	}
+
+	public List<FlatDto> getFlatList3() {
+		return flatList3;
+	}
+
+	public String getText4() {
+		return text4;
+	}
+
+	public int getNumber4() {
+		return number4;
+	}
+
+	public List<String> getList4() {
+		return list4;
+	}
+
+	public Map<String, String> getMap4() {
+		return map4;
+	}
+
+	public FlatDto getFlat4() {
+		return flat4;
+	}
+
+	public List<FlatDto> getFlatList4() {
+		return flatList4;
+	}
+
+	public String getText5() {
+		return text5;
+	}
+
+	public int getNumber5() {
+		return number5;
+	}
+
+	public List<String> getList5() {
+		return list5;
+	}
+
+	public Map<String, String> getMap5() {
+		return map5;
+	}
+
+	public FlatDto getFlat5() {
+		return flat5;
+	}
+
+	public List<FlatDto> getFlatList5() {
+		return flatList5;
+	}
+
+	public String getText6() {
+		return text6;
+	}
+
+	public int getNumber6() {
+		return number6;
+	}
+
+	public List<String> getList6() {
+		return list6;
+	}
+
+	public Map<String, String> getMap6() {
+		return map6;
+	}
+
+	public FlatDto getFlat6() {
+		return flat6;
+	}
+
+	public List<FlatDto> getFlatList6() {
+		return flatList6;
+	}
+
+	public String getText7() {
+		return text7;
+	}
+
+	public int getNumber7() {
+		return number7;
+	}
+
+	public List<String> getList7() {
+		return list7;
+	}
+
+	public Map<String, String> getMap7() {
+		return map7;
+	}
+
+	public FlatDto getFlat7() {
+		return flat7;
+	}
+
+	public List<FlatDto> getFlatList7() {
+		return flatList7;
+	}
+
+}
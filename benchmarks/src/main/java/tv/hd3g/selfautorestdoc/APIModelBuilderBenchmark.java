@@ -0,0 +1,64 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tv.hd3g.selfautorestdoc.RESTController.RESTControllerAnalysis;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * The endpoints strings derivation (paths, full paths, rights, comments, anchors...) and the DTO table, from an
+ * already done controller analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class APIModelBuilderBenchmark {
+
+	private RESTControllerAnalysis analysis;
+
+	@Setup
+	public void setup() {
+		final var typeIndex = new TypeIndex(BenchmarkFixtures.buildModel());
+		analysis = new RESTController(BenchmarkFixtures.CONTROLLER).processAnalysis(typeIndex, new DtoShapeCache(),
+		        false, new ExportMetrics());
+	}
+
+	@Benchmark
+	public APIModel build() {
+		final var modelBuilder = new APIModelBuilder(Path.of(""));
+		analysis.getMethods().forEach(method -> modelBuilder.add(analysis, method));
+		return modelBuilder.build();
+	}
+
+}
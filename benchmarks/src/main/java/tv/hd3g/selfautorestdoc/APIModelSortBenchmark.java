@@ -0,0 +1,107 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * On a synthetic API, without any analysis: the endpoints construction (full paths, sort key and anchor), and the
+ * APIModel endpoints sort, from a shuffled endpoints list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class APIModelSortBenchmark {
+
+	private static final List<String> VERBS = List.of("GET", "POST", "PUT", "DELETE");
+
+	@Param({ "1000", "10000" })
+	private int endpointCount;
+
+	private List<APIEndpoint.Builder> builders;
+	private List<APIEndpoint> shuffledEndpoints;
+
+	@Setup
+	public void setup() {
+		builders = new ArrayList<>(endpointCount);
+		for (var pos = 0; pos < endpointCount; pos++) {
+			final var controller = "Controller" + pos % 100;
+			final var verb = VERBS.get(pos % VERBS.size());
+			final var builder = new APIEndpoint.Builder()
+			        .verbs(List.of(verb))
+			        .paths(List.of("/api/c" + pos % 100 + "/e" + pos / 100 + "/{id}"))
+			        .pathParameters(List.of(new APIParameter("id", "String", true, null)))
+			        .requestNames(List.of("Endpoint " + pos))
+			        .controllerSimpleName(controller)
+			        .controllerClassName("bench." + controller)
+			        .controllerFullPath("src/main/java/bench/" + controller + ".java")
+			        .methodName("endpoint" + pos)
+			        .lineMethodInController(pos / 100 + 10);
+			if (verb.equals("GET")) {
+				builder.queryParameters(List.of(
+				        new APIParameter("page", "int", false, "0"),
+				        new APIParameter("filter", "String", false, null)));
+			}
+			builders.add(builder);
+		}
+
+		shuffledEndpoints = createEndpoints();
+		Collections.shuffle(shuffledEndpoints, new Random(0));
+	}
+
+	private List<APIEndpoint> createEndpoints() {
+		return builders.stream()
+		        .map(APIEndpoint.Builder::build)
+		        .collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	@Benchmark
+	public List<APIEndpoint> buildEndpoints() {
+		return createEndpoints();
+	}
+
+	@Benchmark
+	public APIModel sortEndpoints() {
+		return new APIModel(shuffledEndpoints, List.<APIDto> of());
+	}
+
+}
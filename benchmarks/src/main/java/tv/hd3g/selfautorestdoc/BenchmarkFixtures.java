@@ -0,0 +1,68 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.util.List;
+
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import tv.hd3g.selfautorestdoc.bench.BenchmarkRestController;
+
+/**
+ * The benchmarks analyse the sources of the bench package, in src/fixtures/java: run them from the benchmarks
+ * directory, or set -Dselfautorestdoc.benchmark.sources=path/to/fixtures/java
+ */
+final class BenchmarkFixtures {
+
+	static final Class<?> CONTROLLER = BenchmarkRestController.class;
+
+	private BenchmarkFixtures() {
+	}
+
+	static File getSourceDirectory() {
+		final var sourceDirectory = new File(System.getProperty("selfautorestdoc.benchmark.sources",
+		        "src/fixtures/java"));
+		if (sourceDirectory.isDirectory() == false) {
+			throw new IllegalStateException("Can't found fixtures sources directory " + sourceDirectory
+			                                + ", set selfautorestdoc.benchmark.sources");
+		}
+		return sourceDirectory;
+	}
+
+	/**
+	 * Like the SelfAutoRESTDoc analysis does.
+	 */
+	static CtModel buildModel() {
+		final var launcher = new Launcher();
+		launcher.addInputResource(getSourceDirectory().getPath());
+		launcher.buildModel();
+		return launcher.getModel();
+	}
+
+	/**
+	 * Without prebuilt model nor analysis cache: each export will do a full analysis.
+	 */
+	static SelfAutoRESTDoc createSelfAutoRESTDoc() {
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		selfAutoRESTDoc.setSourceDirectories(List.of(getSourceDirectory()));
+		selfAutoRESTDoc.setUsePrebuiltModel(false);
+		selfAutoRESTDoc.registerClass(CONTROLLER);
+		return selfAutoRESTDoc;
+	}
+
+}
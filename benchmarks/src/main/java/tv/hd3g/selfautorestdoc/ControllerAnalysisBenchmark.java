@@ -0,0 +1,60 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tv.hd3g.selfautorestdoc.RESTController.RESTControllerAnalysis;
+
+/**
+ * RESTController.processAnalysis for one controller, on an already built Spoon model. Each call starts with an
+ * empty DTO shape cache, like the first controller of an analysis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerAnalysisBenchmark {
+
+	private TypeIndex typeIndex;
+	private RESTController controller;
+
+	@Setup
+	public void setup() {
+		typeIndex = new TypeIndex(BenchmarkFixtures.buildModel());
+		controller = new RESTController(BenchmarkFixtures.CONTROLLER);
+	}
+
+	@Benchmark
+	public RESTControllerAnalysis processAnalysis() {
+		return controller.processAnalysis(typeIndex, new DtoShapeCache(), false, new ExportMetrics());
+	}
+
+}
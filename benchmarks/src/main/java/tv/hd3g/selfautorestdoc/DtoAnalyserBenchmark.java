@@ -0,0 +1,100 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoItem;
+import tv.hd3g.selfautorestdoc.bench.DeepDto;
+import tv.hd3g.selfautorestdoc.bench.FlatDto;
+import tv.hd3g.selfautorestdoc.bench.WideDto;
+
+/**
+ * A DTO expansion, from an empty shape cache, or from a cache where the shape is already done.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoAnalyserBenchmark {
+
+	@Param({ "flat", "deep", "wide", "generic" })
+	private String shape;
+
+	private CtTypeReference<?> dtoType;
+	private DtoShapeCache warmShapeCache;
+
+	@Setup
+	public void setup() {
+		final var typeIndex = new TypeIndex(BenchmarkFixtures.buildModel());
+		switch (shape) {
+		case "flat":
+			dtoType = getReference(typeIndex, FlatDto.class);
+			break;
+		case "deep":
+			dtoType = getReference(typeIndex, DeepDto.class);
+			break;
+		case "wide":
+			dtoType = getReference(typeIndex, WideDto.class);
+			break;
+		case "generic":
+			/**
+			 * PageDto<FlatDto>, from ResponseEntity<PageDto<FlatDto>>
+			 */
+			dtoType = typeIndex.get(BenchmarkFixtures.CONTROLLER)
+			        .map(t -> t.getMethodsByName("getPage").get(0).getType().getActualTypeArguments().get(0))
+			        .orElseThrow();
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown DTO shape " + shape);
+		}
+		warmShapeCache = new DtoShapeCache();
+		new DtoAnalyser(dtoType, true, warmShapeCache, new ExportMetrics());
+	}
+
+	private static CtTypeReference<?> getReference(final TypeIndex typeIndex, final Class<?> type) {
+		return typeIndex.get(type).map(CtType::getReference).orElseThrow();
+	}
+
+	@Benchmark
+	public List<DtoItem> getDtoContent() {
+		return new DtoAnalyser(dtoType, true, new DtoShapeCache(), new ExportMetrics()).getDtoContent();
+	}
+
+	@Benchmark
+	public List<DtoItem> getCachedDtoContent() {
+		return new DtoAnalyser(dtoType, true, warmShapeCache, new ExportMetrics()).getDtoContent();
+	}
+
+}
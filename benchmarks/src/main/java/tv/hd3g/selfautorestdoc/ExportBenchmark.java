@@ -0,0 +1,78 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * The Markdown rendering alone, and a full writeToMD (analysis, rendering and file write).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+	private APIModel model;
+	private File outputFile;
+
+	@Setup
+	public void setup() throws IOException {
+		model = BenchmarkFixtures.createSelfAutoRESTDoc().getAPIModel();
+		outputFile = File.createTempFile("selfautorestdoc-benchmark", ".md");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(outputFile.toPath());
+	}
+
+	@Benchmark
+	public void render() throws IOException {
+		new MarkdownRenderer(MarkdownRenderer.DEFAULT_TITLE, null, 0, false)
+		        .write(model, "/blob/master", Writer.nullWriter());
+	}
+
+	/**
+	 * The output file content is the same after the first call: it's hashed, but not replaced.
+	 */
+	@Benchmark
+	public boolean writeToMD() throws IOException {
+		return BenchmarkFixtures.createSelfAutoRESTDoc().writeToMD(outputFile, "/blob/master");
+	}
+
+}
@@ -0,0 +1,22 @@
+#!/bin/sh
+# Usage : <no parameter>
+
+# This file is part of SelfAutoRESTDoc.
+# Licencied under LGPL v3.
+# Copyright (C) hdsdi3g for hd3g.tv 2019
+
+BASE_DIR=$(git rev-parse --show-toplevel);
+
+cd $BASE_DIR
+
+echo "This utility make the API.md document, without start the java application";
+
+if [ ! -d "src/main/java" ]; then
+	echo "Please run-it on from a project repository";
+	exit 1;
+fi
+
+echo "Compile and resolve classpath, please standby..."
+echo ""
+mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/selfautorestdoc-classpath.txt
+java -cp "target/classes:$(cat target/selfautorestdoc-classpath.txt)" tv.hd3g.selfautorestdoc.ExportRESTDocAPIHeadless target/classes
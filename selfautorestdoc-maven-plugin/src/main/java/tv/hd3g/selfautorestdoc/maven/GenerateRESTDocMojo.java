@@ -0,0 +1,238 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.maven;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import tv.hd3g.selfautorestdoc.ExportRESTDocAPIHeadless;
+import tv.hd3g.selfautorestdoc.ExportResult;
+import tv.hd3g.selfautorestdoc.SelfAutoRESTDoc;
+
+/**
+ * Make the REST doc from the compiled classes and the source roots of the current project, without start it.
+ * Nothing is done if the classes, the sources, the classpath and this configuration have not changed since the
+ * last run, and if the output file is still here.
+ */
+@Mojo(name = "generate",
+      defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+      requiresDependencyResolution = ResolutionScope.COMPILE,
+      threadSafe = true)
+public class GenerateRESTDocMojo extends AbstractMojo {
+
+	private static final String FINGERPRINT_FILE_NAME = "maven-plugin.fingerprint";
+
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+
+	@Parameter(property = "selfautorestdoc.skip", defaultValue = "false")
+	private boolean skip;
+
+	@Parameter(property = "selfautorestdoc.outputfile", defaultValue = "${project.basedir}/API.md")
+	private File outputFile;
+
+	@Parameter(property = "selfautorestdoc.baseProjectURL", defaultValue = "/blob/master")
+	private String baseProjectURL;
+
+	/**
+	 * Analysis cache, and last run fingerprint.
+	 */
+	@Parameter(property = "selfautorestdoc.cachedir", defaultValue = "${project.build.directory}/selfautorestdoc")
+	private File cacheDirectory;
+
+	@Parameter(property = "selfautorestdoc.incremental", defaultValue = "false")
+	private boolean incremental;
+
+	@Parameter(property = "selfautorestdoc.targeted", defaultValue = "false")
+	private boolean targeted;
+
+	@Parameter(property = "selfautorestdoc.parallelism", defaultValue = "1")
+	private int parallelism;
+
+	/**
+	 * Comma separated, like markdown,openapi,html. Each format is written next to outputFile, with its own extension.
+	 */
+	@Parameter(property = "selfautorestdoc.formats", defaultValue = "markdown")
+	private String formats;
+
+	/**
+	 * Write the Markdown format as one file by controller, in a directory named like outputFile, with outputFile as
+	 * index.
+	 */
+	@Parameter(property = "selfautorestdoc.sharded", defaultValue = "false")
+	private boolean sharded;
+
+	/**
+	 * If more than 0, the Markdown DTOs used more than once, with at least this fields count, are written once in a
+	 * Models section.
+	 */
+	@Parameter(property = "selfautorestdoc.modelsminsize", defaultValue = "0")
+	private int modelsMinSize;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		if (skip) {
+			getLog().info("Skip REST doc generation");
+			return;
+		}
+		final var classesDirectory = new File(project.getBuild().getOutputDirectory());
+		if (classesDirectory.isDirectory() == false) {
+			getLog().info("No classes directory, skip REST doc generation");
+			return;
+		}
+		final var sourceDirectories = project.getCompileSourceRoots().stream()
+		        .map(File::new)
+		        .collect(Collectors.toUnmodifiableList());
+		final List<File> classpath;
+		try {
+			classpath = project.getCompileClasspathElements().stream()
+			        .map(File::new)
+			        .filter(f -> f.equals(classesDirectory) == false)
+			        .collect(Collectors.toUnmodifiableList());
+		} catch (final DependencyResolutionRequiredException e) {
+			throw new MojoExecutionException("Can't resolve the project classpath", e);
+		}
+
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		selfAutoRESTDoc.setSourceDirectories(sourceDirectories);
+		selfAutoRESTDoc.setBaseDirectory(project.getBasedir());
+		selfAutoRESTDoc.setCacheDirectory(cacheDirectory);
+		selfAutoRESTDoc.setIncremental(incremental);
+		selfAutoRESTDoc.setTargeted(targeted);
+		selfAutoRESTDoc.setParallelism(parallelism);
+		selfAutoRESTDoc.setSharded(sharded);
+		selfAutoRESTDoc.setModelsMinSize(modelsMinSize);
+		final List<File> outputFiles;
+		try {
+			selfAutoRESTDoc.setFormats(List.of(Objects.toString(formats, "").split(",")));
+			outputFiles = selfAutoRESTDoc.getOutputFiles(outputFile);
+		} catch (final IllegalArgumentException e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+
+		final var fingerprintFile = new File(cacheDirectory, FINGERPRINT_FILE_NAME);
+		final String fingerprint;
+		try {
+			fingerprint = computeFingerprint(classesDirectory, sourceDirectories, classpath);
+			if (outputFiles.stream().allMatch(File::exists)
+			    && fingerprintFile.exists()
+			    && fingerprint.equals(Files.readString(fingerprintFile.toPath(), UTF_8))) {
+				getLog().info("Nothing has changed since the last REST doc generation, " + outputFiles
+				              + " are up to date");
+				return;
+			}
+		} catch (final IOException | UncheckedIOException e) {
+			throw new MojoExecutionException("Can't read the project files", e);
+		}
+
+		final ExportResult result;
+		try {
+			result = new ExportRESTDocAPIHeadless(classesDirectory, classpath).export(selfAutoRESTDoc, outputFile,
+			        baseProjectURL);
+			Files.createDirectories(cacheDirectory.toPath());
+			Files.writeString(fingerprintFile.toPath(), fingerprint, UTF_8);
+		} catch (final IOException | UncheckedIOException e) {
+			throw new MojoExecutionException("Can't make REST doc to " + outputFile, e);
+		}
+		getLog().info("REST API doc exported to " + result);
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Can't found SHA-256 digest", e);
+		}
+	}
+
+	private static void update(final MessageDigest digest, final String value) {
+		digest.update(value.getBytes(UTF_8));
+		digest.update((byte) 0);
+	}
+
+	/**
+	 * Add all the files of this directory (relative path, size and date), sorted by path. The files are not read.
+	 */
+	private static void updateDirectory(final MessageDigest digest, final File directory) throws IOException {
+		update(digest, directory.getAbsolutePath());
+		if (directory.isDirectory() == false) {
+			return;
+		}
+		final var root = directory.toPath();
+		try (final var walk = Files.walk(root)) {
+			final var files = walk.filter(Files::isRegularFile)
+			        .sorted()
+			        .collect(Collectors.toUnmodifiableList());
+			for (final Path file : files) {
+				final var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				update(digest, root.relativize(file).toString().replace('\\', '/')
+				               + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis());
+			}
+		}
+	}
+
+	/**
+	 * @return a hash of this plugin configuration, the project directory, and the classes, the sources, and the
+	 *         classpath files, by path, size and date.
+	 */
+	private String computeFingerprint(final File classesDirectory,
+	                                  final List<File> sourceDirectories,
+	                                  final List<File> classpath) throws IOException {
+		final var digest = createDigest();
+		update(digest, String.valueOf(GenerateRESTDocMojo.class.getPackage().getImplementationVersion()));
+		update(digest, outputFile.getAbsolutePath());
+		update(digest, project.getBasedir().getAbsolutePath());
+		update(digest, Objects.toString(baseProjectURL, ""));
+		update(digest, incremental + "|" + targeted + "|" + parallelism + "|" + formats + "|" + sharded
+		               + "|" + modelsMinSize);
+
+		updateDirectory(digest, classesDirectory);
+		for (final var sourceDirectory : sourceDirectories) {
+			updateDirectory(digest, sourceDirectory);
+		}
+		for (final var entry : classpath) {
+			if (entry.isDirectory()) {
+				updateDirectory(digest, entry);
+			} else {
+				update(digest, entry.getAbsolutePath() + "|" + entry.length() + "|" + entry.lastModified());
+			}
+		}
+		return String.format("%064x", new BigInteger(1, digest.digest()));
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.IOException;
+import java.util.List;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * Streaming events of an APIModel, sent by APIModelWalker, in this order:
+ * startDocument, summaryEntry (for each endpoint), endSummary, then for each accepted endpoint: startEndpoint, parameter (path, then
+ * query), endParameters, request body and response DTOs (startDto, startField/endField, endDto), endEndpoint.
+ * And finally endDocument.
+ * If the walk is done with shared DTOs, a shared DTO is never expanded in the endpoints: it's replaced by
+ * dtoReference for a request body or response, and modelReference before its field. All the shared DTOs are sent
+ * once, just before endDocument: startModels, then for each, startDto/fields/endDto with the MODEL role, and endModels.
+ * A renderer can write each event as is, to an Appendable, without keep anything.
+ * All the methods do nothing by default.
+ */
+public interface APIDocVisitor {
+
+	enum ParameterKind {
+		PATH,
+		QUERY;
+	}
+
+	enum DtoRole {
+		REQUEST_BODY,
+		RESPONSE,
+		/**
+		 * A shared DTO, in the models section
+		 */
+		MODEL;
+	}
+
+	default void startDocument(final APIModel model) throws IOException {
+	}
+
+	default void summaryEntry(final APIEndpoint endpoint) throws IOException {
+	}
+
+	default void endSummary() throws IOException {
+	}
+
+	/**
+	 * Called before startEndpoint.
+	 * @return false to skip this endpoint: no other event will be sent for it, like if it's already rendered.
+	 */
+	default boolean acceptEndpoint(final APIEndpoint endpoint) throws IOException {
+		return true;
+	}
+
+	default void startEndpoint(final APIEndpoint endpoint) throws IOException {
+	}
+
+	/**
+	 * @param index the position of the parameter in its kind list, from 0
+	 */
+	default void parameter(final ParameterKind kind, final APIParameter parameter, final int index) throws IOException {
+	}
+
+	default void endParameters(final APIEndpoint endpoint) throws IOException {
+	}
+
+	/**
+	 * @param dtoIndex in APIModel.getDtos()
+	 * @param mediaTypes consumes for a request body, produces for a response
+	 */
+	default void startDto(final DtoRole role,
+	                      final int dtoIndex,
+	                      final APIDto dto,
+	                      final List<String> mediaTypes) throws IOException {
+	}
+
+	/**
+	 * A shared request body or response DTO, in place of startDto/fields/endDto.
+	 * Same parameters as startDto
+	 */
+	default void dtoReference(final DtoRole role,
+	                          final int dtoIndex,
+	                          final APIDto dto,
+	                          final List<String> mediaTypes) throws IOException {
+	}
+
+	/**
+	 * Just before the startField of a field with a shared DTO, which will not be expanded.
+	 */
+	default void modelReference(final APIDtoField field, final APIDto dto) throws IOException {
+	}
+
+	/**
+	 * @param depth 0 for the root DTO fields
+	 * @param last the last field of its DTO
+	 * @param expanded if true, the fields of the field DTO will follow, before endField. False for a value, or for a
+	 *        DTO already expanded by a parent field (recursive DTO).
+	 */
+	default void startField(final APIDtoField field,
+	                        final int depth,
+	                        final boolean last,
+	                        final boolean expanded) throws IOException {
+	}
+
+	/**
+	 * Same parameters as startField
+	 */
+	default void endField(final APIDtoField field,
+	                      final int depth,
+	                      final boolean last,
+	                      final boolean expanded) throws IOException {
+	}
+
+	default void endDto(final DtoRole role, final int dtoIndex, final APIDto dto) throws IOException {
+	}
+
+	default void endEndpoint(final APIEndpoint endpoint) throws IOException {
+	}
+
+	default void startModels() throws IOException {
+	}
+
+	default void endModels() throws IOException {
+	}
+
+	default void endDocument() throws IOException {
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * An output format for the analysed API. All the selected writers get the same APIModel, and are run concurrently:
+ * an implementation must be stateless, or thread safe.
+ */
+public interface APIDocWriter {
+
+	/**
+	 * @return the name used to select this writer, like with selfautorestdoc.formats
+	 */
+	String getFormat();
+
+	/**
+	 * @return without dot, like md
+	 */
+	String getFileExtension();
+
+	/**
+	 * @return like text/markdown
+	 */
+	String getMediaType();
+
+	/**
+	 * @param out already buffered, don't close it.
+	 */
+	void write(APIModel model, String baseProjectURL, Writer out) throws IOException;
+
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import tv.hd3g.selfautorestdoc.AnnotationExtractor.MappingAnnotation;
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoItem;
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoShape;
+import tv.hd3g.selfautorestdoc.RESTController.RESTControllerAnalysis;
+import tv.hd3g.selfautorestdoc.RESTMethod.URLVariable;
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * Copy out the analysis result (annotations, URL variables, DTO shapes) to an APIModel: after build(), no
+ * reference to the Spoon model, to the controller classes or to the DTO shapes are kept.
+ * Not thread safe.
+ */
+class APIModelBuilder {
+
+	private final Path baseDirectory;
+	private final List<APIEndpoint> endpoints;
+	private final List<APIDto> dtos;
+	private final IdentityHashMap<DtoShape, Integer> dtoIndexes;
+	private final Set<String> controllerClassNames;
+
+	/**
+	 * @param baseDirectory the project directory, for the controllers source paths
+	 */
+	APIModelBuilder(final Path baseDirectory) {
+		this.baseDirectory = Objects.requireNonNull(baseDirectory, "\"baseDirectory\" can't to be null");
+		endpoints = new ArrayList<>();
+		dtos = new ArrayList<>();
+		dtoIndexes = new IdentityHashMap<>();
+		controllerClassNames = new TreeSet<>();
+	}
+
+	/**
+	 * Keep this controller in the model, even if it don't have any endpoint.
+	 */
+	APIModelBuilder addController(final String controllerClassName) {
+		controllerClassNames.add(controllerClassName);
+		return this;
+	}
+
+	APIModelBuilder add(final RESTControllerAnalysis controller, final RESTMethod method) {
+		return add(controller.getAnnotations(),
+		        method.getAnnotations(),
+		        method.getUrlParameters(),
+		        method.getUrlQueryParameters(),
+		        method.getRequestBodyType().map(DtoAnalyser::getDtoShape),
+		        method.getMethodReturn().map(DtoAnalyser::getDtoShape),
+		        controller.getControllerClass().getSimpleName(),
+		        controller.getControllerClass().getName(),
+		        toControllerFullPath(controller.getControllerClass().getName(), method.getControllerFile(),
+		                baseDirectory),
+		        method.getMethod().getName(),
+		        method.getMethodPosInControllerFile().orElse(1),
+		        method.getMethodComments());
+	}
+
+	/**
+	 * Without Spoon or reflection, like during an annotation processing.
+	 * @param controllerFullPath see toControllerFullPath
+	 */
+	APIModelBuilder add(final AnnotationExtractor controllerAnnotations,
+	                    final AnnotationExtractor methodAnnotations,
+	                    final List<URLVariable> urlPathParameters,
+	                    final List<URLVariable> urlQueryParameters,
+	                    final Optional<DtoShape> requestBody,
+	                    final Optional<DtoShape> response,
+	                    final String controllerSimpleName,
+	                    final String controllerClassName,
+	                    final String controllerFullPath,
+	                    final String methodName,
+	                    final int lineMethodInController,
+	                    final List<String> methodComments) {
+		endpoints.add(new APIEndpoint.Builder()
+		        .verbs(extractVerbs(controllerAnnotations, methodAnnotations))
+		        .paths(getAllRequestValuePaths(controllerAnnotations, methodAnnotations))
+		        .pathParameters(toParameters(urlPathParameters))
+		        .queryParameters(toParameters(urlQueryParameters))
+		        .rights(extractRights(controllerAnnotations, methodAnnotations))
+		        .requestNames(fromAnnotationMappings(controllerAnnotations, methodAnnotations,
+		                a -> a.getRequestName().stream()))
+		        .headers(fromAnnotationMappings(controllerAnnotations, methodAnnotations,
+		                a -> a.getHeaders().stream()))
+		        .produces(fromAnnotationMappings(controllerAnnotations, methodAnnotations,
+		                a -> a.getProduces().stream()))
+		        .consumes(fromAnnotationMappings(controllerAnnotations, methodAnnotations,
+		                a -> a.getConsumes().stream()))
+		        .requestBodyDto(requestBody.map(this::toDtoIndex).orElse(-1))
+		        .responseDto(response.map(this::toDtoIndex).orElse(-1))
+		        .controllerSimpleName(controllerSimpleName)
+		        .controllerClassName(controllerClassName)
+		        .controllerFullPath(controllerFullPath)
+		        .methodName(methodName)
+		        .lineMethodInController(lineMethodInController)
+		        .methodComments(methodComments)
+		        .build());
+		return this;
+	}
+
+	/**
+	 * @return true if there are no endpoints and no added controllers
+	 */
+	boolean isEmpty() {
+		return endpoints.isEmpty() && controllerClassNames.isEmpty();
+	}
+
+	APIModel build() {
+		return new APIModel(endpoints, dtos, controllerClassNames);
+	}
+
+	/**
+	 * The index is reserved before the fields conversion: a cycle to this shape will only get its index.
+	 * @return the index of this shape in dtos, added if needed, with all its sub shapes
+	 */
+	private int toDtoIndex(final DtoShape shape) {
+		final var existing = dtoIndexes.get(shape);
+		if (existing != null) {
+			return existing;
+		}
+		final var index = dtos.size();
+		dtoIndexes.put(shape, index);
+		dtos.add(null);
+
+		final var fields = Optional.ofNullable(shape.getItems()).orElse(List.of()).stream()
+		        .map(this::toField)
+		        .collect(Collectors.toUnmodifiableList());
+		dtos.set(index, new APIDto(shape.getTypeName(), shape.getQualifiedName(), fields));
+		return index;
+	}
+
+	private APIDtoField toField(final DtoItem item) {
+		final var subShape = item.getSubShape();
+		return new APIDtoField(item.getName(),
+		        APIDtoField.Stratum.valueOf(item.getStructuralStratum().name()),
+		        item.getType(),
+		        subShape == null ? -1 : toDtoIndex(subShape));
+	}
+
+	private static List<APIParameter> toParameters(final List<URLVariable> urlVariables) {
+		return urlVariables.stream()
+		        .map(v -> new APIParameter(v.getName(), v.getType(), v.isRequired(), v.getDefaultValue()))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return POST, GET, HEAD
+	 */
+	private static List<String> extractVerbs(final AnnotationExtractor controller, final AnnotationExtractor method) {
+		return Stream.concat(
+		        controller.getMappings().stream()
+		                .flatMap(mapping -> mapping.getRequestMethods().stream()),
+		        method.getMappings().stream()
+		                .flatMap(mapping -> mapping.getRequestMethods().stream()))
+		        .map(Enum::name)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return like (AA & BB | CC & DD) & (EE)
+	 */
+	private static String extractRights(final AnnotationExtractor controller, final AnnotationExtractor method) {
+		final Function<Set<String>, String> andJoin = checkBefore -> checkBefore.stream()
+		        .collect(Collectors.joining(" & "));
+
+		final var controllerCB = controller.getAllCheckBefore().stream()
+		        .map(andJoin)
+		        .collect(Collectors.joining(" | "));
+		final var methodCB = method.getAllCheckBefore().stream()
+		        .map(andJoin)
+		        .collect(Collectors.joining(" | "));
+
+		if (controllerCB.isEmpty() && methodCB.isEmpty()) {
+			return "";
+		} else if (controllerCB.isEmpty() ^ methodCB.isEmpty()) {
+			return controllerCB.trim() + methodCB.trim();
+		} else {
+			return "(" + controllerCB.trim() + ") & (" + methodCB.trim() + ")";
+		}
+	}
+
+	/**
+	 * @return [a,b,c,/d,e/,/f/] -> /a/b/c/d/e/f
+	 */
+	private static String ensurePaths(final String... values) {
+		return Arrays.stream(values)
+		        .filter(v -> v != null && v.isBlank() == false)
+		        .map(String::trim)
+		        .map(v -> {
+			        if (v.equals("/")) {
+				        return "";
+			        }
+			        var start = 0;
+			        if (v.startsWith("/")) {
+				        start = 1;
+			        }
+			        var ends = v.length();
+			        if (v.endsWith("/")) {
+				        ends = v.length() - 1;
+			        }
+			        return v.substring(start, ends);
+		        })
+		        .collect(Collectors.joining("/", "/", ""));
+	}
+
+	/**
+	 * @return like [/aa/bbb/{ccc}, /aaa/bb/{eee}/ddd, /dsds]
+	 */
+	private static List<String> getAllRequestValuePaths(final AnnotationExtractor controller,
+	                                                    final AnnotationExtractor method) {
+		final Function<MappingAnnotation, String> getPathsFromControllers = controllerAnnotations -> controllerAnnotations
+		        .getRequestValuePath().orElse("/");
+
+		final Function<String, Stream<String>> flatCtrlPathMethodsPathsMapper = globalPath -> {
+			final Function<MappingAnnotation, String> getFullPathMapper = methodAnnotations -> ensurePaths(
+			        globalPath, methodAnnotations.getRequestValuePath().orElse(""));
+			return method.getMappings().stream().map(getFullPathMapper);
+		};
+
+		return controller.getMappings().stream()
+		        .map(getPathsFromControllers)
+		        .flatMap(flatCtrlPathMethodsPathsMapper)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	private static List<String> fromAnnotationMappings(final AnnotationExtractor controller,
+	                                                   final AnnotationExtractor method,
+	                                                   final Function<MappingAnnotation, Stream<String>> mapper) {
+		return Stream.concat(
+		        controller.getMappings().stream().flatMap(mapper),
+		        method.getMappings().stream().flatMap(mapper))
+		        .filter(n -> n.isBlank() == false)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @param controllerFile the controller source file, if known
+	 * @param baseDirectory the project directory
+	 * @return the controller source file path, relative to baseDirectory, or else the controller class name as a path.
+	 */
+	static String toControllerFullPath(final String controllerClassName,
+	                                   final Optional<File> controllerFile,
+	                                   final Path baseDirectory) {
+		final var ctrl = controllerClassName.replace(".", "/");
+		final var hash = ctrl.indexOf('#');
+		if (hash > 0) {
+			return ctrl.substring(0, hash - 1);
+		}
+		return controllerFile
+		        .map(cFile -> SourceFiles.toRelativePath(cFile, baseDirectory))
+		        .orElse(ctrl);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+/**
+ * The analysed API, as an APIModelCodec file, made at compile time by RESTDocProcessor.
+ */
+class APIModelFile {
+	private static Logger log = LogManager.getLogger();
+
+	/**
+	 * Relative to a classes directory, or to the classpath root.
+	 */
+	static final String RESOURCE_NAME = "META-INF/selfautorestdoc/model.bin";
+
+	private APIModelFile() {
+	}
+
+	/**
+	 * Only the model files of the controllers code sources (their jars or classes directories) are read: a model file
+	 * of an other jar of the classpath is never used. No Spoon class will be loaded.
+	 * @return the merged models of the model files found, or empty if there are none, or if none of them can be read.
+	 */
+	static Optional<APIModel> readFromCodeSources(final Collection<Class<?>> controllers) {
+		final var models = new ArrayList<APIModel>();
+		controllers.stream()
+		        .map(APIModelFile::getCodeSourceLocation)
+		        .flatMap(Optional::stream)
+		        .distinct()
+		        .map(APIModelFile::toModelFileURL)
+		        .flatMap(Optional::stream)
+		        .forEach(url -> read(url).ifPresent(models::add));
+		if (models.isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.of(APIModel.merge(models));
+	}
+
+	private static Optional<URL> getCodeSourceLocation(final Class<?> controller) {
+		return Optional.ofNullable(controller.getProtectionDomain().getCodeSource())
+		        .map(CodeSource::getLocation);
+	}
+
+	/**
+	 * @param location a classes directory, or a jar file
+	 */
+	private static Optional<URL> toModelFileURL(final URL location) {
+		try {
+			if (location.getPath().endsWith("/")) {
+				return Optional.of(new URL(location, RESOURCE_NAME));
+			}
+			return Optional.of(new URL("jar:" + location.toExternalForm() + "!/" + RESOURCE_NAME));
+		} catch (final MalformedURLException e) {
+			log.warn("Can't search prebuilt API model in {}", location, e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<APIModel> read(final URL url) {
+		try {
+			final var connection = url.openConnection();
+			/**
+			 * Don't keep the jar file open
+			 */
+			connection.setUseCaches(false);
+			try (final var in = connection.getInputStream()) {
+				log.debug("Load prebuilt API model from {}", url);
+				return Optional.of(APIModelCodec.read(in));
+			}
+		} catch (final FileNotFoundException e) {
+			return Optional.empty();
+		} catch (final IOException e) {
+			log.warn("Can't read prebuilt API model {}, ignore it", url, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the controller class names stored in the model, with the controllers without any endpoint
+	 */
+	static Set<String> getControllerClassNames(final APIModel model) {
+		return Set.copyOf(model.getControllerClassNames());
+	}
+
+}
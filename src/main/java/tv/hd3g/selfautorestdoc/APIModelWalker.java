@@ -0,0 +1,234 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import tv.hd3g.selfautorestdoc.APIDocVisitor.DtoRole;
+import tv.hd3g.selfautorestdoc.APIDocVisitor.ParameterKind;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * Send all the APIDocVisitor events of an APIModel. A DTO is expanded at each use, but never inside itself
+ * (recursive DTO). Nothing is allocated during the walk, except the call stack, as deep as the DTOs.
+ * With shared DTOs, like the ones found by findSharedDtos, each shared DTO is only expanded once, in the models
+ * section, and referenced elsewhere.
+ */
+public final class APIModelWalker {
+
+	private final APIModel model;
+	private final APIDocVisitor visitor;
+	/**
+	 * The DTO indexes of the current fields path
+	 */
+	private final BitSet dtoPath;
+	private final BitSet sharedDtos;
+
+	private APIModelWalker(final APIModel model, final BitSet sharedDtos, final APIDocVisitor visitor) {
+		this.model = model;
+		this.sharedDtos = sharedDtos;
+		this.visitor = visitor;
+		dtoPath = new BitSet(model.getDtos().size());
+	}
+
+	/**
+	 * All the DTOs are expanded at each use.
+	 */
+	public static void walk(final APIModel model, final APIDocVisitor visitor) throws IOException {
+		walk(model, new BitSet(), visitor);
+	}
+
+	/**
+	 * @param sharedDtos the DTO indexes to send only once, in the models section
+	 */
+	public static void walk(final APIModel model,
+	                        final BitSet sharedDtos,
+	                        final APIDocVisitor visitor) throws IOException {
+		new APIModelWalker(model, sharedDtos, visitor).walkDocument();
+	}
+
+	/**
+	 * Only the events of one endpoint section, from acceptEndpoint to endEndpoint, like to render the sections apart,
+	 * and concurrently: a walker is not shared.
+	 * @param sharedDtos the same as for the document walk
+	 */
+	public static void walkEndpoint(final APIModel model,
+	                                final BitSet sharedDtos,
+	                                final APIEndpoint endpoint,
+	                                final APIDocVisitor visitor) throws IOException {
+		new APIModelWalker(model, sharedDtos, visitor).walkEndpoint(endpoint);
+	}
+
+	/**
+	 * A DTO is shared if it's used more than once (as a request body, a response, or in the fields of the other DTOs
+	 * of the model), and if it has at least minSize fields, sub fields included. The small or one-off DTOs stay
+	 * expanded at each use.
+	 * @param minSize 0 or less to share nothing
+	 * @return the shared DTO indexes
+	 */
+	public static BitSet findSharedDtos(final APIModel model, final int minSize) {
+		final var shared = new BitSet();
+		if (minSize < 1) {
+			return shared;
+		}
+		final var dtoCount = model.getDtos().size();
+		final var uses = new int[dtoCount];
+		for (final var endpoint : model.getEndpoints()) {
+			if (endpoint.getRequestBodyDto() > -1) {
+				uses[endpoint.getRequestBodyDto()]++;
+			}
+			if (endpoint.getResponseDto() > -1) {
+				uses[endpoint.getResponseDto()]++;
+			}
+		}
+		for (var pos = 0; pos < dtoCount; pos++) {
+			for (final var field : model.getDto(pos).getFields()) {
+				if (field.hasDto() && field.getDtoIndex() != pos) {
+					uses[field.getDtoIndex()]++;
+				}
+			}
+		}
+		final var path = new BitSet(dtoCount);
+		for (var pos = 0; pos < dtoCount; pos++) {
+			if (uses[pos] > 1 && countFields(model, pos, path, minSize) >= minSize) {
+				shared.set(pos);
+			}
+		}
+		return shared;
+	}
+
+	/**
+	 * @return the expanded fields count of this DTO, up to limit
+	 */
+	private static int countFields(final APIModel model, final int dtoIndex, final BitSet path, final int limit) {
+		path.set(dtoIndex);
+		var count = 0;
+		for (final var field : model.getDto(dtoIndex).getFields()) {
+			if (count >= limit) {
+				break;
+			}
+			count++;
+			if (field.hasDto() && path.get(field.getDtoIndex()) == false) {
+				count += countFields(model, field.getDtoIndex(), path, limit - count);
+			}
+		}
+		path.clear(dtoIndex);
+		return count;
+	}
+
+	private void walkDocument() throws IOException {
+		visitor.startDocument(model);
+		for (final var endpoint : model.getEndpoints()) {
+			visitor.summaryEntry(endpoint);
+		}
+		visitor.endSummary();
+		for (final var endpoint : model.getEndpoints()) {
+			walkEndpoint(endpoint);
+		}
+		if (sharedDtos.isEmpty() == false) {
+			walkModels();
+		}
+		visitor.endDocument();
+	}
+
+	private void walkEndpoint(final APIEndpoint endpoint) throws IOException {
+		if (visitor.acceptEndpoint(endpoint) == false) {
+			return;
+		}
+		visitor.startEndpoint(endpoint);
+
+		final var pathParameters = endpoint.getPathParameters();
+		for (var pos = 0; pos < pathParameters.size(); pos++) {
+			visitor.parameter(ParameterKind.PATH, pathParameters.get(pos), pos);
+		}
+		final var queryParameters = endpoint.getQueryParameters();
+		for (var pos = 0; pos < queryParameters.size(); pos++) {
+			visitor.parameter(ParameterKind.QUERY, queryParameters.get(pos), pos);
+		}
+		visitor.endParameters(endpoint);
+
+		if (endpoint.getRequestBodyDto() > -1) {
+			walkDto(DtoRole.REQUEST_BODY, endpoint.getRequestBodyDto(), endpoint);
+		}
+		if (endpoint.getResponseDto() > -1) {
+			walkDto(DtoRole.RESPONSE, endpoint.getResponseDto(), endpoint);
+		}
+		visitor.endEndpoint(endpoint);
+	}
+
+	/**
+	 * Sorted by type name, then by anchor, to not depend on the DTO indexes.
+	 */
+	private void walkModels() throws IOException {
+		visitor.startModels();
+		final var sorted = sharedDtos.stream()
+		        .boxed()
+		        .sorted(Comparator.comparing((final Integer pos) -> model.getDto(pos).getTypeName())
+		                .thenComparing(pos -> model.getDto(pos).getAnchor()))
+		        .collect(Collectors.toUnmodifiableList());
+		for (final int dtoIndex : sorted) {
+			final var dto = model.getDto(dtoIndex);
+			visitor.startDto(DtoRole.MODEL, dtoIndex, dto, List.of());
+			walkFields(dtoIndex, 0);
+			visitor.endDto(DtoRole.MODEL, dtoIndex, dto);
+		}
+		visitor.endModels();
+	}
+
+	private void walkDto(final DtoRole role, final int dtoIndex, final APIEndpoint endpoint) throws IOException {
+		final var dto = model.getDto(dtoIndex);
+		final var mediaTypes = role == DtoRole.REQUEST_BODY ? endpoint.getConsumes() : endpoint.getProduces();
+		if (sharedDtos.get(dtoIndex)) {
+			visitor.dtoReference(role, dtoIndex, dto, mediaTypes);
+			return;
+		}
+		visitor.startDto(role, dtoIndex, dto, mediaTypes);
+		walkFields(dtoIndex, 0);
+		visitor.endDto(role, dtoIndex, dto);
+	}
+
+	private void walkFields(final int dtoIndex, final int depth) throws IOException {
+		dtoPath.set(dtoIndex);
+		final var fields = model.getDto(dtoIndex).getFields();
+		final var last = fields.size() - 1;
+		for (var pos = 0; pos <= last; pos++) {
+			walkField(fields.get(pos), depth, pos == last);
+		}
+		dtoPath.clear(dtoIndex);
+	}
+
+	private void walkField(final APIDtoField field, final int depth, final boolean last) throws IOException {
+		final var expanded = field.hasDto()
+		                     && dtoPath.get(field.getDtoIndex()) == false
+		                     && sharedDtos.get(field.getDtoIndex()) == false;
+		if (field.hasDto() && sharedDtos.get(field.getDtoIndex()) && dtoPath.get(field.getDtoIndex()) == false) {
+			visitor.modelReference(field, model.getDto(field.getDtoIndex()));
+		}
+		visitor.startField(field, depth, last, expanded);
+		if (expanded) {
+			walkFields(field.getDtoIndex(), depth + 1);
+		}
+		visitor.endField(field, depth, last, expanded);
+	}
+
+}
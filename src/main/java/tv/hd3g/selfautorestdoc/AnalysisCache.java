@@ -0,0 +1,303 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import spoon.Launcher;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+/**
+ * Keep on disk the last analysis result, keyed by the hash of all the source files, the registered controllers,
+ * and the Spoon/SelfAutoRESTDoc versions. Each controller result is stored as an APIModelCodec snapshot.
+ * The DTOs walked by reflection (from the compiled classes or the jars) are checked by their class file hash.
+ */
+class AnalysisCache {
+	private static Logger log = LogManager.getLogger();
+
+	private static final String CACHE_FILE_NAME = "analysis.bin";
+	/**
+	 * Dependency key prefix for a class walked by reflection, like class:aa.bb.Cc
+	 */
+	static final String CLASS_DEPENDENCY_PREFIX = "class:";
+
+	private final File cacheFile;
+
+	AnalysisCache(final File cacheDirectory) {
+		Objects.requireNonNull(cacheDirectory, "\"cacheDirectory\" can't to be null");
+		cacheFile = new File(cacheDirectory, CACHE_FILE_NAME);
+	}
+
+	static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Can't found SHA-256 digest", e);
+		}
+	}
+
+	static String toHex(final byte[] digest) {
+		return String.format("%0" + digest.length * 2 + "x", new BigInteger(1, digest));
+	}
+
+	/**
+	 * @return the implementation version from the jar manifest, or else the location (jar name) of the class
+	 */
+	static String getVersion(final Class<?> referenceClass) {
+		return Optional.ofNullable(referenceClass.getPackage())
+		        .map(Package::getImplementationVersion)
+		        .orElseGet(() -> String.valueOf(referenceClass.getProtectionDomain().getCodeSource()));
+	}
+
+	/**
+	 * @return Spoon and SelfAutoRESTDoc versions: a cached analysis is never reused between two tool versions.
+	 */
+	static String getEnvironmentKey() {
+		return getVersion(Launcher.class) + "|" + getVersion(SelfAutoRESTDoc.class);
+	}
+
+	/**
+	 * @param qualifiedName like aa.bb.Cc or aa.bb.Cc$Dd
+	 * @return the hash of the class file, as loaded by the current class loader, or empty if it can't be found.
+	 */
+	static Optional<String> hashClassFile(final String qualifiedName) {
+		final var classLoader = Optional.ofNullable(Thread.currentThread().getContextClassLoader())
+		        .orElse(AnalysisCache.class.getClassLoader());
+		final var resource = classLoader.getResource(qualifiedName.replace('.', '/') + ".class");
+		if (resource == null) {
+			return Optional.empty();
+		}
+		try (final var in = resource.openStream()) {
+			return Optional.of(toHex(createDigest().digest(in.readAllBytes())));
+		} catch (final IOException e) {
+			log.debug("Can't read class file {}", resource, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the dependencies of the classes walked by reflection: class dependency key -> class file hash
+	 */
+	static Map<String, String> hashClassFiles(final Collection<String> qualifiedNames) {
+		return qualifiedNames.stream()
+		        .distinct()
+		        .flatMap(name -> hashClassFile(name).map(hash -> Map.entry(CLASS_DEPENDENCY_PREFIX + name, hash))
+		                .stream())
+		        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+	}
+
+	/**
+	 * @param sourceHashes relative path -> content hash, like SourceFiles.hashSourceFiles
+	 */
+	String computeKey(final Collection<Class<?>> controllers, final Map<String, String> sourceHashes) {
+		final var digest = createDigest();
+		final var zero = new byte[] { 0 };
+		digest.update(getEnvironmentKey().getBytes(UTF_8));
+		digest.update(zero);
+
+		controllers.stream()
+		        .map(Class::getName)
+		        .sorted()
+		        .forEach(name -> {
+			        digest.update(name.getBytes(UTF_8));
+			        digest.update(zero);
+		        });
+
+		sourceHashes.entrySet().stream()
+		        .sorted(Map.Entry.comparingByKey())
+		        .forEach(entry -> {
+			        digest.update(entry.getKey().getBytes(UTF_8));
+			        digest.update(zero);
+			        digest.update(entry.getValue().getBytes(UTF_8));
+			        digest.update(zero);
+		        });
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Analysis result for one controller, with all the source files used to produce it.
+	 */
+	static class ControllerRecord {
+		private final String controllerClassName;
+		private final Map<String, String> dependencies;
+		private final APIModel model;
+
+		/**
+		 * @param dependencies relative path -> content hash, during the analysis, and class dependency key -> class
+		 *        file hash for the classes walked by reflection
+		 */
+		ControllerRecord(final String controllerClassName,
+		                 final Map<String, String> dependencies,
+		                 final APIModel model) {
+			this.controllerClassName = controllerClassName;
+			this.dependencies = Map.copyOf(dependencies);
+			this.model = model;
+		}
+
+		String getControllerClassName() {
+			return controllerClassName;
+		}
+
+		/**
+		 * @return relative path -> content hash, during the analysis, and the class dependencies
+		 */
+		Map<String, String> getDependencies() {
+			return dependencies;
+		}
+
+		APIModel getModel() {
+			return model;
+		}
+
+		/**
+		 * @param sourceHashes relative path -> current content hash
+		 * @return true if none of the dependencies have changed or have been removed
+		 */
+		boolean isUpToDate(final Map<String, String> sourceHashes) {
+			return dependencies.entrySet().stream()
+			        .filter(d -> d.getKey().startsWith(CLASS_DEPENDENCY_PREFIX) == false)
+			        .allMatch(d -> d.getValue().equals(sourceHashes.get(d.getKey())))
+			       && isClassesUpToDate();
+		}
+
+		/**
+		 * @return true if none of the classes walked by reflection have changed or have been removed
+		 */
+		boolean isClassesUpToDate() {
+			return dependencies.entrySet().stream()
+			        .filter(d -> d.getKey().startsWith(CLASS_DEPENDENCY_PREFIX))
+			        .allMatch(d -> hashClassFile(d.getKey().substring(CLASS_DEPENDENCY_PREFIX.length()))
+			                .filter(d.getValue()::equals)
+			                .isPresent());
+		}
+	}
+
+	private Optional<CacheContent> read() {
+		if (cacheFile.exists() == false) {
+			return Optional.empty();
+		}
+		try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+			final var key = in.readUTF();
+			final var environmentKey = in.readUTF();
+			if (getEnvironmentKey().equals(environmentKey) == false) {
+				log.debug("Analysis cache {} was made by another version", cacheFile);
+				return Optional.empty();
+			}
+			final var count = in.readInt();
+			final var records = new ControllerRecord[count];
+			for (var pos = 0; pos < count; pos++) {
+				final var controllerClassName = in.readUTF();
+				final var dependencyCount = in.readInt();
+				final var dependencies = new HashMap<String, String>(dependencyCount);
+				for (var d = 0; d < dependencyCount; d++) {
+					dependencies.put(in.readUTF(), in.readUTF());
+				}
+				final var model = new byte[in.readInt()];
+				in.readFully(model);
+				records[pos] = new ControllerRecord(controllerClassName, dependencies,
+				        APIModelCodec.read(ByteBuffer.wrap(model)));
+			}
+			return Optional.of(new CacheContent(key, records));
+		} catch (final IOException | NegativeArraySizeException e) {
+			log.warn("Can't read analysis cache {}, ignore it", cacheFile, e);
+			return Optional.empty();
+		}
+	}
+
+	private static class CacheContent {
+		private final String key;
+		private final ControllerRecord[] records;
+
+		private CacheContent(final String key, final ControllerRecord[] records) {
+			this.key = key;
+			this.records = records;
+		}
+	}
+
+	/**
+	 * @return all the controller records, only if nothing has changed since the last analysis, sources and classes
+	 *         walked by reflection
+	 */
+	Optional<List<ControllerRecord>> load(final String key) {
+		return read()
+		        .filter(content -> key.equals(content.key))
+		        .map(content -> List.of(content.records))
+		        .filter(records -> records.stream().allMatch(ControllerRecord::isClassesUpToDate));
+	}
+
+	/**
+	 * @return controller class name -> record, from the last analysis, even if some sources have changed since
+	 */
+	Map<String, ControllerRecord> loadRecords() {
+		return read()
+		        .map(content -> List.of(content.records).stream()
+		                .collect(Collectors.toUnmodifiableMap(ControllerRecord::getControllerClassName,
+		                        Function.identity(), (l, r) -> l)))
+		        .orElse(Map.of());
+	}
+
+	void store(final String key, final List<ControllerRecord> records) {
+		try {
+			Files.createDirectories(cacheFile.getParentFile().toPath());
+			try (final var out = new DataOutputStream(
+			        new BufferedOutputStream(Files.newOutputStream(cacheFile.toPath())))) {
+				out.writeUTF(key);
+				out.writeUTF(getEnvironmentKey());
+				out.writeInt(records.size());
+				for (final var r : records) {
+					out.writeUTF(r.getControllerClassName());
+					out.writeInt(r.getDependencies().size());
+					for (final var d : r.getDependencies().entrySet()) {
+						out.writeUTF(d.getKey());
+						out.writeUTF(d.getValue());
+					}
+					final var model = APIModelCodec.toBytes(r.getModel());
+					out.writeInt(model.length);
+					out.write(model);
+				}
+			}
+		} catch (final IOException e) {
+			log.warn("Can't write analysis cache {}", cacheFile, e);
+		}
+	}
+
+}
@@ -23,6 +23,7 @@ import static org.springframework.web.bind.annotation.RequestMethod.PATCH;
 import static org.springframework.web.bind.annotation.RequestMethod.POST;
 import static org.springframework.web.bind.annotation.RequestMethod.PUT;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +34,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.lang.model.AnnotatedConstruct;
+
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -49,8 +52,51 @@ class AnnotationExtractor {
 	private final List<MappingAnnotation> mappings;
 	private final List<Set<String>> allCheckBefore;
 
+	/**
+	 * Common view of runtime annotations (reflection) and of compile time annotations (annotation processing).
+	 */
+	private interface AnnotationSource {
+		<A extends Annotation> A getAnnotation(Class<A> annotationType);
+
+		<A extends Annotation> A[] getAnnotationsByType(Class<A> annotationType);
+
+		default boolean isAnnotationPresent(final Class<? extends Annotation> annotationType) {
+			return getAnnotation(annotationType) != null;
+		}
+	}
+
 	AnnotationExtractor(final AnnotatedElement element) {
+		this(new AnnotationSource() {
+			@Override
+			public <A extends Annotation> A getAnnotation(final Class<A> annotationType) {
+				return element.getAnnotation(annotationType);
+			}
+
+			@Override
+			public <A extends Annotation> A[] getAnnotationsByType(final Class<A> annotationType) {
+				return element.getAnnotationsByType(annotationType);
+			}
+		});
+	}
+
+	/**
+	 * @param element during an annotation processing, only the String, String[] and enum annotation values are read.
+	 */
+	AnnotationExtractor(final AnnotatedConstruct element) {
+		this(new AnnotationSource() {
+			@Override
+			public <A extends Annotation> A getAnnotation(final Class<A> annotationType) {
+				return element.getAnnotation(annotationType);
+			}
+
+			@Override
+			public <A extends Annotation> A[] getAnnotationsByType(final Class<A> annotationType) {
+				return element.getAnnotationsByType(annotationType);
+			}
+		});
+	}
 
+	private AnnotationExtractor(final AnnotationSource element) {
 		mappings = new ArrayList<>();
 
 		if (element.isAnnotationPresent(RequestMapping.class)) {
@@ -93,7 +139,7 @@ class AnnotationExtractor {
 		        .collect(Collectors.toUnmodifiableList());
 	}
 
-	public class MappingAnnotation {
+	public static class MappingAnnotation {
 		private final Optional<String> requestName;
 		private final Optional<String> requestValuePath;
 		private final Set<RequestMethod> requestMethods;
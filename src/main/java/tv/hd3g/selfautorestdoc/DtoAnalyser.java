@@ -16,21 +16,23 @@
  */
 package tv.hd3g.selfautorestdoc;
 
-import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.LIST;
-import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.MAP;
-import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.VALUE;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.DTO_EXPANSION;
 
+import java.io.File;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.hateoas.RepresentationModel;
@@ -38,11 +40,16 @@ import org.springframework.hateoas.RepresentationModel;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.factory.TypeFactory;
 import spoon.reflect.reference.CtExecutableReference;
+import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.reference.CtTypeReference;
 
-class DtoAnalyser {
+import tv.hd3g.selfautorestdoc.ExportEvents.DtoExpansion;
+
+class DtoAnalyser extends DtoRules<CtTypeReference<?>> {
 	private static Logger log = LogManager.getLogger();
 
 	private static final TypeFactory typeFactory = new TypeFactory();
@@ -54,12 +61,30 @@ class DtoAnalyser {
 	private static final CtTypeReference<?> representationModelType = typeFactory.get(RepresentationModel.class)
 	        .getReference();
 
-	private final CtTypeReference<?> declaringType;
-	private final boolean isResponseDto;
-
-	DtoAnalyser(final CtTypeReference<?> declaringType, final boolean isResponseDto) {
-		this.declaringType = Objects.requireNonNull(declaringType, "\"declaringType\" can't to be null");
-		this.isResponseDto = isResponseDto;
+	private final DtoShape rootShape;
+
+	/**
+	 * The DTO is fully analysed here, and no reference to the Spoon model is kept after, only the shapes.
+	 */
+	DtoAnalyser(final CtTypeReference<?> declaringType,
+	            final boolean isResponseDto,
+	            final DtoShapeCache shapeCache,
+	            final ExportMetrics metrics) {
+		super(shapeCache);
+		Objects.requireNonNull(declaringType, "\"declaringType\" can't to be null");
+		final var event = new DtoExpansion();
+		event.begin();
+		try (final var m = metrics.start(DTO_EXPANSION)) {
+			rootShape = getDtoShape(declaringType, isResponseDto);
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.rootType = declaringType.getQualifiedName();
+			event.response = isResponseDto;
+			event.nodeCount = rootShape.countNodes(new HashSet<>());
+			event.depth = rootShape.computeDepth(new HashSet<>(), new HashMap<>());
+			event.commit();
+		}
 	}
 
 	public enum StructuralStratum {
@@ -68,62 +93,26 @@ class DtoAnalyser {
 		MAP;
 	}
 
-	public class DtoItem {
-		private final int stratumPos;
+	public static class DtoItem {
 		private final StructuralStratum structuralStratum;
 		private final String name;
-		private final CtTypeReference<?> type;
-		private final List<DtoItem> subItems;
+		private final String type;
+		private final DtoShape subShape;
 		private boolean lastItem;
 
-		private DtoItem(final CtTypeReference<?> declaringType,
-		                final String name,
-		                final CtTypeReference<?> internalType,
-		                final int stratumPos) {
-			this.stratumPos = stratumPos;
-			lastItem = false;
+		/**
+		 * @param type the simple name of the item type
+		 * @param subShape the shape of the item type, or null for values
+		 */
+		DtoItem(final StructuralStratum structuralStratum,
+		        final String name,
+		        final String type,
+		        final DtoShape subShape) {
+			this.structuralStratum = structuralStratum;
 			this.name = name;
-
-			final CtTypeReference<?> originalType;
-
-			if (internalType.isSubtypeOf(collectionType)) {
-				structuralStratum = LIST;
-				originalType = extractFirstTypeArguments(internalType).orElse(objectType);
-			} else if (internalType.isSubtypeOf(mapType)) {
-				structuralStratum = MAP;
-				originalType = extractFirstTypeArguments(internalType).orElse(objectType);
-			} else if (internalType.isPrimitive()
-			           || internalType.isSubtypeOf(charSequenceType)
-			           || internalType.getPackage() == null
-			           || isTypeIsProtected(internalType)) {
-				structuralStratum = VALUE;
-				originalType = internalType;
-			} else {
-				structuralStratum = MAP;
-				originalType = internalType;
-			}
-
-			if (originalType.isGenerics() && declaringType.getActualTypeArguments().isEmpty() == false) {
-				type = declaringType.getActualTypeArguments().get(0);
-			} else {
-				type = originalType;
-			}
-
-			if (stratumPos == 10) {
-				subItems = null;
-			} else if ((structuralStratum == MAP) || (structuralStratum == LIST && isTypeIsProtected(type) == false)) {
-				subItems = getDtoContent(type, stratumPos + 1);
-			} else {
-				subItems = null;
-			}
-		}
-
-		private boolean isTypeIsProtected(final CtTypeReference<?> type) {
-			if (type == null || type.getPackage() == null || type.getPackage().getQualifiedName() == null) {
-				return true;
-			}
-			return StringUtils.startsWithAny(type.getPackage().getQualifiedName(),
-			        "org.springframework", "java", "com.sun", "sun");
+			this.type = type;
+			this.subShape = subShape;
+			lastItem = false;
 		}
 
 		private void setLastItem(final boolean lastItem) {
@@ -139,11 +128,7 @@ class DtoAnalyser {
 		}
 
 		public String getType() {
-			return type.getSimpleName();
-		}
-
-		public int getStratumPos() {
-			return stratumPos;
+			return type;
 		}
 
 		public StructuralStratum getStructuralStratum() {
@@ -151,133 +136,295 @@ class DtoAnalyser {
 		}
 
 		public List<DtoItem> getSubItems() {
-			return subItems;
+			if (subShape == null) {
+				return null;
+			}
+			return subShape.getItems();
 		}
 
-		private Optional<CtTypeReference<?>> extractFirstTypeArguments(final CtTypeReference<?> ref) {
-			final var typeArgs = ref.getActualTypeArguments();
-			if (typeArgs.size() != 1) {
-				return Optional.empty();
-			}
-			return Optional.ofNullable(typeArgs.get(0));
+		/**
+		 * @return the shared shape of this item type, or null for values. Can be an ancestor shape (recursive DTO).
+		 */
+		DtoShape getSubShape() {
+			return subShape;
 		}
 
 	}
 
-	private static String extractName(final CtExecutableReference<?> eref) {
-		return Optional.ofNullable(eref.getAnnotation(JsonProperty.class))
-		        .map(JsonProperty::value)
-		        .orElseGet(() -> {
-			        final var simpleName = eref.getSimpleName();
-			        var w = 3;
-			        if (simpleName.startsWith("is")) {
-				        w = 2;
-			        }
-			        return simpleName.substring(w, w + 1).toLowerCase() + simpleName.substring(w + 1);
-		        });
+	@Override
+	boolean isCollection(final CtTypeReference<?> type) {
+		return type.isSubtypeOf(collectionType);
 	}
 
-	private Stream<DtoItem> getResponseDtoContent(final CtTypeReference<?> declaringType, final int stratumPos) {
-		final var superClass = declaringType.getSuperclass();
-		if (superClass != null && representationModelType.isSubtypeOf(superClass)) {
-			return Stream.empty();
-		}
-		return declaringType.getAllExecutables().stream()
-		        .filter(e -> {
-			        if (e.isConstructor()) {
-				        return false;
-			        }
-			        final var method = e.getActualMethod();
-			        if (e.getSimpleName().startsWith("get") == false
-			            && e.getSimpleName().startsWith("is") == false
-			            || method.getReturnType() == null
-			            || method.getParameterCount() != 0) {
-				        return false;
-			        }
-			        final var modifiers = method.getModifiers();
-			        return method.isDefault() == false
-			               && Modifier.isNative(modifiers) == false
-			               && Modifier.isPublic(modifiers)
-			               && Modifier.isStatic(modifiers) == false
-			               && method.getDeclaringClass().equals(Object.class) == false
-			               && method.isAnnotationPresent(JsonIgnore.class) == false;
-		        })
-		        .map(eref -> new DtoItem(declaringType, extractName(eref), eref.getType(), stratumPos));
+	@Override
+	boolean isMap(final CtTypeReference<?> type) {
+		return type.isSubtypeOf(mapType);
+	}
+
+	@Override
+	boolean isPlainValue(final CtTypeReference<?> type) {
+		return type.isPrimitive() || type.isSubtypeOf(charSequenceType);
+	}
+
+	@Override
+	Optional<String> getPackageName(final CtTypeReference<?> type) {
+		return Optional.ofNullable(type.getPackage())
+		        .map(CtPackageReference::getQualifiedName);
+	}
+
+	@Override
+	List<CtTypeReference<?>> getTypeArguments(final CtTypeReference<?> type) {
+		return type.getActualTypeArguments();
+	}
+
+	@Override
+	boolean isTypeVariable(final CtTypeReference<?> type) {
+		return type.isGenerics();
+	}
+
+	@Override
+	CtTypeReference<?> getObjectType() {
+		return objectType;
+	}
+
+	@Override
+	String getSimpleName(final CtTypeReference<?> type) {
+		return type.getSimpleName();
+	}
+
+	@Override
+	String getQualifiedName(final CtTypeReference<?> type) {
+		return type.getQualifiedName();
+	}
+
+	@Override
+	String getShapeKey(final CtTypeReference<?> type, final boolean isResponseDto) {
+		return DtoShapeCache.getKey(type, isResponseDto);
+	}
+
+	@Override
+	DtoShape createShape(final CtTypeReference<?> type) {
+		return new DtoShape(type);
+	}
+
+	@Override
+	boolean isRepresentationModel(final CtTypeReference<?> type) {
+		final var superClass = type.getSuperclass();
+		return superClass != null && representationModelType.isSubtypeOf(superClass);
 	}
 
-	private Stream<DtoItem> getRequestDtoContent(final CtTypeReference<?> declaringType, final int stratumPos) {
-		final var usableConstructors = declaringType.getAllExecutables().stream()
-		        .filter(CtExecutableReference::isConstructor)
-		        .map(CtExecutableReference::getActualConstructor)
-		        .filter(c -> Modifier.isPublic(c.getModifiers()))
-		        .filter(c -> c.isAnnotationPresent(JsonIgnore.class) == false)
+	/**
+	 * The modifiers and the annotations are taken by reflection.
+	 */
+	@Override
+	List<Member<CtTypeReference<?>>> getMembers(final CtTypeReference<?> type) {
+		return type.getAllExecutables().stream()
+		        .map(DtoAnalyser::toMember)
 		        .collect(Collectors.toUnmodifiableList());
+	}
 
-		if (usableConstructors.isEmpty() || usableConstructors.stream().anyMatch(c -> c.getParameterCount() == 0)) {
-			/**
-			 * No parameterized constructors
-			 */
-			return declaringType.getAllExecutables().stream()
-			        .filter(exec -> exec.isConstructor() == false)
-			        .filter(e -> {
-				        final var method = e.getActualMethod();
-				        if (e.getSimpleName().startsWith("set") == false
-				            || method.getParameterCount() != 1) {
-					        return false;
-				        }
-				        final var modifiers = method.getModifiers();
-				        return method.isDefault() == false
-				               && Modifier.isNative(modifiers) == false
-				               && Modifier.isPublic(modifiers)
-				               && Modifier.isStatic(modifiers) == false
-				               && method.isAnnotationPresent(JsonIgnore.class) == false;
-			        })
-			        .map(eref -> new DtoItem(declaringType, extractName(eref),
-			                eref.getParameters().get(0), stratumPos));
-		} else if (usableConstructors.size() > 1) {
-			log.error("Can't use {} as DTO body request because there are too many ({}) accessible constructors",
-			        declaringType.getQualifiedName(), usableConstructors.size());
-			return Stream.empty();
-		} else {
-			/**
-			 * Only one parameterized constructor
-			 */
-			return Arrays.stream(usableConstructors.get(0).getParameters())
-			        .filter(p -> p.isAnnotationPresent(JsonIgnore.class) == false)
-			        .filter(p -> p.isVarArgs() == false)
-			        .map(p -> {
-				        final var name = Optional.ofNullable(p.getAnnotation(JsonProperty.class))
-				                .map(JsonProperty::value)
-				                .orElseGet(() -> {
-					                if (p.isNamePresent() == false) {
-						                return declaringType.getQualifiedName() + "(" + p.getName() + ")";
-					                } else {
-						                return p.getName();
-					                }
-				                });
-				        return new DtoItem(declaringType, name,
-				                typeFactory.get(p.getType()).getReference(), stratumPos);
-			        });
-		}
+	@Override
+	void reportTooManyConstructors(final CtTypeReference<?> type, final int count) {
+		log.error("Can't use {} as DTO body request because there are too many ({}) accessible constructors",
+		        type.getQualifiedName(), count);
 	}
 
-	public List<DtoItem> getDtoContent(final CtTypeReference<?> declaringType, final int stratumPos) {
-		Stream<DtoItem> dto;
-		if (isResponseDto) {
-			dto = getResponseDtoContent(declaringType, stratumPos);
-		} else {
-			dto = getRequestDtoContent(declaringType, stratumPos);
+	private static Member<CtTypeReference<?>> toMember(final CtExecutableReference<?> eref) {
+		if (eref.isConstructor()) {
+			final var constructor = eref.getActualConstructor();
+			final var parameters = Arrays.stream(constructor.getParameters())
+			        .map(p -> new MemberParameter<CtTypeReference<?>>(
+			                p.getName(),
+			                p.isNamePresent(),
+			                getTypeReference(p.getType()),
+			                p.isVarArgs(),
+			                p.isAnnotationPresent(JsonIgnore.class),
+			                Optional.ofNullable(p.getAnnotation(JsonProperty.class))
+			                        .map(JsonProperty::value)
+			                        .orElse(null)))
+			        .collect(Collectors.toUnmodifiableList());
+			return Member.constructor(parameters,
+			        Modifier.isPublic(constructor.getModifiers()),
+			        constructor.isAnnotationPresent(JsonIgnore.class));
 		}
-		final var result = dto.sorted((l, r) -> l.getName().compareTo(r.getName()))
+
+		final var method = eref.getActualMethod();
+		final var modifiers = method.getModifiers();
+		final var parameters = eref.getParameters().stream()
+		        .map(p -> new MemberParameter<CtTypeReference<?>>(null, false, p, false, false, null))
 		        .collect(Collectors.toUnmodifiableList());
+		return Member.method(eref.getSimpleName(),
+		        method.getReturnType() == null ? null : eref.getType(),
+		        parameters,
+		        Modifier.isPublic(modifiers),
+		        Modifier.isStatic(modifiers),
+		        Modifier.isNative(modifiers),
+		        method.isDefault(),
+		        method.getDeclaringClass().equals(Object.class),
+		        method.isAnnotationPresent(JsonIgnore.class),
+		        Optional.ofNullable(eref.getAnnotation(JsonProperty.class))
+		                .map(JsonProperty::value)
+		                .orElse(null));
+	}
+
+	/**
+	 * The static typeFactory is shared between all the analysis threads.
+	 */
+	private static CtTypeReference<?> getTypeReference(final Class<?> type) {
+		synchronized (typeFactory) {
+			return typeFactory.get(type).getReference();
+		}
+	}
+
+	/**
+	 * Analysed DTO content for a type, analysed only once, and shared between all the items of this type.
+	 * DTO shapes are a graph, not a tree: a recursive DTO will point to one of its ancestor shapes.
+	 */
+	static class DtoShape {
+		private final String typeName;
+		private final String qualifiedName;
+		private final Set<File> dependencies;
+		private final Set<String> unresolvedTypes;
+		private volatile List<DtoItem> items;
+
+		/**
+		 * @param typeName the simple name of the shape type. The items must be set after with setItems.
+		 */
+		DtoShape(final String typeName, final String qualifiedName) {
+			this.typeName = typeName;
+			this.qualifiedName = qualifiedName;
+			dependencies = new HashSet<>();
+			unresolvedTypes = new HashSet<>();
+		}
+
+		private DtoShape(final CtTypeReference<?> type) {
+			this(type.getSimpleName(), type.getQualifiedName());
+
+			final var declaration = type.getDeclaration();
+			if (declaration == null) {
+				/**
+				 * Not in the Spoon model, walked by reflection
+				 */
+				unresolvedTypes.add(type.getQualifiedName());
+			} else {
+				Optional.of(declaration)
+				        .map(CtElement::getPosition)
+				        .filter(SourcePosition::isValidPosition)
+				        .map(SourcePosition::getFile)
+				        .ifPresent(dependencies::add);
+			}
+		}
+
+		/**
+		 * Walk all the reachable shapes only once, even with cycles.
+		 */
+		private void collectDependencies(final Set<DtoShape> visited,
+		                                 final Set<File> allDependencies,
+		                                 final Set<String> allUnresolvedTypes) {
+			if (visited.add(this) == false) {
+				return;
+			}
+			allDependencies.addAll(dependencies);
+			allUnresolvedTypes.addAll(unresolvedTypes);
+			getItems().stream()
+			        .map(DtoItem::getSubShape)
+			        .filter(Objects::nonNull)
+			        .forEach(subShape -> subShape.collectDependencies(visited, allDependencies, allUnresolvedTypes));
+		}
 
-		if (result.isEmpty() == false) {
-			result.get(result.size() - 1).setLastItem(true);
+		/**
+		 * @return the items of all the reachable shapes, counted once by shape
+		 */
+		private int countNodes(final Set<DtoShape> visited) {
+			final var shapeItems = items;
+			if (visited.add(this) == false || shapeItems == null) {
+				return 0;
+			}
+			return shapeItems.size() + shapeItems.stream()
+			        .map(DtoItem::getSubShape)
+			        .filter(Objects::nonNull)
+			        .mapToInt(subShape -> subShape.countNodes(visited))
+			        .sum();
+		}
+
+		/**
+		 * Each shape depth is computed only once.
+		 * @param path the shapes from the root to this one, to ignore the recursive links
+		 * @return 1 for a shape without sub shapes
+		 */
+		private int computeDepth(final Set<DtoShape> path, final Map<DtoShape, Integer> depths) {
+			final var known = depths.get(this);
+			if (known != null) {
+				return known;
+			}
+			final var shapeItems = items;
+			if (shapeItems == null) {
+				/**
+				 * Still analysed by an other thread
+				 */
+				return 1;
+			}
+			path.add(this);
+			final var depth = 1 + shapeItems.stream()
+			        .map(DtoItem::getSubShape)
+			        .filter(Objects::nonNull)
+			        .filter(subShape -> path.contains(subShape) == false)
+			        .mapToInt(subShape -> subShape.computeDepth(path, depths))
+			        .max()
+			        .orElse(0);
+			path.remove(this);
+			depths.put(this, depth);
+			return depth;
+		}
+
+		String getTypeName() {
+			return typeName;
+		}
+
+		String getQualifiedName() {
+			return qualifiedName;
+		}
+
+		List<DtoItem> getItems() {
+			return items;
+		}
+
+		/**
+		 * Sort the items by name, and mark the last one.
+		 */
+		void setItems(final Stream<DtoItem> dto) {
+			final var result = dto.sorted((l, r) -> l.getName().compareTo(r.getName()))
+			        .collect(Collectors.toUnmodifiableList());
+			if (result.isEmpty() == false) {
+				result.get(result.size() - 1).setLastItem(true);
+			}
+			items = result;
 		}
-		return result;
 	}
 
 	public List<DtoItem> getDtoContent() {
-		return getDtoContent(declaringType, 0);
+		return rootShape.getItems();
+	}
+
+	DtoShape getDtoShape() {
+		return rootShape;
+	}
+
+	/**
+	 * @return the source files of all the types walked for this DTO, if they are in the Spoon model
+	 */
+	public Set<File> getDependencies() {
+		final var allDependencies = new HashSet<File>();
+		rootShape.collectDependencies(new HashSet<>(), allDependencies, new HashSet<>());
+		return Collections.unmodifiableSet(allDependencies);
+	}
+
+	/**
+	 * @return the qualified names of all the types walked for this DTO, but absent from the Spoon model
+	 */
+	public Set<String> getUnresolvedTypes() {
+		final var allUnresolvedTypes = new HashSet<String>();
+		rootShape.collectDependencies(new HashSet<>(), new HashSet<>(), allUnresolvedTypes);
+		return Collections.unmodifiableSet(allUnresolvedTypes);
 	}
 }
@@ -0,0 +1,389 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.LIST;
+import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.MAP;
+import static tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum.VALUE;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ValueConstants;
+
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoItem;
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoShape;
+import tv.hd3g.selfautorestdoc.DtoAnalyser.StructuralStratum;
+import tv.hd3g.selfautorestdoc.RESTMethod.URLVariable;
+
+/**
+ * The DTO and URL variables extraction rules, shared by the Spoon/reflection analysis (DtoAnalyser, RESTMethod) and
+ * by the compile time analysis (RESTDocProcessor, on javax.lang.model): what is a value, a list or a map, which
+ * accessors and constructor parameters are the DTO fields, and how they are named.
+ * The implementations only give the type operations, and describe the type members.
+ * @param <T> the type representation
+ */
+abstract class DtoRules<T> {
+
+	private final DtoShapeCache shapeCache;
+
+	DtoRules(final DtoShapeCache shapeCache) {
+		this.shapeCache = Objects.requireNonNull(shapeCache, "\"shapeCache\" can't to be null");
+	}
+
+	/**
+	 * A method or a constructor of a DTO type, as seen by the extraction rules.
+	 */
+	static class Member<T> {
+		private final String name;
+		private final T returnType;
+		private final List<MemberParameter<T>> parameters;
+		private final boolean publicMember;
+		private final boolean staticMember;
+		private final boolean nativeMember;
+		private final boolean defaultMethod;
+		private final boolean declaredByObject;
+		private final boolean jsonIgnore;
+		private final String jsonProperty;
+
+		private Member(final String name,
+		               final T returnType,
+		               final List<MemberParameter<T>> parameters,
+		               final boolean publicMember,
+		               final boolean staticMember,
+		               final boolean nativeMember,
+		               final boolean defaultMethod,
+		               final boolean declaredByObject,
+		               final boolean jsonIgnore,
+		               final String jsonProperty) {
+			this.name = name;
+			this.returnType = returnType;
+			this.parameters = Objects.requireNonNull(parameters, "\"parameters\" can't to be null");
+			this.publicMember = publicMember;
+			this.staticMember = staticMember;
+			this.nativeMember = nativeMember;
+			this.defaultMethod = defaultMethod;
+			this.declaredByObject = declaredByObject;
+			this.jsonIgnore = jsonIgnore;
+			this.jsonProperty = jsonProperty;
+		}
+
+		/**
+		 * @param jsonProperty the JsonProperty annotation value, or null
+		 */
+		static <T> Member<T> method(final String name,
+		                            final T returnType,
+		                            final List<MemberParameter<T>> parameters,
+		                            final boolean publicMember,
+		                            final boolean staticMember,
+		                            final boolean nativeMember,
+		                            final boolean defaultMethod,
+		                            final boolean declaredByObject,
+		                            final boolean jsonIgnore,
+		                            final String jsonProperty) {
+			Objects.requireNonNull(name, "\"name\" can't to be null");
+			return new Member<>(name, returnType, parameters, publicMember, staticMember, nativeMember,
+			        defaultMethod, declaredByObject, jsonIgnore, jsonProperty);
+		}
+
+		static <T> Member<T> constructor(final List<MemberParameter<T>> parameters,
+		                                 final boolean publicMember,
+		                                 final boolean jsonIgnore) {
+			return new Member<>(null, null, parameters,
+			        publicMember, false, false, false, false, jsonIgnore, null);
+		}
+
+		private boolean isConstructor() {
+			return name == null;
+		}
+
+		private boolean isUsableAccessor() {
+			return isConstructor() == false
+			       && defaultMethod == false
+			       && nativeMember == false
+			       && publicMember
+			       && staticMember == false
+			       && jsonIgnore == false;
+		}
+
+		private boolean isGetter() {
+			return isUsableAccessor()
+			       && (name.startsWith("get") || name.startsWith("is"))
+			       && returnType != null
+			       && parameters.isEmpty()
+			       && declaredByObject == false;
+		}
+
+		private boolean isSetter() {
+			return isUsableAccessor()
+			       && name.startsWith("set")
+			       && parameters.size() == 1;
+		}
+
+		private boolean isUsableConstructor() {
+			return isConstructor() && publicMember && jsonIgnore == false;
+		}
+
+		private String getPropertyName() {
+			return Optional.ofNullable(jsonProperty).orElseGet(() -> toPropertyName(name));
+		}
+	}
+
+	/**
+	 * A method or a constructor parameter.
+	 */
+	static class MemberParameter<T> {
+		private final String name;
+		private final boolean namePresent;
+		private final T type;
+		private final boolean varArgs;
+		private final boolean jsonIgnore;
+		private final String jsonProperty;
+
+		/**
+		 * @param name like "arg0" if namePresent is false (not compiled with -parameters)
+		 * @param type for a constructor parameter, the erased type
+		 * @param jsonProperty the JsonProperty annotation value, or null
+		 */
+		MemberParameter(final String name,
+		                final boolean namePresent,
+		                final T type,
+		                final boolean varArgs,
+		                final boolean jsonIgnore,
+		                final String jsonProperty) {
+			this.name = name;
+			this.namePresent = namePresent;
+			this.type = type;
+			this.varArgs = varArgs;
+			this.jsonIgnore = jsonIgnore;
+			this.jsonProperty = jsonProperty;
+		}
+
+		private String getPropertyName(final String declaringTypeName) {
+			if (jsonProperty != null) {
+				return jsonProperty;
+			} else if (namePresent == false) {
+				return declaringTypeName + "(" + name + ")";
+			}
+			return name;
+		}
+	}
+
+	abstract boolean isCollection(T type);
+
+	abstract boolean isMap(T type);
+
+	/**
+	 * @return true for a primitive, or a CharSequence
+	 */
+	abstract boolean isPlainValue(T type);
+
+	/**
+	 * @return empty for a primitive, an array or a type variable
+	 */
+	abstract Optional<String> getPackageName(T type);
+
+	abstract List<T> getTypeArguments(T type);
+
+	/**
+	 * @return true for a type variable, replaced by the declaring type argument
+	 */
+	abstract boolean isTypeVariable(T type);
+
+	abstract T getObjectType();
+
+	abstract String getSimpleName(T type);
+
+	abstract String getQualifiedName(T type);
+
+	/**
+	 * @return the DtoShapeCache key, with the type generic arguments
+	 */
+	abstract String getShapeKey(T type, boolean isResponseDto);
+
+	abstract DtoShape createShape(T type);
+
+	/**
+	 * @return true if it's a RepresentationModel: its content is not walked as a response
+	 */
+	abstract boolean isRepresentationModel(T type);
+
+	/**
+	 * @return the methods, inherited included, and the constructors of this type. Empty if it's not a declared type.
+	 */
+	abstract List<Member<T>> getMembers(T type);
+
+	abstract void reportTooManyConstructors(T type, int count);
+
+	/**
+	 * @return true for the JDK and Spring packages: their types are never walked as DTO.
+	 */
+	static boolean isProtectedPackage(final String packageName) {
+		return StringUtils.startsWithAny(packageName, "org.springframework", "java", "com.sun", "sun");
+	}
+
+	/**
+	 * @param simpleName like getAaa, isBbb or setCcc
+	 * @return like aaa, bbb or ccc
+	 */
+	static String toPropertyName(final String simpleName) {
+		var w = 3;
+		if (simpleName.startsWith("is")) {
+			w = 2;
+		}
+		return simpleName.substring(w, w + 1).toLowerCase() + simpleName.substring(w + 1);
+	}
+
+	/**
+	 * Same rules for the PathVariable and RequestParam controller method parameters.
+	 * @param type the simple name of the parameter class
+	 */
+	static URLVariable toURLVariable(final PathVariable annotation, final String type) {
+		return new URLVariable(annotation.value(), type, annotation.required());
+	}
+
+	/**
+	 * @param parameterName used if the annotation don't set a name
+	 * @param type the simple name of the parameter class
+	 */
+	static URLVariable toURLVariable(final RequestParam annotation, final String parameterName, final String type) {
+		var name = annotation.value();
+		if (name == null || name.isEmpty()) {
+			name = parameterName;
+		}
+		final var defaultValue = annotation.defaultValue();
+		if (ValueConstants.DEFAULT_NONE.equals(defaultValue)) {
+			return new URLVariable(name, type, annotation.required());
+		}
+		return new URLVariable(name, type, annotation.required(), defaultValue);
+	}
+
+	boolean isTypeIsProtected(final T type) {
+		return getPackageName(type).map(DtoRules::isProtectedPackage).orElse(true);
+	}
+
+	/**
+	 * The shape is registered before its content analysis: a cycle to this type will only get a reference to it.
+	 * @return the shared shape of this type, analysed only once by shapeCache
+	 */
+	DtoShape getDtoShape(final T declaringType, final boolean isResponseDto) {
+		final var key = getShapeKey(declaringType, isResponseDto);
+		final var cached = shapeCache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		final var newShape = createShape(declaringType);
+		final var shape = shapeCache.putIfAbsent(key, newShape);
+		if (shape != newShape) {
+			return shape;
+		}
+
+		if (isResponseDto) {
+			shape.setItems(getResponseDtoContent(declaringType));
+		} else {
+			shape.setItems(getRequestDtoContent(declaringType));
+		}
+		return shape;
+	}
+
+	private Stream<DtoItem> getResponseDtoContent(final T declaringType) {
+		if (isRepresentationModel(declaringType)) {
+			return Stream.empty();
+		}
+		return getMembers(declaringType).stream()
+		        .filter(Member::isGetter)
+		        .map(m -> createItem(declaringType, m.getPropertyName(), m.returnType, true));
+	}
+
+	private Stream<DtoItem> getRequestDtoContent(final T declaringType) {
+		final var members = getMembers(declaringType);
+		final var usableConstructors = members.stream()
+		        .filter(Member::isUsableConstructor)
+		        .collect(Collectors.toUnmodifiableList());
+
+		if (usableConstructors.isEmpty() || usableConstructors.stream().anyMatch(c -> c.parameters.isEmpty())) {
+			/**
+			 * No parameterized constructors
+			 */
+			return members.stream()
+			        .filter(Member::isSetter)
+			        .map(m -> createItem(declaringType, m.getPropertyName(), m.parameters.get(0).type, false));
+		} else if (usableConstructors.size() > 1) {
+			reportTooManyConstructors(declaringType, usableConstructors.size());
+			return Stream.empty();
+		}
+
+		/**
+		 * Only one parameterized constructor
+		 */
+		return usableConstructors.get(0).parameters.stream()
+		        .filter(p -> p.jsonIgnore == false)
+		        .filter(p -> p.varArgs == false)
+		        .map(p -> createItem(declaringType, p.getPropertyName(getQualifiedName(declaringType)), p.type, false));
+	}
+
+	private DtoItem createItem(final T declaringType,
+	                           final String name,
+	                           final T internalType,
+	                           final boolean isResponseDto) {
+		final StructuralStratum structuralStratum;
+		final T originalType;
+
+		if (isCollection(internalType)) {
+			structuralStratum = LIST;
+			originalType = getSingleTypeArgument(internalType).orElse(getObjectType());
+		} else if (isMap(internalType)) {
+			structuralStratum = MAP;
+			originalType = getSingleTypeArgument(internalType).orElse(getObjectType());
+		} else if (isPlainValue(internalType) || isTypeIsProtected(internalType)) {
+			structuralStratum = VALUE;
+			originalType = internalType;
+		} else {
+			structuralStratum = MAP;
+			originalType = internalType;
+		}
+
+		final T type;
+		final var declaringTypeArguments = getTypeArguments(declaringType);
+		if (isTypeVariable(originalType) && declaringTypeArguments.isEmpty() == false) {
+			type = declaringTypeArguments.get(0);
+		} else {
+			type = originalType;
+		}
+
+		DtoShape subShape = null;
+		if (structuralStratum == MAP || structuralStratum == LIST && isTypeIsProtected(type) == false) {
+			subShape = getDtoShape(type, isResponseDto);
+		}
+		return new DtoItem(structuralStratum, name, getSimpleName(type), subShape);
+	}
+
+	private Optional<T> getSingleTypeArgument(final T type) {
+		final var typeArguments = getTypeArguments(type);
+		if (typeArguments.size() != 1) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(typeArguments.get(0));
+	}
+
+}
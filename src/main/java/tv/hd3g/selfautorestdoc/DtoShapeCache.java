@@ -0,0 +1,94 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import spoon.reflect.reference.CtTypeReference;
+
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoShape;
+
+/**
+ * Analysed DTO shapes, shared by all the endpoints of a Spoon model analysis.
+ * Keyed by the type reference with its resolved generic arguments, and the request/response direction.
+ */
+class DtoShapeCache {
+
+	private final ConcurrentHashMap<String, DtoShape> shapes;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	DtoShapeCache() {
+		shapes = new ConcurrentHashMap<>();
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+	/**
+	 * @return like aa.bb.Cc<aa.bb.Dd<java.lang.String>>
+	 */
+	private static String describe(final CtTypeReference<?> type) {
+		final var typeArguments = type.getActualTypeArguments();
+		if (typeArguments.isEmpty()) {
+			return type.getQualifiedName();
+		}
+		return typeArguments.stream()
+		        .map(DtoShapeCache::describe)
+		        .collect(Collectors.joining(",", type.getQualifiedName() + "<", ">"));
+	}
+
+	static String getKey(final CtTypeReference<?> type, final boolean isResponseDto) {
+		final var direction = isResponseDto ? "response:" : "request:";
+		return direction + describe(type);
+	}
+
+	/**
+	 * @return null if this shape was never analysed
+	 */
+	DtoShape get(final String key) {
+		final var shape = shapes.get(key);
+		if (shape == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return shape;
+	}
+
+	/**
+	 * @return the shape to use: the first one put for this key
+	 */
+	DtoShape putIfAbsent(final String key, final DtoShape shape) {
+		return Optional.ofNullable(shapes.putIfAbsent(key, shape)).orElse(shape);
+	}
+
+	int size() {
+		return shapes.size();
+	}
+
+	long getHitCount() {
+		return hits.get();
+	}
+
+	long getMissCount() {
+		return misses.get();
+	}
+
+}
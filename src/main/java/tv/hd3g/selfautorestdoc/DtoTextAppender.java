@@ -0,0 +1,94 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static tv.hd3g.selfautorestdoc.SelfAutoRESTDoc.NEW_LINE;
+
+import java.io.IOException;
+import java.util.function.UnaryOperator;
+
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * Append the APIDocVisitor DTO field events as a pseudo javascript object, like "    name: String,", field by
+ * field, as in the Markdown and HTML docs.
+ */
+class DtoTextAppender {
+
+	private static final String INDENT = "    ";
+
+	private final APIModel model;
+	private final Appendable out;
+	private final UnaryOperator<String> escape;
+
+	/**
+	 * @param escape applied to the field names and types
+	 */
+	DtoTextAppender(final APIModel model, final Appendable out, final UnaryOperator<String> escape) {
+		this.model = model;
+		this.out = out;
+		this.escape = escape;
+	}
+
+	private void appendPrefix(final int depth) throws IOException {
+		for (var pos = 0; pos <= depth; pos++) {
+			out.append(INDENT);
+		}
+	}
+
+	void startField(final APIDtoField field, final int depth, final boolean expanded) throws IOException {
+		appendPrefix(depth);
+		out.append(escape.apply(field.getName())).append(": ");
+		if (field.getStratum() == APIDtoField.Stratum.LIST) {
+			out.append('[');
+		}
+		if (expanded) {
+			out.append('{').append(System.lineSeparator());
+		} else {
+			out.append(escape.apply(field.getType()));
+		}
+	}
+
+	/**
+	 * A root field line ends with NEW_LINE, a sub field line with the system line separator.
+	 */
+	void endField(final APIDtoField field,
+	              final int depth,
+	              final boolean last,
+	              final boolean expanded) throws IOException {
+		if (expanded) {
+			if (model.getDto(field.getDtoIndex()).getFields().isEmpty()) {
+				out.append(System.lineSeparator());
+			}
+			appendPrefix(depth);
+			out.append('}');
+		}
+		if (field.getStratum() == APIDtoField.Stratum.LIST) {
+			out.append(", ...]");
+		}
+		if (last == false) {
+			out.append(',');
+		}
+		if (depth == 0) {
+			out.append(NEW_LINE);
+		} else {
+			out.append(System.lineSeparator());
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the export phases, to line them up with the GC and allocation events of the same
+ * recording, like with -XX:StartFlightRecording. They cost nothing if they are not enabled in the recording.
+ */
+final class ExportEvents {
+
+	private static final String CATEGORY = "SelfAutoRESTDoc";
+
+	private ExportEvents() {
+	}
+
+	@Name("tv.hd3g.selfautorestdoc.ModelBuild")
+	@Label("Spoon Model Build")
+	@Category(CATEGORY)
+	static class ModelBuild extends Event {
+		@Label("Inputs")
+		@Description("Source files or directories put in the model")
+		int inputCount;
+
+		@Label("Types")
+		int typeCount;
+	}
+
+	@Name("tv.hd3g.selfautorestdoc.ControllerAnalysis")
+	@Label("Controller Analysis")
+	@Category(CATEGORY)
+	static class ControllerAnalysis extends Event {
+		@Label("Controller")
+		Class<?> controllerClass;
+
+		@Label("Endpoints")
+		int endpointCount;
+	}
+
+	@Name("tv.hd3g.selfautorestdoc.DtoExpansion")
+	@Label("DTO Expansion")
+	@Category(CATEGORY)
+	static class DtoExpansion extends Event {
+		@Label("Root Type")
+		String rootType;
+
+		@Label("Response")
+		@Description("Response DTO, else request body DTO")
+		boolean response;
+
+		@Label("Nodes")
+		@Description("Fields of all the DTO types reachable from the root type, counted once by type")
+		int nodeCount;
+
+		@Label("Depth")
+		@Description("Deepest DTO type chain reachable from the root type, without the recursive links")
+		int depth;
+	}
+
+	@Name("tv.hd3g.selfautorestdoc.Render")
+	@Label("Render")
+	@Description("One by document. For the sharded Markdown, one for all the shards, with their writing")
+	@Category(CATEGORY)
+	static class Render extends Event {
+		@Label("Format")
+		String format;
+
+		@Label("Output")
+		@Description("Output file, empty for an in memory document")
+		String output;
+
+		@Label("Endpoints")
+		int endpointCount;
+	}
+
+}
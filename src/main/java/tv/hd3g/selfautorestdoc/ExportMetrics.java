@@ -0,0 +1,365 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * The cost of one export (analysis and/or writing), by phase: count, duration, and bytes allocated by the measuring
+ * thread, if the JVM can count them. DTO_EXPANSION is a part of CONTROLLER_ANALYSIS. When a document is streamed to
+ * its file, its RENDER is not counted in the WRITE (see Measure.startExcluded): the other phases timers can be stacked.
+ * The peak heap is the growth of the heap pools peaks since the export start: with concurrent exports, or other heavy
+ * work in the same JVM, it's not only the export one.
+ * Thread safe.
+ */
+public final class ExportMetrics {
+
+	private static final ThreadMXBean threadMXBean = Optional.of(ManagementFactory.getThreadMXBean())
+	        .filter(ThreadMXBean.class::isInstance)
+	        .map(ThreadMXBean.class::cast)
+	        .filter(ThreadMXBean::isThreadAllocatedMemorySupported)
+	        .orElse(null);
+
+	private static final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+	        .filter(pool -> pool.getType() == MemoryType.HEAP)
+	        .filter(MemoryPoolMXBean::isValid)
+	        .collect(Collectors.toUnmodifiableList());
+
+	public enum Phase {
+		/**
+		 * Spoon model build, from the sources
+		 */
+		MODEL_BUILD,
+		/**
+		 * One by controller: its methods, and their DTOs
+		 */
+		CONTROLLER_ANALYSIS,
+		/**
+		 * One by request/response body: the DTO shapes not already analysed by a previous body
+		 */
+		DTO_EXPANSION,
+		/**
+		 * One by controller: analysis to APIModel
+		 */
+		MODEL_CONVERSION,
+		/**
+		 * Merge and sort of the controllers models
+		 */
+		SORT,
+		/**
+		 * One by document (or shard)
+		 */
+		RENDER,
+		/**
+		 * One by output file
+		 */
+		WRITE;
+	}
+
+	public enum Cache {
+		/**
+		 * The DTO shapes shared between the bodies, during the analysis
+		 */
+		DTO_SHAPE,
+		/**
+		 * The types lookups in the Spoon model: a miss is a type absent from the model, walked by reflection
+		 */
+		TYPE_INDEX,
+		/**
+		 * The controllers analysis results kept in the cache directory, reused instead of analysed again
+		 */
+		ANALYSIS,
+		/**
+		 * The Markdown endpoint sections kept in the cache directory, copied instead of rendered again
+		 */
+		SECTION;
+	}
+
+	private final Map<Phase, PhaseCounters> phases;
+	private final AtomicLong endpoints;
+	private final AtomicLong dtoNodes;
+	private final Map<Cache, CacheCounters> caches;
+	/**
+	 * The heap pools peaks at the export start, in the heapPools order. They are never reset: an other user of these
+	 * JVM-wide counters would see a wrong peak.
+	 */
+	private final long[] startPeakBytes;
+	private volatile long peakHeapBytes;
+	private volatile long heapAfterLastGcBytes;
+
+	/**
+	 * Start an export.
+	 */
+	ExportMetrics() {
+		phases = new EnumMap<>(Phase.class);
+		for (final var phase : Phase.values()) {
+			phases.put(phase, new PhaseCounters());
+		}
+		endpoints = new AtomicLong();
+		dtoNodes = new AtomicLong();
+		caches = new EnumMap<>(Cache.class);
+		for (final var cache : Cache.values()) {
+			caches.put(cache, new CacheCounters());
+		}
+		startPeakBytes = heapPools.stream()
+		        .mapToLong(pool -> getUsed(pool.getPeakUsage()))
+		        .toArray();
+	}
+
+	private static long sumHeapPools(final Function<MemoryPoolMXBean, MemoryUsage> usage) {
+		return heapPools.stream()
+		        .map(usage)
+		        .mapToLong(ExportMetrics::getUsed)
+		        .sum();
+	}
+
+	/**
+	 * @return 0 if the usage is not available
+	 */
+	private static long getUsed(final MemoryUsage usage) {
+		if (usage == null) {
+			return 0;
+		}
+		return usage.getUsed();
+	}
+
+	/**
+	 * Call it at the end of the export.
+	 */
+	void measureHeap() {
+		var peakGrowth = 0L;
+		for (var pos = 0; pos < startPeakBytes.length; pos++) {
+			peakGrowth += Math.max(0, getUsed(heapPools.get(pos).getPeakUsage()) - startPeakBytes[pos]);
+		}
+		peakHeapBytes = peakGrowth;
+		heapAfterLastGcBytes = sumHeapPools(MemoryPoolMXBean::getCollectionUsage);
+	}
+
+	private static class PhaseCounters {
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong nanos = new AtomicLong();
+		private final AtomicLong allocatedBytes = new AtomicLong();
+	}
+
+	private static class CacheCounters {
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong misses = new AtomicLong();
+	}
+
+	/**
+	 * @return 0 if the JVM can't count it
+	 */
+	private static long getCurrentThreadAllocatedBytes() {
+		if (threadMXBean == null || threadMXBean.isThreadAllocatedMemoryEnabled() == false) {
+			return 0;
+		}
+		return Math.max(0, threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()));
+	}
+
+	/**
+	 * Close it on the same thread.
+	 */
+	class Measure implements AutoCloseable {
+		private final Phase phase;
+		/**
+		 * Null if this measure is not excluded from an other one
+		 */
+		private final Measure parent;
+		private final long startNanos;
+		private final long startAllocatedBytes;
+		private long excludedNanos;
+		private long excludedAllocatedBytes;
+
+		private Measure(final Phase phase, final Measure parent) {
+			this.phase = phase;
+			this.parent = parent;
+			startAllocatedBytes = getCurrentThreadAllocatedBytes();
+			startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Start a measure of an other phase, on the same thread, which will not be counted in this one, like the
+		 * render of a document streamed during its write.
+		 */
+		Measure startExcluded(final Phase otherPhase) {
+			return new Measure(otherPhase, this);
+		}
+
+		@Override
+		public void close() {
+			final var duration = System.nanoTime() - startNanos;
+			final var allocated = Math.max(0, getCurrentThreadAllocatedBytes() - startAllocatedBytes);
+			final var counters = phases.get(phase);
+			counters.count.incrementAndGet();
+			counters.nanos.addAndGet(Math.max(0, duration - excludedNanos));
+			counters.allocatedBytes.addAndGet(Math.max(0, allocated - excludedAllocatedBytes));
+			if (parent != null) {
+				parent.excludedNanos += duration;
+				parent.excludedAllocatedBytes += allocated;
+			}
+		}
+	}
+
+	Measure start(final Phase phase) {
+		return new Measure(phase, null);
+	}
+
+	<T> T measure(final Phase phase, final Supplier<T> task) {
+		try (final var m = start(phase)) {
+			return task.get();
+		}
+	}
+
+	void addEndpoints(final long count) {
+		endpoints.addAndGet(count);
+	}
+
+	void addDtoNodes(final long count) {
+		dtoNodes.addAndGet(count);
+	}
+
+	void addCacheResults(final Cache cache, final long hits, final long misses) {
+		final var counters = caches.get(cache);
+		counters.hits.addAndGet(hits);
+		counters.misses.addAndGet(misses);
+	}
+
+	/**
+	 * @return how many times this phase was measured during this export
+	 */
+	public long getCount(final Phase phase) {
+		return phases.get(phase).count.get();
+	}
+
+	/**
+	 * @return the sum of all the measures of this phase
+	 */
+	public long getDuration(final Phase phase, final TimeUnit unit) {
+		return unit.convert(phases.get(phase).nanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the bytes allocated by the threads which have measured this phase, 0 if the JVM can't count them.
+	 */
+	public long getAllocatedBytes(final Phase phase) {
+		return phases.get(phase).allocatedBytes.get();
+	}
+
+	/**
+	 * @return the exported endpoints
+	 */
+	public long getEndpointCount() {
+		return endpoints.get();
+	}
+
+	/**
+	 * @return the exported DTOs (shared and recursive DTOs are counted once)
+	 */
+	public long getDtoNodeCount() {
+		return dtoNodes.get();
+	}
+
+	/**
+	 * @return the items served by this cache during this export, instead of computed again
+	 */
+	public long getCacheHitCount(final Cache cache) {
+		return caches.get(cache).hits.get();
+	}
+
+	/**
+	 * @return the items this cache can't serve during this export
+	 */
+	public long getCacheMissCount(final Cache cache) {
+		return caches.get(cache).misses.get();
+	}
+
+	/**
+	 * @return how much the heap pools peaks have grown during the export, summed: 0 if the export stayed under the
+	 *         previous JVM peaks. It can be a little more than the real growth, because each pool can peak at a
+	 *         different time.
+	 */
+	public long getPeakHeapBytes() {
+		return peakHeapBytes;
+	}
+
+	/**
+	 * @return the heap used just after the last GC which has run before the end of the export, 0 if the JVM can't
+	 *         tell it. It's not what this export retains: this GC may have run before the export, and the heap is
+	 *         shared with the rest of the JVM.
+	 */
+	public long getHeapAfterLastGcBytes() {
+		return heapAfterLastGcBytes;
+	}
+
+	/**
+	 * @return a one line summary, only with the measured phases
+	 */
+	@Override
+	public String toString() {
+		final var sb = new StringBuilder();
+		sb.append(getEndpointCount()).append(" endpoint(s), ");
+		sb.append(getDtoNodeCount()).append(" DTO(s), ");
+		for (final var cache : Cache.values()) {
+			final var hits = getCacheHitCount(cache);
+			final var misses = getCacheMissCount(cache);
+			if (hits + misses > 0) {
+				sb.append(cache.name().toLowerCase(Locale.ENGLISH).replace('_', ' ')).append(" cache ");
+				sb.append(hits).append(" hit(s) ").append(misses).append(" miss(es), ");
+			}
+		}
+		sb.append("heap ").append(toMB(getPeakHeapBytes())).append(" MB peak growth ");
+		sb.append(toMB(getHeapAfterLastGcBytes())).append(" MB after the last GC");
+		for (final var phase : Phase.values()) {
+			final var count = getCount(phase);
+			if (count == 0) {
+				continue;
+			}
+			sb.append("; ").append(phase.name().toLowerCase(Locale.ENGLISH)).append(": ");
+			sb.append(getDuration(phase, TimeUnit.MILLISECONDS)).append(" ms");
+			if (count > 1) {
+				sb.append(" (x").append(count).append(")");
+			}
+			final var allocated = getAllocatedBytes(phase);
+			if (allocated >= 1024 * 1024) {
+				sb.append(", ").append(toMB(allocated)).append(" MB allocated");
+			} else if (allocated > 0) {
+				sb.append(", ").append(allocated / 1024).append(" KB allocated");
+			}
+		}
+		return sb.toString();
+	}
+
+	private static long toMB(final long bytes) {
+		return bytes / 1024 / 1024;
+	}
+
+}
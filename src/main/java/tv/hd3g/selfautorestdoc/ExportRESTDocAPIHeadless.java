@@ -0,0 +1,155 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Make the REST doc without start the Spring application.
+ * Usage:
+ * $ java -cp selfautorestdoc.jar:[dependencies] tv.hd3g.selfautorestdoc.ExportRESTDocAPIHeadless target/classes [classpath]
+ * Options, as system properties (-Dselfautorestdoc.xxx=yyy), with the same names as the Spring properties:
+ * outputfile, baseProjectURL, basedir, cachedir, incremental, targeted, parallelism, prebuilt, formats, sharded,
+ * modelsminsize.
+ */
+public class ExportRESTDocAPIHeadless {
+	private static Logger log = LogManager.getLogger();
+
+	private final File classesDirectory;
+	private final List<File> classpath;
+
+	/**
+	 * @param classpath the dependencies of the classes directory, if they are not already in the current classpath
+	 */
+	public ExportRESTDocAPIHeadless(final File classesDirectory, final List<File> classpath) {
+		this.classesDirectory = Objects.requireNonNull(classesDirectory, "\"classesDirectory\" can't to be null");
+		this.classpath = Objects.requireNonNull(classpath, "\"classpath\" can't to be null");
+		if (classesDirectory.isDirectory() == false) {
+			throw new IllegalArgumentException("Can't found classes directory " + classesDirectory);
+		}
+	}
+
+	private static URL toURL(final File file) {
+		try {
+			return file.toURI().toURL();
+		} catch (final MalformedURLException e) {
+			throw new IllegalArgumentException("Invalid classpath entry " + file, e);
+		}
+	}
+
+	/**
+	 * Configure selfAutoRESTDoc from the selfautorestdoc.* system properties.
+	 */
+	public static void configure(final SelfAutoRESTDoc selfAutoRESTDoc) {
+		final var baseDirectory = System.getProperty("selfautorestdoc.basedir", "");
+		if (baseDirectory.isBlank() == false) {
+			selfAutoRESTDoc.setBaseDirectory(new File(baseDirectory));
+		}
+		final var cacheDirectory = System.getProperty("selfautorestdoc.cachedir", "target/selfautorestdoc");
+		if (cacheDirectory.isBlank() == false) {
+			selfAutoRESTDoc.setCacheDirectory(new File(cacheDirectory));
+		}
+		selfAutoRESTDoc.setIncremental(Boolean.getBoolean("selfautorestdoc.incremental"));
+		selfAutoRESTDoc.setTargeted(Boolean.getBoolean("selfautorestdoc.targeted"));
+		selfAutoRESTDoc.setParallelism(Integer.getInteger("selfautorestdoc.parallelism", 1));
+		selfAutoRESTDoc.setUsePrebuiltModel(Boolean.getBoolean("selfautorestdoc.prebuilt"));
+		selfAutoRESTDoc.setFormats(List.of(System.getProperty("selfautorestdoc.formats", "markdown").split(",")));
+		selfAutoRESTDoc.setSharded(Boolean.getBoolean("selfautorestdoc.sharded"));
+		selfAutoRESTDoc.setModelsMinSize(Integer.getInteger("selfautorestdoc.modelsminsize", 0));
+	}
+
+	/**
+	 * @return a class loader for the classes directory and the classpath, on top of the current class loader
+	 */
+	public URLClassLoader createClassLoader() {
+		final var urls = Stream.concat(Stream.of(classesDirectory), classpath.stream())
+		        .map(ExportRESTDocAPIHeadless::toURL)
+		        .toArray(URL[]::new);
+		return new URLClassLoader(urls, ExportRESTDocAPIHeadless.class.getClassLoader());
+	}
+
+	/**
+	 * Register in selfAutoRESTDoc all the @RestController classes found in the classes directory.
+	 */
+	public void scan(final ClassLoader classLoader, final SelfAutoRESTDoc selfAutoRESTDoc) throws IOException {
+		final var controllers = new RestControllerScanner(classLoader).scan(classesDirectory);
+		log.info("Found {} REST controller(s) in {}", controllers.size(), classesDirectory);
+		controllers.forEach(selfAutoRESTDoc::registerClass);
+	}
+
+	/**
+	 * With selfAutoRESTDoc.setUsePrebuiltModel, the model made by RESTDocProcessor during the compilation, in the
+	 * classes directory, will be used as is, without source analysis, if it has the same controllers as the scanned
+	 * ones.
+	 * During the export, the classes directory class loader is the current thread context class loader: Spoon and the
+	 * analysis cache will load the DTO classes from it.
+	 * @param selfAutoRESTDoc an already configured instance, like with configure()
+	 * @return the exported files, and if they have changed
+	 */
+	public ExportResult export(final SelfAutoRESTDoc selfAutoRESTDoc,
+	                           final File outputFile,
+	                           final String baseProjectURL) throws IOException {
+		final var currentThread = Thread.currentThread();
+		final var previousClassLoader = currentThread.getContextClassLoader();
+		try (final var classLoader = createClassLoader()) {
+			currentThread.setContextClassLoader(classLoader);
+			scan(classLoader, selfAutoRESTDoc);
+			return selfAutoRESTDoc.writeAll(outputFile, baseProjectURL);
+		} finally {
+			currentThread.setContextClassLoader(previousClassLoader);
+		}
+	}
+
+	public ExportResult export(final File outputFile, final String baseProjectURL) throws IOException {
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		configure(selfAutoRESTDoc);
+		return export(selfAutoRESTDoc, outputFile, baseProjectURL);
+	}
+
+	public static void main(final String[] args) throws IOException {
+		if (args.length == 0) {
+			throw new IllegalArgumentException(
+			        "Usage: ExportRESTDocAPIHeadless <classes directory> [classpath, with " + File.pathSeparator + "]");
+		}
+		var classpath = List.<File> of();
+		if (args.length > 1) {
+			classpath = Arrays.stream(args[1].split(File.pathSeparator))
+			        .filter(entry -> entry.isBlank() == false)
+			        .map(File::new)
+			        .collect(Collectors.toUnmodifiableList());
+		}
+		final var outputFile = new File(System.getProperty("selfautorestdoc.outputfile", "API.md"));
+		final var baseProjectURL = System.getProperty("selfautorestdoc.baseProjectURL", "/blob/master");
+
+		final var result = new ExportRESTDocAPIHeadless(new File(args[0]), classpath)
+		        .export(outputFile, baseProjectURL);
+		log.info("REST API doc exported to {}", result);
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * The files of an export, and the ones which have really changed: an unchanged file is never rewritten.
+ */
+public final class ExportResult {
+
+	private final List<File> files;
+	private final List<File> changedFiles;
+
+	ExportResult(final List<File> files, final List<File> changedFiles) {
+		this.files = List.copyOf(files);
+		this.changedFiles = List.copyOf(changedFiles);
+	}
+
+	/**
+	 * @return all the exported files, in the formats order
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @return the exported files with a new content
+	 */
+	public List<File> getChangedFiles() {
+		return changedFiles;
+	}
+
+	/**
+	 * @return true if all the files were already up to date
+	 */
+	public boolean isNoOp() {
+		return changedFiles.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		if (isNoOp()) {
+			return files + " (unchanged)";
+		}
+		return files + " (" + changedFiles.size() + " changed)";
+	}
+
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static tv.hd3g.selfautorestdoc.SelfAutoRESTDoc.NEW_LINE;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * Render an APIModel as a standalone HTML page, with the same content and anchors as the Markdown doc, streamed from
+ * the APIModelWalker events.
+ */
+class HTMLWriter implements APIDocWriter {
+
+	static final String FORMAT = "html";
+
+	private static final String STYLE = "body{font-family:sans-serif;max-width:60em;margin:auto;padding:1em}"
+	                                    + "pre{background:#f4f4f4;padding:.5em;overflow:auto}"
+	                                    + "h2{border-top:1px solid #ccc;padding-top:.5em}";
+
+	@Override
+	public String getFormat() {
+		return FORMAT;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "html";
+	}
+
+	@Override
+	public String getMediaType() {
+		return "text/html";
+	}
+
+	@Override
+	public void write(final APIModel model, final String baseProjectURL, final Writer out) throws IOException {
+		APIModelWalker.walk(model, new Visitor(model, baseProjectURL, out));
+	}
+
+	private static class Visitor implements APIDocVisitor {
+		private final String baseProjectURL;
+		private final Appendable out;
+		private final DtoTextAppender dtoText;
+
+		Visitor(final APIModel model, final String baseProjectURL, final Appendable out) {
+			this.baseProjectURL = baseProjectURL;
+			this.out = out;
+			dtoText = new DtoTextAppender(model, out, HTMLWriter::escape);
+		}
+
+		@Override
+		public void startDocument(final APIModel model) throws IOException {
+			out.append("<!DOCTYPE html>" + NEW_LINE);
+			out.append("<html><head><meta charset=\"utf-8\"><title>REST API</title>");
+			out.append("<style>" + STYLE + "</style></head><body>" + NEW_LINE);
+			out.append("<h1>REST API</h1>" + NEW_LINE);
+			out.append("<h2 id=\"top\">Summary</h2>" + NEW_LINE);
+			out.append("<ul>" + NEW_LINE);
+		}
+
+		@Override
+		public void summaryEntry(final APIEndpoint ep) throws IOException {
+			out.append("<li><a href=\"#").append(ep.getAnchor()).append("\">");
+			if (ep.getRequestNames().isEmpty() == false) {
+				out.append(escape(String.join(", ", ep.getRequestNames()))).append(" ");
+			}
+			out.append("<b>").append(escape(String.join(", ", ep.getVerbs()))).append("</b> ");
+			out.append("<code>").append(escape(ep.getFullPaths())).append("</code></a></li>" + NEW_LINE);
+		}
+
+		@Override
+		public void endSummary() throws IOException {
+			out.append("</ul>" + NEW_LINE);
+		}
+
+		@Override
+		public void startEndpoint(final APIEndpoint ep) throws IOException {
+			out.append("<h2 id=\"").append(ep.getAnchor()).append("\">");
+			if (ep.getRequestNames().isEmpty() == false) {
+				out.append(escape(String.join(", ", ep.getRequestNames()))).append("<br>");
+			}
+			out.append("<b>").append(escape(String.join(", ", ep.getVerbs()))).append("</b> ");
+			out.append("<code>").append(escape(ep.getFullPaths())).append("</code></h2>" + NEW_LINE);
+
+			if (ep.getMethodComments().isEmpty()) {
+				out.append("<p>").append(escape(ep.getMethodName())).append("</p>" + NEW_LINE);
+			}
+			for (final var comment : ep.getMethodComments()) {
+				out.append("<p>").append(escape(comment)).append("</p>" + NEW_LINE);
+			}
+		}
+
+		@Override
+		public void parameter(final ParameterKind kind, final APIParameter p, final int index) throws IOException {
+			if (kind != ParameterKind.PATH) {
+				return;
+			}
+			if (index == 0) {
+				out.append("<p>Parameters:</p><ul>" + NEW_LINE);
+			}
+			out.append("<li><b>").append(escape(p.getName())).append("</b> ").append(escape(p.getType()));
+			if (p.getDefaultValue().isPresent()) {
+				out.append(" (").append(escape(p.getDefaultValue().get())).append(")");
+			}
+			if (p.isRequired() == false) {
+				out.append(" not required");
+			}
+			out.append("</li>" + NEW_LINE);
+		}
+
+		@Override
+		public void endParameters(final APIEndpoint ep) throws IOException {
+			if (ep.getPathParameters().isEmpty() == false) {
+				out.append("</ul>" + NEW_LINE);
+			}
+			if (ep.getHeaders().isEmpty() == false) {
+				out.append("<p>Headers: ").append(escape(String.join(", ", ep.getHeaders()))).append("</p>" + NEW_LINE);
+			}
+		}
+
+		@Override
+		public void startDto(final DtoRole role,
+		                     final int dtoIndex,
+		                     final APIDto dto,
+		                     final List<String> mediaTypes) throws IOException {
+			out.append("<pre>");
+			out.append(role == DtoRole.REQUEST_BODY ? "Request body data: " : "Response: ");
+			if (mediaTypes.isEmpty() == false) {
+				out.append("\"").append(escape(String.join(", ", mediaTypes))).append("\" ");
+			}
+			out.append("{" + NEW_LINE);
+		}
+
+		@Override
+		public void startField(final APIDtoField field,
+		                       final int depth,
+		                       final boolean last,
+		                       final boolean expanded) throws IOException {
+			dtoText.startField(field, depth, expanded);
+		}
+
+		@Override
+		public void endField(final APIDtoField field,
+		                     final int depth,
+		                     final boolean last,
+		                     final boolean expanded) throws IOException {
+			dtoText.endField(field, depth, last, expanded);
+		}
+
+		@Override
+		public void endDto(final DtoRole role, final int dtoIndex, final APIDto dto) throws IOException {
+			out.append("}</pre>" + NEW_LINE);
+		}
+
+		@Override
+		public void endEndpoint(final APIEndpoint ep) throws IOException {
+			if (ep.getRights().isEmpty() == false) {
+				out.append("<p><i>Mandatory rights: ").append(escape(ep.getRights())).append("</i></p>" + NEW_LINE);
+			}
+			out.append("<p><a href=\"#top\">Go to the top</a> &bull; ");
+			out.append("<a href=\"").append(escape(baseProjectURL + "/" + ep.getControllerFullPath()
+			                                        + "#" + ep.getLineMethodInController())).append("\">");
+			out.append(escape(ep.getControllerSimpleName() + " :: " + ep.getMethodName()))
+			        .append("</a></p>" + NEW_LINE);
+		}
+
+		@Override
+		public void endDocument() throws IOException {
+			out.append("</body></html>" + NEW_LINE);
+		}
+	}
+
+	static String escape(final String text) {
+		final var sb = new StringBuilder(text.length() + 16);
+		for (var pos = 0; pos < text.length(); pos++) {
+			final var c = text.charAt(pos);
+			switch (c) {
+			case '<':
+				sb.append("&lt;");
+				break;
+			case '>':
+				sb.append("&gt;");
+				break;
+			case '&':
+				sb.append("&amp;");
+				break;
+			case '"':
+				sb.append("&quot;");
+				break;
+			default:
+				sb.append(c);
+				break;
+			}
+		}
+		return sb.toString();
+	}
+
+}
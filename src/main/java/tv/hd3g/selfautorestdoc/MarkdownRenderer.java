@@ -0,0 +1,433 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static tv.hd3g.selfautorestdoc.SelfAutoRESTDoc.NEW_LINE;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * Render an APIModel as the Markdown REST doc, streamed from the APIModelWalker events.
+ */
+class MarkdownRenderer implements APIDocWriter {
+
+	static final String FORMAT = "markdown";
+	static final String DEFAULT_TITLE = "REST API";
+	/**
+	 * Endpoint sections rendered at the same time, in parallel mode or with a render cache: only one batch is kept in
+	 * memory.
+	 */
+	private static final int SECTION_BATCH_SIZE = 64;
+
+	private final String title;
+	private final String backLink;
+	private final int modelsMinSize;
+	private final boolean parallel;
+	private final RenderCache renderCache;
+
+	/**
+	 * @param backLink a link to put after the title, like to an index file, or null
+	 * @param modelsMinSize if more than 0, the DTOs used more than once, with at least this fields count, are only
+	 *        written once, in a Models section, and linked from the endpoints. See APIModelWalker.findSharedDtos
+	 * @param parallel if true, the endpoint sections are rendered by batches with a parallel stream, in the current
+	 *        ForkJoinPool, and written in the endpoints order: the document is the same as a sequential render.
+	 */
+	MarkdownRenderer(final String title, final String backLink, final int modelsMinSize, final boolean parallel) {
+		this(title, backLink, modelsMinSize, parallel, null);
+	}
+
+	/**
+	 * @param renderCache the unchanged endpoint sections are copied from it, the others are put in it. Can be null.
+	 */
+	MarkdownRenderer(final String title,
+	                 final String backLink,
+	                 final int modelsMinSize,
+	                 final boolean parallel,
+	                 final RenderCache renderCache) {
+		this.title = title;
+		this.backLink = backLink;
+		this.modelsMinSize = modelsMinSize;
+		this.parallel = parallel;
+		this.renderCache = renderCache;
+	}
+
+	@Override
+	public String getFormat() {
+		return FORMAT;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "md";
+	}
+
+	@Override
+	public String getMediaType() {
+		return "text/markdown";
+	}
+
+	@Override
+	public void write(final APIModel model, final String baseProjectURL, final Writer out) throws IOException {
+		final var sharedDtos = APIModelWalker.findSharedDtos(model, modelsMinSize);
+		final var visitor = new Visitor(model, baseProjectURL, out);
+		if (parallel && model.getEndpoints().size() > 1 || renderCache != null) {
+			visitor.sections = new SectionBatches(model, sharedDtos, baseProjectURL);
+		}
+		APIModelWalker.walk(model, sharedDtos, visitor);
+	}
+
+	/**
+	 * @param link like #goto1234, or an other file, like API/Controller.md#goto1234
+	 */
+	static void appendSummaryEntry(final APIEndpoint ep, final String link, final Appendable out) throws IOException {
+		out.append("* [");
+		final var text = String.join(", ", ep.getRequestNames())
+		                 + " **" + String.join(", ", ep.getVerbs()) + "** `" + ep.getFullPaths() + "`";
+		out.append(text.trim());
+		out.append("](");
+		out.append(link);
+		out.append(")");
+		out.append(NEW_LINE);
+	}
+
+	/**
+	 * The endpoint sections, rendered apart, each in its own buffer, or copied from the render cache, and given back
+	 * in the endpoints order.
+	 */
+	private class SectionBatches {
+		private final APIModel model;
+		private final BitSet sharedDtos;
+		private final String baseProjectURL;
+		/**
+		 * Null without render cache
+		 */
+		private final Set<String> sharedDtoAnchors;
+		private List<String> batch;
+		private int batchPos;
+		private int nextEndpoint;
+
+		SectionBatches(final APIModel model, final BitSet sharedDtos, final String baseProjectURL) {
+			this.model = model;
+			this.sharedDtos = sharedDtos;
+			this.baseProjectURL = baseProjectURL;
+			if (renderCache == null) {
+				sharedDtoAnchors = null;
+			} else {
+				sharedDtoAnchors = sharedDtos.stream()
+				        .mapToObj(index -> model.getDto(index).getAnchor())
+				        .collect(Collectors.toUnmodifiableSet());
+			}
+			batch = List.of();
+		}
+
+		String next() throws IOException {
+			if (batchPos == batch.size()) {
+				final var endpoints = model.getEndpoints();
+				final var end = Math.min(nextEndpoint + SECTION_BATCH_SIZE, endpoints.size());
+				final var batchEndpoints = endpoints.subList(nextEndpoint, end);
+				try {
+					batch = (parallel ? batchEndpoints.parallelStream() : batchEndpoints.stream())
+					        .map(this::getSection)
+					        .collect(Collectors.toUnmodifiableList());
+				} catch (final UncheckedIOException e) {
+					throw e.getCause();
+				}
+				nextEndpoint = end;
+				batchPos = 0;
+			}
+			return batch.get(batchPos++);
+		}
+
+		private String getSection(final APIEndpoint endpoint) {
+			if (renderCache == null) {
+				return render(endpoint);
+			}
+			final var key = RenderCache.computeKey(model, endpoint, sharedDtoAnchors,
+			        FORMAT + "|" + baseProjectURL + "|" + NEW_LINE);
+			return renderCache.get(key).orElseGet(() -> {
+				final var section = render(endpoint);
+				renderCache.put(key, section);
+				return section;
+			});
+		}
+
+		private String render(final APIEndpoint endpoint) {
+			final var section = new StringWriter();
+			try {
+				APIModelWalker.walkEndpoint(model, sharedDtos, endpoint, new Visitor(model, baseProjectURL, section));
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return section.toString();
+		}
+	}
+
+	/**
+	 * All is written directly to the document Writer: the callers give a buffered one. With sections, the endpoint
+	 * sections are not rendered here, but taken from it.
+	 */
+	private class Visitor implements APIDocVisitor {
+		private final String baseProjectURL;
+		private final Writer out;
+		private final DtoTextAppender dtoText;
+		private APIEndpoint currentEndpoint;
+		/**
+		 * Anchor -> type name, of the shared DTOs used by the current DTO fields
+		 */
+		private final Map<String, String> modelReferences;
+		private SectionBatches sections;
+
+		Visitor(final APIModel model, final String baseProjectURL, final Writer out) {
+			this.baseProjectURL = baseProjectURL;
+			this.out = out;
+			dtoText = new DtoTextAppender(model, out, UnaryOperator.identity());
+			modelReferences = new LinkedHashMap<>();
+		}
+
+		@Override
+		public void startDocument(final APIModel model) throws IOException {
+			out.append("# ").append(title).append(NEW_LINE);
+			out.append(NEW_LINE);
+			if (backLink != null) {
+				out.append("[Back to the index](").append(backLink).append(")" + NEW_LINE);
+				out.append(NEW_LINE);
+			}
+			out.append("## Summary <a name=\"top\"></a>" + NEW_LINE);
+			out.append(NEW_LINE);
+		}
+
+		@Override
+		public void summaryEntry(final APIEndpoint ep) throws IOException {
+			appendSummaryEntry(ep, "#" + ep.getAnchor(), out);
+		}
+
+		@Override
+		public boolean acceptEndpoint(final APIEndpoint ep) throws IOException {
+			if (sections == null) {
+				return true;
+			}
+			out.append(sections.next());
+			return false;
+		}
+
+		@Override
+		public void startEndpoint(final APIEndpoint ep) throws IOException {
+			currentEndpoint = ep;
+			out.append(NEW_LINE);
+			out.append("## ");
+
+			out.append("<a name=\"");
+			out.append(ep.getAnchor());
+			out.append("\"></a> ");
+
+			if (ep.getRequestNames().isEmpty() == false) {
+				out.append(String.join(", ", ep.getRequestNames())).append(NEW_LINE);
+			}
+			out.append("**").append(String.join(", ", ep.getVerbs())).append("** ");
+			out.append("`").append(ep.getFullPaths()).append("`" + NEW_LINE);
+			out.append(NEW_LINE);
+
+			for (final var c : ep.getMethodComments()) {
+				out.append(c).append(NEW_LINE);
+				out.append(NEW_LINE);
+			}
+			if (ep.getMethodComments().isEmpty()) {
+				out.append(ep.getMethodName()).append(NEW_LINE);
+				out.append(NEW_LINE);
+			}
+		}
+
+		/**
+		 * Only the path parameters: the query parameters are already in the full paths.
+		 * For the same name, the first declared wins.
+		 */
+		@Override
+		public void parameter(final ParameterKind kind,
+		                      final APIParameter p,
+		                      final int index) throws IOException {
+			if (kind != ParameterKind.PATH) {
+				return;
+			}
+			if (index == 0) {
+				out.append("Parameters:" + NEW_LINE);
+			}
+			if (isAlreadyDeclared(p, index)) {
+				return;
+			}
+			out.append(" - **").append(p.getName()).append("** ").append(p.getType());
+			if (p.getDefaultValue().isPresent()) {
+				out.append(" (").append(p.getDefaultValue().get()).append(") ");
+			}
+			if (p.isRequired() == false) {
+				out.append(" not required");
+			}
+			out.append(NEW_LINE);
+		}
+
+		private boolean isAlreadyDeclared(final APIParameter p, final int index) {
+			final var parameters = currentEndpoint.getPathParameters();
+			for (var pos = 0; pos < index; pos++) {
+				if (parameters.get(pos).getName().equals(p.getName())) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void endParameters(final APIEndpoint ep) throws IOException {
+			if (ep.getPathParameters().isEmpty() == false) {
+				out.append(NEW_LINE);
+			}
+			if (ep.getRequestNames().isEmpty() == false) {
+				out.append("Headers: ");
+				out.append(String.join(", ", ep.getHeaders())).append(NEW_LINE);
+				out.append(NEW_LINE);
+			}
+		}
+
+		@Override
+		public void startDto(final DtoRole role,
+		                     final int dtoIndex,
+		                     final APIDto dto,
+		                     final List<String> mediaTypes) throws IOException {
+			modelReferences.clear();
+			if (role == DtoRole.MODEL) {
+				out.append("### <a name=\"").append(dto.getAnchor()).append("\"></a> ");
+				out.append(dto.getTypeName()).append(NEW_LINE);
+				out.append(NEW_LINE);
+				out.append("```javascript" + NEW_LINE);
+				out.append("{" + NEW_LINE);
+				return;
+			}
+			out.append("```javascript" + NEW_LINE);
+			appendDtoTitle(role, mediaTypes);
+			out.append("{" + NEW_LINE);
+		}
+
+		private void appendDtoTitle(final DtoRole role, final List<String> mediaTypes) throws IOException {
+			out.append(role == DtoRole.REQUEST_BODY ? "Request body data: " : "Response: ");
+			if (mediaTypes.isEmpty() == false) {
+				out.append("\"");
+				out.append(String.join(", ", mediaTypes));
+				out.append("\" ");
+			}
+		}
+
+		@Override
+		public void dtoReference(final DtoRole role,
+		                         final int dtoIndex,
+		                         final APIDto dto,
+		                         final List<String> mediaTypes) throws IOException {
+			appendDtoTitle(role, mediaTypes);
+			out.append("[").append(dto.getTypeName()).append("](#").append(dto.getAnchor()).append(")" + NEW_LINE);
+			out.append(NEW_LINE);
+		}
+
+		@Override
+		public void modelReference(final APIDtoField field, final APIDto dto) throws IOException {
+			modelReferences.put(dto.getAnchor(), dto.getTypeName());
+		}
+
+		@Override
+		public void startField(final APIDtoField field,
+		                       final int depth,
+		                       final boolean last,
+		                       final boolean expanded) throws IOException {
+			dtoText.startField(field, depth, expanded);
+		}
+
+		@Override
+		public void endField(final APIDtoField field,
+		                     final int depth,
+		                     final boolean last,
+		                     final boolean expanded) throws IOException {
+			dtoText.endField(field, depth, last, expanded);
+		}
+
+		@Override
+		public void endDto(final DtoRole role, final int dtoIndex, final APIDto dto) throws IOException {
+			out.append("}" + NEW_LINE);
+			out.append("```" + NEW_LINE);
+			out.append(NEW_LINE);
+			if (modelReferences.isEmpty() == false) {
+				out.append("See ");
+				var first = true;
+				for (final var reference : modelReferences.entrySet()) {
+					if (first == false) {
+						out.append(", ");
+					}
+					first = false;
+					out.append("[").append(reference.getValue()).append("](#").append(reference.getKey()).append(")");
+				}
+				out.append(NEW_LINE);
+				out.append(NEW_LINE);
+			}
+		}
+
+		@Override
+		public void startModels() throws IOException {
+			out.append(NEW_LINE);
+			out.append("## Models <a name=\"models\"></a>" + NEW_LINE);
+			out.append(NEW_LINE);
+		}
+
+		@Override
+		public void endEndpoint(final APIEndpoint ep) throws IOException {
+			final var rights = ep.getRights();
+			if (rights.isEmpty() == false) {
+				out.append("_Mandatory rights: ");
+				out.append(rights).append("_" + NEW_LINE);
+				out.append(NEW_LINE);
+			}
+
+			out.append("[Go to the top](#top)");
+			out.append(" &bull; [").append(ep.getControllerSimpleName());
+			out.append(" :: ");
+			out.append(ep.getMethodName());
+
+			out.append("](").append(baseProjectURL).append("/");
+			out.append(ep.getControllerFullPath());
+			out.append("#");
+			out.append(String.valueOf(ep.getLineMethodInController()));
+			out.append(")");
+			out.append(NEW_LINE);
+		}
+
+		@Override
+		public void endDocument() throws IOException {
+			out.append(NEW_LINE);
+		}
+	}
+
+}
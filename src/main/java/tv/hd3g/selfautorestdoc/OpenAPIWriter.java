@@ -0,0 +1,313 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+/**
+ * Render an APIModel as an OpenAPI 3 JSON document, streamed with a JsonGenerator.
+ * All the DTOs are declared in components/schemas. A mapping without HTTP method is declared as a GET.
+ * The rights are set in the x-mandatory-rights operation extension.
+ */
+class OpenAPIWriter implements APIDocWriter {
+
+	static final String FORMAT = "openapi";
+	private static final String OPENAPI_VERSION = "3.0.3";
+	private static final String DEFAULT_MEDIA_TYPE = "application/json";
+	private static final String SCHEMAS_REF = "#/components/schemas/";
+
+	private final JsonFactory jsonFactory;
+
+	OpenAPIWriter() {
+		jsonFactory = new JsonFactory();
+	}
+
+	@Override
+	public String getFormat() {
+		return FORMAT;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "json";
+	}
+
+	@Override
+	public String getMediaType() {
+		return "application/json";
+	}
+
+	@Override
+	public void write(final APIModel model, final String baseProjectURL, final Writer out) throws IOException {
+		final var schemaNames = getSchemaNames(model);
+
+		/**
+		 * path -> verb -> endpoint, in the endpoints order
+		 */
+		final var operationsByPath = new LinkedHashMap<String, Map<String, APIEndpoint>>();
+		model.getEndpoints().forEach(ep -> {
+			final var verbs = ep.getVerbs().isEmpty() ? List.of("GET") : ep.getVerbs();
+			ep.getPaths().forEach(path -> verbs.forEach(verb -> operationsByPath
+			        .computeIfAbsent(path, p -> new LinkedHashMap<>())
+			        .putIfAbsent(verb.toLowerCase(Locale.ENGLISH), ep)));
+		});
+
+		try (final var json = jsonFactory.createGenerator(out)) {
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			json.useDefaultPrettyPrinter();
+			json.writeStartObject();
+			json.writeStringField("openapi", OPENAPI_VERSION);
+			json.writeObjectFieldStart("info");
+			json.writeStringField("title", "REST API");
+			json.writeStringField("version", "");
+			json.writeEndObject();
+
+			json.writeObjectFieldStart("paths");
+			for (final var path : operationsByPath.entrySet()) {
+				json.writeObjectFieldStart(path.getKey());
+				for (final var operation : path.getValue().entrySet()) {
+					json.writeFieldName(operation.getKey());
+					writeOperation(model, operation.getValue(), schemaNames, baseProjectURL, json);
+				}
+				json.writeEndObject();
+			}
+			json.writeEndObject();
+
+			json.writeObjectFieldStart("components");
+			json.writeObjectFieldStart("schemas");
+			for (var pos = 0; pos < schemaNames.length; pos++) {
+				json.writeFieldName(schemaNames[pos]);
+				writeSchema(model, pos, schemaNames, json);
+			}
+			json.writeEndObject();
+			json.writeEndObject();
+
+			json.writeEndObject();
+		}
+	}
+
+	/**
+	 * @return DTO index -> unique schema name, like TypeName, TypeName2...
+	 */
+	private static String[] getSchemaNames(final APIModel model) {
+		final var dtos = model.getDtos();
+		final var names = new String[dtos.size()];
+		final var counts = new HashMap<String, Integer>();
+		for (var pos = 0; pos < names.length; pos++) {
+			final var typeName = dtos.get(pos).getTypeName();
+			final var count = counts.merge(typeName, 1, Integer::sum);
+			names[pos] = count == 1 ? typeName : typeName + count;
+		}
+		return names;
+	}
+
+	private static void writeOperation(final APIModel model,
+	                                   final APIEndpoint ep,
+	                                   final String[] schemaNames,
+	                                   final String baseProjectURL,
+	                                   final JsonGenerator json) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("operationId", ep.getControllerSimpleName() + "_" + ep.getMethodName());
+		json.writeArrayFieldStart("tags");
+		json.writeString(ep.getControllerSimpleName());
+		json.writeEndArray();
+		if (ep.getRequestNames().isEmpty() == false) {
+			json.writeStringField("summary", String.join(", ", ep.getRequestNames()));
+		}
+		final var description = ep.getMethodComments().isEmpty() ? ep.getMethodName()
+		                                                          : String.join("\n\n", ep.getMethodComments());
+		json.writeStringField("description", description);
+		json.writeObjectFieldStart("externalDocs");
+		json.writeStringField("description", ep.getControllerSimpleName() + " :: " + ep.getMethodName());
+		json.writeStringField("url", baseProjectURL + "/" + ep.getControllerFullPath()
+		                             + "#" + ep.getLineMethodInController());
+		json.writeEndObject();
+
+		if (ep.getPathParameters().isEmpty() == false || ep.getQueryParameters().isEmpty() == false) {
+			json.writeArrayFieldStart("parameters");
+			for (final var p : ep.getPathParameters()) {
+				writeParameter(p, "path", true, json);
+			}
+			for (final var p : ep.getQueryParameters()) {
+				writeParameter(p, "query", p.isRequired(), json);
+			}
+			json.writeEndArray();
+		}
+
+		if (ep.getRequestBodyDto() > -1) {
+			json.writeObjectFieldStart("requestBody");
+			json.writeBooleanField("required", true);
+			writeContent(ep.getConsumes(), schemaNames[ep.getRequestBodyDto()], json);
+			json.writeEndObject();
+		}
+
+		json.writeObjectFieldStart("responses");
+		json.writeObjectFieldStart("200");
+		json.writeStringField("description", "OK");
+		if (ep.getResponseDto() > -1) {
+			writeContent(ep.getProduces(), schemaNames[ep.getResponseDto()], json);
+		}
+		json.writeEndObject();
+		json.writeEndObject();
+
+		if (ep.getRights().isEmpty() == false) {
+			json.writeStringField("x-mandatory-rights", ep.getRights());
+		}
+		json.writeEndObject();
+	}
+
+	/**
+	 * @param required always true for a path parameter, in OpenAPI
+	 */
+	private static void writeParameter(final APIParameter parameter,
+	                                   final String in,
+	                                   final boolean required,
+	                                   final JsonGenerator json) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("name", parameter.getName());
+		json.writeStringField("in", in);
+		json.writeBooleanField("required", required);
+		json.writeObjectFieldStart("schema");
+		writeValueType(parameter.getType(), json);
+		final var defaultValue = parameter.getDefaultValue();
+		if (defaultValue.isPresent()) {
+			json.writeStringField("default", defaultValue.get());
+		}
+		json.writeEndObject();
+		json.writeEndObject();
+	}
+
+	private static void writeContent(final List<String> mediaTypes,
+	                                  final String schemaName,
+	                                  final JsonGenerator json) throws IOException {
+		json.writeObjectFieldStart("content");
+		for (final var mediaType : mediaTypes.isEmpty() ? List.of(DEFAULT_MEDIA_TYPE) : mediaTypes) {
+			json.writeObjectFieldStart(mediaType);
+			json.writeObjectFieldStart("schema");
+			json.writeStringField("$ref", SCHEMAS_REF + schemaName);
+			json.writeEndObject();
+			json.writeEndObject();
+		}
+		json.writeEndObject();
+	}
+
+	private static void writeSchema(final APIModel model,
+	                                final int dtoIndex,
+	                                final String[] schemaNames,
+	                                final JsonGenerator json) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("type", "object");
+		json.writeObjectFieldStart("properties");
+		for (final var field : model.getDto(dtoIndex).getFields()) {
+			json.writeObjectFieldStart(field.getName());
+			writeFieldType(field, schemaNames, json);
+			json.writeEndObject();
+		}
+		json.writeEndObject();
+		json.writeEndObject();
+	}
+
+	private static void writeFieldType(final APIDtoField field,
+	                                   final String[] schemaNames,
+	                                   final JsonGenerator json) throws IOException {
+		final Optional<String> ref = field.hasDto() ? Optional.of(SCHEMAS_REF + schemaNames[field.getDtoIndex()])
+		                                            : Optional.empty();
+		switch (field.getStratum()) {
+		case LIST:
+			json.writeStringField("type", "array");
+			json.writeObjectFieldStart("items");
+			if (ref.isPresent()) {
+				json.writeStringField("$ref", ref.get());
+			} else {
+				writeValueType(field.getType(), json);
+			}
+			json.writeEndObject();
+			break;
+		case MAP:
+			if (ref.isPresent()) {
+				json.writeStringField("$ref", ref.get());
+			} else {
+				json.writeStringField("type", "object");
+			}
+			break;
+		default:
+			writeValueType(field.getType(), json);
+			break;
+		}
+	}
+
+	/**
+	 * @param type a simple class name
+	 */
+	private static void writeValueType(final String type, final JsonGenerator json) throws IOException {
+		switch (type) {
+		case "boolean":
+		case "Boolean":
+			json.writeStringField("type", "boolean");
+			break;
+		case "byte":
+		case "Byte":
+		case "short":
+		case "Short":
+		case "int":
+		case "Integer":
+			json.writeStringField("type", "integer");
+			json.writeStringField("format", "int32");
+			break;
+		case "long":
+		case "Long":
+		case "BigInteger":
+			json.writeStringField("type", "integer");
+			json.writeStringField("format", "int64");
+			break;
+		case "float":
+		case "Float":
+			json.writeStringField("type", "number");
+			json.writeStringField("format", "float");
+			break;
+		case "double":
+		case "Double":
+		case "BigDecimal":
+			json.writeStringField("type", "number");
+			json.writeStringField("format", "double");
+			break;
+		case "UUID":
+			json.writeStringField("type", "string");
+			json.writeStringField("format", "uuid");
+			break;
+		default:
+			json.writeStringField("type", "string");
+			break;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Generated files helpers: a file is only replaced if its content has changed, and always atomically (a reader never
+ * see a partial file), through a temp file in the same directory, and a move.
+ */
+class OutputFiles {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private OutputFiles() {
+	}
+
+	@FunctionalInterface
+	interface ContentWriter {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * @return false if the file already have this content, and was not touched.
+	 */
+	static boolean writeIfChanged(final Path file, final byte[] content) throws IOException {
+		if (Files.isRegularFile(file)
+		    && Files.size(file) == content.length
+		    && Arrays.equals(Files.readAllBytes(file), content)) {
+			return false;
+		}
+		final var temp = createTempFile(file);
+		try {
+			Files.write(temp, content);
+			replace(temp, file);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return true;
+	}
+
+	/**
+	 * The content is streamed to a temp file, and hashed during the write: it's never fully kept in memory.
+	 * @return false if the file already have this content, and was not touched.
+	 */
+	static boolean writeIfChanged(final Path file, final ContentWriter writer) throws IOException {
+		final var temp = createTempFile(file);
+		try {
+			final var digest = AnalysisCache.createDigest();
+			try (final var channel = FileChannel.open(temp, WRITE);
+			     final var out = new DigestOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel),
+			             BUFFER_SIZE), digest)) {
+				writer.write(out);
+			}
+			if (Files.isRegularFile(file)
+			    && Files.size(file) == Files.size(temp)
+			    && MessageDigest.isEqual(digest.digest(), hash(file))) {
+				return false;
+			}
+			replace(temp, file);
+			return true;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Not with Files.createTempFile, that set a 0600 mode on POSIX: the temp file become the output file, so it's
+	 * created like any other file (with the umask), and take the permissions of the file it replaces, if any.
+	 */
+	private static Path createTempFile(final Path file) throws IOException {
+		final var directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		while (true) {
+			final var name = "." + file.getFileName() + "." + Long.toUnsignedString(RANDOM.nextLong(), 36) + ".tmp";
+			try {
+				return Files.createFile(directory.resolve(name));
+			} catch (final FileAlreadyExistsException e) {
+				/**
+				 * Name collision, try an other one
+				 */
+			}
+		}
+	}
+
+	private static void copyPermissions(final Path from, final Path to) throws IOException {
+		if (Files.isRegularFile(from) == false) {
+			return;
+		}
+		final var view = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+		if (view == null) {
+			return;
+		}
+		Files.setPosixFilePermissions(to, view.readAttributes().permissions());
+	}
+
+	private static void replace(final Path temp, final Path file) throws IOException {
+		copyPermissions(file, temp);
+		try {
+			Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+		} catch (final AtomicMoveNotSupportedException e) {
+			Files.move(temp, file, REPLACE_EXISTING);
+		}
+	}
+
+	private static byte[] hash(final Path file) throws IOException {
+		final var digest = AnalysisCache.createDigest();
+		final var buffer = new byte[BUFFER_SIZE];
+		try (final var in = Files.newInputStream(file)) {
+			int size;
+			while ((size = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, size);
+			}
+		}
+		return digest.digest();
+	}
+
+}
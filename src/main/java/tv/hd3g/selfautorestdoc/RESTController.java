@@ -16,11 +16,15 @@
  */
 package tv.hd3g.selfautorestdoc;
 
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.CONTROLLER_ANALYSIS;
+
+import java.io.File;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -31,7 +35,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import spoon.reflect.CtModel;
+import tv.hd3g.selfautorestdoc.ExportEvents.ControllerAnalysis;
 
 class RESTController {
 
@@ -41,6 +45,10 @@ class RESTController {
 		this.controllerClass = Objects.requireNonNull(controllerClass, "\"controllerClass\" can't to be null");
 	}
 
+	public Class<?> getControllerClass() {
+		return controllerClass;
+	}
+
 	private static final Predicate<Annotation> isAnnotationMapping = a -> a.annotationType() == RequestMapping.class ||
 	                                                                      a.annotationType() == PostMapping.class ||
 	                                                                      a.annotationType() == PatchMapping.class ||
@@ -48,14 +56,29 @@ class RESTController {
 	                                                                      a.annotationType() == DeleteMapping.class ||
 	                                                                      a.annotationType() == GetMapping.class;
 
-	public RESTControllerAnalysis processAnalysis(final CtModel model) {
-		final var classAnnotations = new AnnotationExtractor(controllerClass);
-		final var methods = Arrays.stream(controllerClass.getDeclaredMethods())
-		        .filter(m -> Modifier.isPublic(m.getModifiers()))
-		        .filter(m -> Arrays.stream(m.getAnnotations()).anyMatch(isAnnotationMapping))
-		        .map(m -> new RESTMethod(m, model)).collect(Collectors.toUnmodifiableList());
+	/**
+	 * @param parallel analyse the controller methods with a parallel stream
+	 */
+	public RESTControllerAnalysis processAnalysis(final TypeIndex typeIndex,
+	                                              final DtoShapeCache shapeCache,
+	                                              final boolean parallel,
+	                                              final ExportMetrics metrics) {
+		final var event = new ControllerAnalysis();
+		event.begin();
+		try (final var measure = metrics.start(CONTROLLER_ANALYSIS)) {
+			final var classAnnotations = new AnnotationExtractor(controllerClass);
+			final var declaredMethods = Arrays.stream(controllerClass.getDeclaredMethods());
+			final var methods = (parallel ? declaredMethods.parallel() : declaredMethods)
+			        .filter(m -> Modifier.isPublic(m.getModifiers()))
+			        .filter(m -> Arrays.stream(m.getAnnotations()).anyMatch(isAnnotationMapping))
+			        .map(m -> new RESTMethod(m, typeIndex, shapeCache, metrics))
+			        .collect(Collectors.toUnmodifiableList());
 
-		return new RESTControllerAnalysis(classAnnotations, methods);
+			event.controllerClass = controllerClass;
+			event.endpointCount = methods.size();
+			event.commit();
+			return new RESTControllerAnalysis(classAnnotations, methods);
+		}
 	}
 
 	public class RESTControllerAnalysis {
@@ -79,5 +102,23 @@ class RESTController {
 		public Class<?> getControllerClass() {
 			return controllerClass;
 		}
+
+		/**
+		 * @return all the source files used by the methods analysis, only complete after DTO contents extraction
+		 */
+		public Set<File> getDependencies() {
+			return methods.stream()
+			        .flatMap(m -> m.getDependencies().stream())
+			        .collect(Collectors.toUnmodifiableSet());
+		}
+
+		/**
+		 * @return the qualified names of the DTO types walked by reflection, because they was absent from the model
+		 */
+		public Set<String> getUnresolvedTypes() {
+			return methods.stream()
+			        .flatMap(m -> m.getUnresolvedTypes().stream())
+			        .collect(Collectors.toUnmodifiableSet());
+		}
 	}
 }
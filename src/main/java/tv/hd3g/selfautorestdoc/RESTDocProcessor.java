@@ -0,0 +1,509 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoShape;
+import tv.hd3g.selfautorestdoc.RESTMethod.URLVariable;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+/**
+ * Make, during the project compilation, the same analysis as SelfAutoRESTDoc with Spoon, and write it to
+ * APIModelFile.RESOURCE_NAME in the classes directory.
+ * Not declared as a service: it must be explicitly enabled, like with
+ * maven-compiler-plugin / annotationProcessors / tv.hd3g.selfautorestdoc.RESTDocProcessor
+ * Javadoc comments and line numbers are only available with javac.
+ * The DTO are analysed with the DtoAnalyser rules (DtoRules), on javax.lang.model. For the DTOs not compiled during
+ * the same javac run, the constructors parameters names are only known if they were compiled with -parameters.
+ * The model only contains the controllers compiled during the same javac run: if a previous model lists controllers
+ * still present but not compiled now (partial, incremental compilation), an empty model is written instead, and
+ * SelfAutoRESTDoc will analyse the sources until the next full compilation.
+ * Supports all the annotations, to be called even if only DTO classes are compiled; it never claims them.
+ * The controllers source paths are relative to the BASE_DIRECTORY_OPTION processor option (like
+ * -Aselfautorestdoc.basedir=${project.basedir}), or else to the current directory.
+ */
+@SupportedAnnotationTypes("*")
+public class RESTDocProcessor extends AbstractProcessor {
+
+	private static final List<Class<? extends Annotation>> MAPPING_ANNOTATIONS = List.of(
+	        RequestMapping.class, PostMapping.class, PatchMapping.class,
+	        PutMapping.class, DeleteMapping.class, GetMapping.class);
+
+	public static final String BASE_DIRECTORY_OPTION = "selfautorestdoc.basedir";
+
+	private final Set<String> compiledControllers;
+	private Path baseDirectory;
+	private APIModelBuilder modelBuilder;
+	private Trees trees;
+	private TypeMirrorDtoRules dtoRules;
+
+	public RESTDocProcessor() {
+		compiledControllers = new HashSet<>();
+	}
+
+	@Override
+	public Set<String> getSupportedOptions() {
+		return Set.of(BASE_DIRECTORY_OPTION);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public synchronized void init(final ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		baseDirectory = Path.of(processingEnv.getOptions().getOrDefault(BASE_DIRECTORY_OPTION, ""));
+		modelBuilder = new APIModelBuilder(baseDirectory);
+		try {
+			trees = Trees.instance(processingEnv);
+		} catch (final IllegalArgumentException e) {
+			/**
+			 * Not javac
+			 */
+			trees = null;
+		}
+		dtoRules = new TypeMirrorDtoRules(new DtoShapeCache());
+	}
+
+	private TypeMirror getErasedType(final String qualifiedName) {
+		return Optional.ofNullable(processingEnv.getElementUtils().getTypeElement(qualifiedName))
+		        .map(Element::asType)
+		        .map(processingEnv.getTypeUtils()::erasure)
+		        .orElse(null);
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(RestController.class)).stream()
+		        .filter(t -> t.getKind() == ElementKind.CLASS)
+		        .forEach(this::processController);
+
+		if (roundEnv.processingOver() == false) {
+			return false;
+		}
+		final var missingControllers = getMissingControllers();
+		if (missingControllers.isEmpty() == false) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+			        "Partial compilation, without the controllers " + missingControllers + ": "
+			                                                    + APIModelFile.RESOURCE_NAME
+			                                                    + " will be empty until a full compilation");
+			writeModel(APIModel.EMPTY);
+		} else if (modelBuilder.isEmpty() == false) {
+			writeModel(modelBuilder.build());
+		}
+		return false;
+	}
+
+	/**
+	 * @return the controllers of the previous model, not compiled now, but still in the classes or in the classpath
+	 */
+	private Set<String> getMissingControllers() {
+		Set<String> previousControllers;
+		try {
+			final var resource = processingEnv.getFiler()
+			        .getResource(StandardLocation.CLASS_OUTPUT, "", APIModelFile.RESOURCE_NAME);
+			try (final var in = resource.openInputStream()) {
+				previousControllers = APIModelFile.getControllerClassNames(APIModelCodec.read(in));
+			}
+		} catch (final IOException e) {
+			/**
+			 * No previous model, or unreadable
+			 */
+			previousControllers = Set.of();
+		}
+		final var elementUtils = processingEnv.getElementUtils();
+		return previousControllers.stream()
+		        .filter(c -> compiledControllers.contains(c) == false)
+		        .filter(c -> elementUtils.getTypeElement(c.replace('$', '.')) != null)
+		        .collect(Collectors.toCollection(TreeSet::new));
+	}
+
+	private void writeModel(final APIModel model) {
+		try {
+			final var resource = processingEnv.getFiler()
+			        .createResource(StandardLocation.CLASS_OUTPUT, "", APIModelFile.RESOURCE_NAME);
+			try (final var out = resource.openOutputStream()) {
+				APIModelCodec.write(model, out);
+			}
+		} catch (final IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+			        "Can't write " + APIModelFile.RESOURCE_NAME + ": " + e.getMessage());
+		}
+	}
+
+	private void processController(final TypeElement controller) {
+		final var controllerAnnotations = new AnnotationExtractor(controller);
+		final var controllerClassName = processingEnv.getElementUtils().getBinaryName(controller).toString();
+		compiledControllers.add(controllerClassName);
+		modelBuilder.addController(controllerClassName);
+		final var controllerFullPath = APIModelBuilder.toControllerFullPath(controllerClassName,
+		        getSourceFile(controller), baseDirectory);
+
+		ElementFilter.methodsIn(controller.getEnclosedElements()).stream()
+		        .filter(m -> m.getModifiers().contains(Modifier.PUBLIC))
+		        .filter(m -> MAPPING_ANNOTATIONS.stream().anyMatch(a -> m.getAnnotation(a) != null))
+		        .forEach(m -> modelBuilder.add(
+		                controllerAnnotations,
+		                new AnnotationExtractor(m),
+		                getUrlParameters(m),
+		                getUrlQueryParameters(m),
+		                getRequestBodyShape(m),
+		                getResponseShape(m),
+		                controller.getSimpleName().toString(),
+		                controllerClassName,
+		                controllerFullPath,
+		                m.getSimpleName().toString(),
+		                getLine(m).orElse(1),
+		                getMethodComments(m)));
+	}
+
+	private List<URLVariable> getUrlParameters(final ExecutableElement method) {
+		return method.getParameters().stream()
+		        .filter(p -> p.getAnnotation(PathVariable.class) != null)
+		        .map(p -> DtoRules.toURLVariable(p.getAnnotation(PathVariable.class), getClassSimpleName(p.asType())))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	private List<URLVariable> getUrlQueryParameters(final ExecutableElement method) {
+		return method.getParameters().stream()
+		        .filter(p -> p.getAnnotation(RequestParam.class) != null)
+		        .map(p -> DtoRules.toURLVariable(p.getAnnotation(RequestParam.class), p.getSimpleName().toString(),
+		                getClassSimpleName(p.asType())))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * Like RESTMethod, only for the project request body types.
+	 */
+	private Optional<DtoShape> getRequestBodyShape(final ExecutableElement method) {
+		return method.getParameters().stream()
+		        .filter(p -> p.getAnnotation(RequestBody.class) != null)
+		        .findFirst()
+		        .map(VariableElement::asType)
+		        .map(processingEnv.getTypeUtils()::erasure)
+		        .filter(this::isProjectType)
+		        .map(t -> dtoRules.getDtoShape(t, false));
+	}
+
+	/**
+	 * Like RESTMethod, only for ResponseEntity&lt;T&gt; returns, and with the same project types rule as the request
+	 * bodies.
+	 */
+	private Optional<DtoShape> getResponseShape(final ExecutableElement method) {
+		final var returnType = method.getReturnType();
+		if (returnType.getKind() != TypeKind.DECLARED) {
+			return Optional.empty();
+		}
+		final var declaredType = (DeclaredType) returnType;
+		final var returnTypeName = ((TypeElement) declaredType.asElement()).getQualifiedName().toString();
+		if (ResponseEntity.class.getName().equals(returnTypeName) == false) {
+			return Optional.empty();
+		}
+		return declaredType.getTypeArguments().stream()
+		        .findFirst()
+		        .filter(this::isProjectType)
+		        .map(t -> dtoRules.getDtoShape(t, true));
+	}
+
+	/**
+	 * Like the DTO fields: a type out of the protected packages (JDK, Spring), compiled now, or before, like with an
+	 * incremental compilation, or in a dependency. It never depends on the types compiled during the current round.
+	 */
+	private boolean isProjectType(final TypeMirror type) {
+		return type.getKind() == TypeKind.DECLARED && dtoRules.isTypeIsProtected(type) == false;
+	}
+
+	private Optional<File> getSourceFile(final Element element) {
+		return Optional.ofNullable(trees)
+		        .map(t -> t.getPath(element))
+		        .map(TreePath::getCompilationUnit)
+		        .map(CompilationUnitTree::getSourceFile)
+		        .map(JavaFileObject::toUri)
+		        .filter(uri -> "file".equals(uri.getScheme()))
+		        .map(File::new);
+	}
+
+	private Optional<Integer> getLine(final Element element) {
+		return Optional.ofNullable(trees)
+		        .map(t -> t.getPath(element))
+		        .flatMap(path -> {
+			        final var compilationUnit = path.getCompilationUnit();
+			        final var start = trees.getSourcePositions().getStartPosition(compilationUnit, path.getLeaf());
+			        if (start == Diagnostic.NOPOS) {
+				        return Optional.empty();
+			        }
+			        return Optional.of((int) compilationUnit.getLineMap().getLineNumber(start));
+		        });
+	}
+
+	private List<String> getMethodComments(final ExecutableElement method) {
+		return Optional.ofNullable(processingEnv.getElementUtils().getDocComment(method))
+		        .map(String::strip)
+		        .filter(c -> c.isEmpty() == false)
+		        .stream()
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return like Class.getSimpleName, on the erased type
+	 */
+	private String getClassSimpleName(final TypeMirror type) {
+		return dtoRules.getSimpleName(processingEnv.getTypeUtils().erasure(type));
+	}
+
+	private static String getJsonProperty(final Element element) {
+		return Optional.ofNullable(element.getAnnotation(JsonProperty.class))
+		        .map(JsonProperty::value)
+		        .orElse(null);
+	}
+
+	/**
+	 * The DtoAnalyser rules, on the javax.lang.model types.
+	 */
+	private class TypeMirrorDtoRules extends DtoRules<TypeMirror> {
+		private final TypeMirror collectionType;
+		private final TypeMirror mapType;
+		private final TypeMirror charSequenceType;
+		private final TypeMirror representationModelType;
+		private final TypeMirror objectType;
+
+		TypeMirrorDtoRules(final DtoShapeCache shapeCache) {
+			super(shapeCache);
+			collectionType = getErasedType(Collection.class.getName());
+			mapType = getErasedType(Map.class.getName());
+			charSequenceType = getErasedType(CharSequence.class.getName());
+			representationModelType = getErasedType(RepresentationModel.class.getName());
+			objectType = processingEnv.getElementUtils().getTypeElement(Object.class.getName()).asType();
+		}
+
+		private boolean isSubtypeOf(final TypeMirror type, final TypeMirror erasedSuperType) {
+			if (erasedSuperType == null) {
+				return false;
+			}
+			final var typeUtils = processingEnv.getTypeUtils();
+			return typeUtils.isSubtype(typeUtils.erasure(type), erasedSuperType);
+		}
+
+		@Override
+		boolean isCollection(final TypeMirror type) {
+			return isSubtypeOf(type, collectionType);
+		}
+
+		@Override
+		boolean isMap(final TypeMirror type) {
+			return isSubtypeOf(type, mapType);
+		}
+
+		@Override
+		boolean isPlainValue(final TypeMirror type) {
+			return type.getKind().isPrimitive() || isSubtypeOf(type, charSequenceType);
+		}
+
+		@Override
+		Optional<String> getPackageName(final TypeMirror type) {
+			if (type.getKind() != TypeKind.DECLARED) {
+				return Optional.empty();
+			}
+			return Optional.of(processingEnv.getElementUtils()
+			        .getPackageOf(((DeclaredType) type).asElement())
+			        .getQualifiedName().toString());
+		}
+
+		@Override
+		List<TypeMirror> getTypeArguments(final TypeMirror type) {
+			if (type.getKind() != TypeKind.DECLARED) {
+				return List.of();
+			}
+			return List.copyOf(((DeclaredType) type).getTypeArguments());
+		}
+
+		@Override
+		boolean isTypeVariable(final TypeMirror type) {
+			return type.getKind() == TypeKind.TYPEVAR;
+		}
+
+		@Override
+		TypeMirror getObjectType() {
+			return objectType;
+		}
+
+		/**
+		 * @return like CtTypeReference.getSimpleName
+		 */
+		@Override
+		String getSimpleName(final TypeMirror type) {
+			switch (type.getKind()) {
+			case DECLARED:
+				return ((DeclaredType) type).asElement().getSimpleName().toString();
+			case ARRAY:
+				return getSimpleName(((ArrayType) type).getComponentType()) + "[]";
+			default:
+				return type.toString();
+			}
+		}
+
+		@Override
+		String getQualifiedName(final TypeMirror type) {
+			switch (type.getKind()) {
+			case DECLARED:
+				return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+			case ARRAY:
+				return getQualifiedName(((ArrayType) type).getComponentType()) + "[]";
+			default:
+				return type.toString();
+			}
+		}
+
+		/**
+		 * TypeMirror.toString contains the type arguments, like DtoShapeCache.getKey
+		 */
+		@Override
+		String getShapeKey(final TypeMirror type, final boolean isResponseDto) {
+			return (isResponseDto ? "response:" : "request:") + type;
+		}
+
+		@Override
+		DtoShape createShape(final TypeMirror type) {
+			return new DtoShape(getSimpleName(type), getQualifiedName(type));
+		}
+
+		@Override
+		boolean isRepresentationModel(final TypeMirror type) {
+			if (representationModelType == null || type.getKind() != TypeKind.DECLARED) {
+				return false;
+			}
+			final var typeElement = (TypeElement) ((DeclaredType) type).asElement();
+			final var superClass = processingEnv.getTypeUtils().erasure(typeElement.getSuperclass());
+			return superClass.getKind() == TypeKind.DECLARED
+			       && Object.class.getName().equals(superClass.toString()) == false
+			       && processingEnv.getTypeUtils().isSubtype(representationModelType, superClass);
+		}
+
+		@Override
+		List<Member<TypeMirror>> getMembers(final TypeMirror type) {
+			if (type.getKind() != TypeKind.DECLARED) {
+				return List.of();
+			}
+			final var typeElement = (TypeElement) ((DeclaredType) type).asElement();
+			final var constructors = ElementFilter.constructorsIn(typeElement.getEnclosedElements()).stream()
+			        .map(this::toConstructor);
+			final var methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(typeElement))
+			        .stream()
+			        .map(this::toMethod);
+			return Stream.concat(constructors, methods).collect(Collectors.toUnmodifiableList());
+		}
+
+		private Member<TypeMirror> toConstructor(final ExecutableElement constructor) {
+			final var parameters = constructor.getParameters();
+			final var lastParameter = parameters.isEmpty() ? null : parameters.get(parameters.size() - 1);
+			return Member.constructor(parameters.stream()
+			        .map(p -> new MemberParameter<>(
+			                p.getSimpleName().toString(),
+			                true,
+			                processingEnv.getTypeUtils().erasure(p.asType()),
+			                constructor.isVarArgs() && p == lastParameter,
+			                p.getAnnotation(JsonIgnore.class) != null,
+			                getJsonProperty(p)))
+			        .collect(Collectors.toUnmodifiableList()),
+			        constructor.getModifiers().contains(Modifier.PUBLIC),
+			        constructor.getAnnotation(JsonIgnore.class) != null);
+		}
+
+		private Member<TypeMirror> toMethod(final ExecutableElement method) {
+			final var modifiers = method.getModifiers();
+			final var declaringClass = (TypeElement) method.getEnclosingElement();
+			return Member.method(method.getSimpleName().toString(),
+			        method.getReturnType(),
+			        method.getParameters().stream()
+			                .map(p -> new MemberParameter<>(p.getSimpleName().toString(), true, p.asType(),
+			                        false, false, null))
+			                .collect(Collectors.toUnmodifiableList()),
+			        modifiers.contains(Modifier.PUBLIC),
+			        modifiers.contains(Modifier.STATIC),
+			        modifiers.contains(Modifier.NATIVE),
+			        method.isDefault(),
+			        declaringClass.getQualifiedName().contentEquals(Object.class.getName()),
+			        method.getAnnotation(JsonIgnore.class) != null,
+			        getJsonProperty(method));
+		}
+
+		@Override
+		void reportTooManyConstructors(final TypeMirror type, final int count) {
+			final var typeElement = ((DeclaredType) type).asElement();
+			final var message = "Can't use " + getQualifiedName(type)
+			                    + " as DTO body request because there are too many ("
+			                    + count + ") accessible constructors";
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, typeElement);
+		}
+	}
+
+}
@@ -24,62 +24,54 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ValueConstants;
 
-import spoon.reflect.CtModel;
 import spoon.reflect.code.CtComment;
 import spoon.reflect.code.CtComment.CommentType;
+import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 
+/**
+ * All the data taken from the Spoon model are copied during the analysis: no reference to it is kept, so it can be
+ * released before the model conversion and the rendering.
+ */
 class RESTMethod {
 
 	private final Method method;
-	private final Optional<CtMethod<?>> methodType;
+	private final Optional<File> controllerFile;
+	private final Optional<Integer> methodPosInControllerFile;
+	private final List<String> methodComments;
 	private final AnnotationExtractor annotations;
 	private final List<URLVariable> urlParameters;
 	private final List<URLVariable> urlQueryParameters;
 	private final Optional<DtoAnalyser> requestBodyType;
 	private final Optional<DtoAnalyser> methodReturn;
 
-	RESTMethod(final Method method, final CtModel model) {
+	RESTMethod(final Method method,
+	           final TypeIndex typeIndex,
+	           final DtoShapeCache shapeCache,
+	           final ExportMetrics metrics) {
 		this.method = Objects.requireNonNull(method, "\"method\" can't to be null");
 		annotations = new AnnotationExtractor(method);
 		final var paramList = Arrays.asList(method.getParameters());
 
 		urlParameters = paramList.stream()
 		        .filter(p -> p.isAnnotationPresent(PathVariable.class))
-		        .map(p -> {
-			        final var a = p.getAnnotation(PathVariable.class);
-			        final var name = a.value();
-			        final var type = p.getType();
-			        final var required = a.required();
-			        return new URLVariable(name, type, required);
-		        })
+		        .map(p -> DtoRules.toURLVariable(p.getAnnotation(PathVariable.class), p.getType().getSimpleName()))
 		        .collect(Collectors.toUnmodifiableList());
 		urlQueryParameters = paramList.stream()
 		        .filter(p -> p.isAnnotationPresent(RequestParam.class))
-		        .map(p -> {
-			        final var a = p.getAnnotation(RequestParam.class);
-			        var name = a.value();
-			        if (name == null || name.isEmpty()) {
-				        name = p.getName();
-			        }
-			        final var type = p.getType();
-			        final var required = a.required();
-			        final var defaultValue = a.defaultValue();
-			        if (ValueConstants.DEFAULT_NONE.equals(defaultValue)) {
-				        return new URLVariable(name, type, required);
-			        }
-			        return new URLVariable(name, type, required, defaultValue);
-		        })
+		        .map(p -> DtoRules.toURLVariable(p.getAnnotation(RequestParam.class), p.getName(),
+		                p.getType().getSimpleName()))
 		        .collect(Collectors.toUnmodifiableList());
 
 		/**
@@ -88,21 +80,26 @@ class RESTMethod {
 		requestBodyType = paramList.stream()
 		        .filter(p -> p.isAnnotationPresent(RequestBody.class))
 		        .findFirst().map(Parameter::getType)
-		        .flatMap(type -> model.getAllTypes().stream()
-		                .filter(t -> type.getName().equals(t.getQualifiedName()))
-		                .findFirst())
+		        .flatMap(typeIndex::get)
 		        .map(CtType::getReference)
-		        .map(r -> new DtoAnalyser(r, false));
+		        .map(r -> new DtoAnalyser(r, false, shapeCache, metrics));
 
-		final var controller = model.getAllTypes().stream()
-		        .filter(t -> method.getDeclaringClass().getName().equals(t.getQualifiedName()))
-		        .findFirst();
+		final var controller = typeIndex.get(method.getDeclaringClass());
 
 		/**
 		 * Return method
 		 */
-		methodType = controller.map(t -> t.getMethodsByName(method.getName()))
+		final Optional<CtMethod<?>> methodType = controller.map(t -> t.getMethodsByName(method.getName()))
 		        .flatMap(m -> m.stream().findFirst());
+		final var position = methodType.map(CtElement::getPosition)
+		        .filter(SourcePosition::isValidPosition);
+		controllerFile = position.map(SourcePosition::getFile);
+		methodPosInControllerFile = position.map(SourcePosition::getLine);
+		methodComments = methodType.map(CtElement::getComments).stream()
+		        .flatMap(Collection::stream)
+		        .filter(c -> CommentType.JAVADOC.equals(c.getCommentType()))
+		        .map(CtComment::getContent)
+		        .collect(Collectors.toUnmodifiableList());
 
 		if (methodType.isEmpty()) {
 			methodReturn = Optional.empty();
@@ -129,7 +126,7 @@ class RESTMethod {
 				 * Not ResponseEntity<T as RepresentationModel>
 				 * -> T
 				 */
-				methodReturn = Optional.ofNullable(new DtoAnalyser(typeEntity.get(), true));
+				methodReturn = Optional.ofNullable(new DtoAnalyser(typeEntity.get(), true, shapeCache, metrics));
 			}
 		}
 	}
@@ -158,21 +155,27 @@ class RESTMethod {
 		return urlQueryParameters;
 	}
 
-	public class URLVariable {
+	public static class URLVariable {
 
 		private final String name;
-		private final Class<?> type;
+		private final String type;
 		private final boolean required;
 		private final String defaultValue;
 
-		private URLVariable(final String name, final Class<?> type, final boolean required) {
+		/**
+		 * @param type the simple name of the parameter class
+		 */
+		URLVariable(final String name, final String type, final boolean required) {
 			this.name = name;
 			this.type = type;
 			this.required = required;
 			defaultValue = null;
 		}
 
-		private URLVariable(final String name, final Class<?> type, final boolean required, final String defaultValue) {
+		/**
+		 * @param type the simple name of the parameter class
+		 */
+		URLVariable(final String name, final String type, final boolean required, final String defaultValue) {
 			this.name = name;
 			this.type = type;
 			this.required = required;
@@ -187,7 +190,10 @@ class RESTMethod {
 			return name;
 		}
 
-		public Class<?> getType() {
+		/**
+		 * @return the simple name of the parameter class
+		 */
+		public String getType() {
 			return type;
 		}
 
@@ -197,29 +203,35 @@ class RESTMethod {
 	}
 
 	public Optional<File> getControllerFile() {
-		return methodType.map(CtElement::getPosition).flatMap(p -> {
-			if (p.isValidPosition()) {
-				return Optional.ofNullable(p.getFile());
-			}
-			return Optional.empty();
-		});
+		return controllerFile;
 	}
 
 	public Optional<Integer> getMethodPosInControllerFile() {
-		return methodType.map(CtElement::getPosition).flatMap(p -> {
-			if (p.isValidPosition()) {
-				return Optional.ofNullable(p.getLine());
-			}
-			return Optional.empty();
-		});
+		return methodPosInControllerFile;
 	}
 
 	public List<String> getMethodComments() {
-		return methodType.map(CtElement::getComments).stream()
-		        .flatMap(Collection::stream)
-		        .filter(c -> CommentType.JAVADOC.equals(c.getCommentType()))
-		        .map(CtComment::getContent)
-		        .collect(Collectors.toUnmodifiableList());
+		return methodComments;
+	}
+
+	/**
+	 * @return the controller file, and the source files walked by the request/response DTO analysis
+	 */
+	public Set<File> getDependencies() {
+		return Stream.concat(
+		        getControllerFile().stream(),
+		        Stream.concat(requestBodyType.stream(), methodReturn.stream())
+		                .flatMap(dto -> dto.getDependencies().stream()))
+		        .collect(Collectors.toUnmodifiableSet());
+	}
+
+	/**
+	 * @return the qualified names of the types walked by the request/response DTO analysis, but absent from the model
+	 */
+	public Set<String> getUnresolvedTypes() {
+		return Stream.concat(requestBodyType.stream(), methodReturn.stream())
+		        .flatMap(dto -> dto.getUnresolvedTypes().stream())
+		        .collect(Collectors.toUnmodifiableSet());
 	}
 
 }
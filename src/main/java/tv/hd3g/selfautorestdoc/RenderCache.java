@@ -0,0 +1,181 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+/**
+ * Keep on disk the rendered endpoint sections of the last export, keyed by the hash of all the data used to render
+ * them: the endpoint and the DTOs it can reach, as an APIModelCodec snapshot, the shared DTOs, and the render options.
+ * An unchanged section is copied from the cache instead of rendered. Only the sections used by the last export are
+ * stored, so the cache never grows more than one document.
+ * Thread safe.
+ */
+class RenderCache {
+	private static Logger log = LogManager.getLogger();
+
+	private static final String CACHE_FILE_NAME = "sections.bin";
+
+	private final Path cacheFile;
+	private final Map<String, String> previous;
+	private final Map<String, String> used;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	private RenderCache(final Path cacheFile, final Map<String, String> previous) {
+		this.cacheFile = cacheFile;
+		this.previous = previous;
+		used = new ConcurrentHashMap<>();
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+	/**
+	 * @return with the sections stored by the last export, if any
+	 */
+	static RenderCache load(final File cacheDirectory) {
+		Objects.requireNonNull(cacheDirectory, "\"cacheDirectory\" can't to be null");
+		final var cacheFile = new File(cacheDirectory, CACHE_FILE_NAME).toPath();
+		return new RenderCache(cacheFile, read(cacheFile));
+	}
+
+	private static Map<String, String> read(final Path cacheFile) {
+		if (Files.isRegularFile(cacheFile) == false) {
+			return Map.of();
+		}
+		try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+			if (getEnvironmentKey().equals(in.readUTF()) == false) {
+				log.debug("Render cache {} was made by another version", cacheFile);
+				return Map.of();
+			}
+			final var count = in.readInt();
+			final var sections = new HashMap<String, String>(count);
+			for (var pos = 0; pos < count; pos++) {
+				final var key = in.readUTF();
+				final var section = new byte[in.readInt()];
+				in.readFully(section);
+				sections.put(key, new String(section, UTF_8));
+			}
+			return sections;
+		} catch (final IOException | NegativeArraySizeException e) {
+			log.warn("Can't read render cache {}, ignore it", cacheFile, e);
+			return Map.of();
+		}
+	}
+
+	/**
+	 * A section is never reused between two SelfAutoRESTDoc versions: the rendering may have changed.
+	 */
+	private static String getEnvironmentKey() {
+		return AnalysisCache.getVersion(SelfAutoRESTDoc.class);
+	}
+
+	/**
+	 * @param model the whole rendered model
+	 * @param sharedDtoAnchors the anchors of the DTOs not expanded in the endpoints, only referenced
+	 * @param options all the render options which can change the section, like the format and the base project URL
+	 */
+	static String computeKey(final APIModel model,
+	                         final APIEndpoint endpoint,
+	                         final Set<String> sharedDtoAnchors,
+	                         final String options) {
+		final var selected = model.select(List.of(endpoint));
+		final var digest = AnalysisCache.createDigest();
+		digest.update(options.getBytes(UTF_8));
+		digest.update((byte) 0);
+		digest.update(APIModelCodec.toBytes(selected));
+		/**
+		 * The anchors are not in the codec snapshot, and can be changed by a collision in the whole model.
+		 */
+		for (final var dto : selected.getDtos()) {
+			digest.update(dto.getAnchor().getBytes(UTF_8));
+			digest.update((byte) (sharedDtoAnchors.contains(dto.getAnchor()) ? 1 : 0));
+		}
+		return AnalysisCache.toHex(digest.digest());
+	}
+
+	Optional<String> get(final String key) {
+		final var section = previous.get(key);
+		if (section == null) {
+			misses.incrementAndGet();
+			return Optional.empty();
+		}
+		hits.incrementAndGet();
+		used.put(key, section);
+		return Optional.of(section);
+	}
+
+	void put(final String key, final String section) {
+		used.put(key, section);
+	}
+
+	long getHitCount() {
+		return hits.get();
+	}
+
+	long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Call it after the export: only the sections used by it are kept. The file is only replaced if it has changed.
+	 */
+	void store() {
+		final var sections = new TreeMap<>(used);
+		try {
+			OutputFiles.writeIfChanged(cacheFile, os -> {
+				final var out = new DataOutputStream(os);
+				out.writeUTF(getEnvironmentKey());
+				out.writeInt(sections.size());
+				for (final var entry : sections.entrySet()) {
+					final var section = entry.getValue().getBytes(UTF_8);
+					out.writeUTF(entry.getKey());
+					out.writeInt(section.length);
+					out.write(section);
+				}
+				out.flush();
+			});
+		} catch (final IOException e) {
+			log.warn("Can't write render cache {}", cacheFile, e);
+		}
+	}
+
+}
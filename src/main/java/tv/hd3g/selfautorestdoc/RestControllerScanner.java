@@ -0,0 +1,82 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Find the @RestController classes in a compiled classes directory, without start any application context.
+ */
+public class RestControllerScanner {
+	private static Logger log = LogManager.getLogger();
+
+	private final ClassLoader classLoader;
+
+	/**
+	 * @param classLoader must can load the classes directory content and its dependencies
+	 */
+	public RestControllerScanner(final ClassLoader classLoader) {
+		this.classLoader = Objects.requireNonNull(classLoader, "\"classLoader\" can't to be null");
+	}
+
+	private static String toClassName(final Path classesDirectory, final Path classFile) {
+		final var relative = classesDirectory.relativize(classFile).toString().replace('\\', '/');
+		return relative.substring(0, relative.length() - ".class".length()).replace('/', '.');
+	}
+
+	private Optional<Class<?>> load(final String className) {
+		try {
+			/**
+			 * Don't initialize the classes: no static blocks will be run.
+			 */
+			return Optional.of(Class.forName(className, false, classLoader));
+		} catch (ClassNotFoundException | LinkageError e) {
+			log.debug("Can't load {}, ignore it", className, e);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return all the classes annotated by @RestController, sorted by name
+	 */
+	public List<Class<?>> scan(final File classesDirectory) throws IOException {
+		final var root = classesDirectory.toPath();
+		try (final var walk = Files.walk(root)) {
+			return walk.filter(Files::isRegularFile)
+			        .filter(f -> f.getFileName().toString().endsWith(".class"))
+			        .map(f -> toClassName(root, f))
+			        .filter(name -> name.endsWith("module-info") == false && name.endsWith("package-info") == false)
+			        .sorted()
+			        .map(this::load)
+			        .flatMap(Optional::stream)
+			        .filter(cl -> cl.isAnnotationPresent(RestController.class))
+			        .collect(Collectors.toUnmodifiableList());
+		}
+	}
+
+}
@@ -17,26 +17,155 @@
 package tv.hd3g.selfautorestdoc;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.ANALYSIS;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.DTO_SHAPE;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.SECTION;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.TYPE_INDEX;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.MODEL_BUILD;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.MODEL_CONVERSION;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.RENDER;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.SORT;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.WRITE;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.zip.CRC32;
+import java.util.stream.Stream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.web.bind.annotation.RestController;
 
 import spoon.Launcher;
 
+import tv.hd3g.selfautorestdoc.AnalysisCache.ControllerRecord;
+import tv.hd3g.selfautorestdoc.ExportEvents.ModelBuild;
+import tv.hd3g.selfautorestdoc.ExportEvents.Render;
+import tv.hd3g.selfautorestdoc.RESTController.RESTControllerAnalysis;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
 public class SelfAutoRESTDoc {
+	private static Logger log = LogManager.getLogger();
 
 	private final ConcurrentHashMap<Class<?>, RESTController> restControllerAutoDocByClass;
 	public static final String NEW_LINE = "\n";
+	public static final String SOURCE_DIRECTORY = "src/main/java";
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	private List<File> sourceDirectories;
+	private Path baseDirectory;
+	private File cacheDirectory;
+	private boolean incremental;
+	private boolean targeted;
+	private int parallelism;
+	private boolean usePrebuiltModel;
+	private Optional<APIModel> prebuiltModel;
+	/**
+	 * The registered controllers when prebuiltModel was loaded
+	 */
+	private Set<String> prebuiltModelControllers;
+	private List<String> formats;
+	private boolean sharded;
+	private int modelsMinSize;
+	private final ConcurrentHashMap<String, APIDocWriter> customWriters;
+	private volatile Consumer<ExportMetrics> metricsListener;
 
 	public SelfAutoRESTDoc() {
 		restControllerAutoDocByClass = new ConcurrentHashMap<>();
+		parallelism = 1;
+		sourceDirectories = List.of(new File(SOURCE_DIRECTORY));
+		baseDirectory = Path.of("");
+		formats = List.of(MarkdownRenderer.FORMAT);
+		customWriters = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @param sourceDirectories the source roots to analyse, by default only SOURCE_DIRECTORY. The missing ones are
+	 *        ignored. For the same class name, the first source root wins.
+	 */
+	public void setSourceDirectories(final List<File> sourceDirectories) {
+		this.sourceDirectories = List.copyOf(sourceDirectories);
+	}
+
+	/**
+	 * @param baseDirectory the project directory, by default the current directory. The controllers source paths of
+	 *        the doc links, and the source paths kept in the analysis cache, are relative to it. It don't change the
+	 *        relative source directories, always relative to the current directory.
+	 */
+	public void setBaseDirectory(final File baseDirectory) {
+		this.baseDirectory = Objects.requireNonNull(baseDirectory, "\"baseDirectory\" can't to be null").toPath();
+	}
+
+	/**
+	 * @param cacheDirectory where to keep the last analysis result, and the last rendered Markdown endpoint sections,
+	 *        between two exports. Set null to disable the cache.
+	 */
+	public void setCacheDirectory(final File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * @param incremental if true, with a cache directory, only the controllers with changed sources (controller or
+	 *        walked DTOs) will be analysed again, the others will reuse the cached result.
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * @param targeted if true, the Spoon model will only contain the controllers sources, and the DTO sources
+	 *        discovered during the analysis, instead of all the source directory.
+	 */
+	public void setTargeted(final boolean targeted) {
+		this.targeted = targeted;
+	}
+
+	/**
+	 * The controllers and their methods are analysed concurrently against the same Spoon model, in a dedicated
+	 * ForkJoinPool. The result order don't depends on it.
+	 * Spoon can build some shadow types (types absent from the model) during the analysis: keep 1 if you
+	 * encounter analysis errors with it.
+	 * @param parallelism 1 (default) for a sequential analysis, 0 or less to use all the available processors.
+	 */
+	public void setParallelism(final int parallelism) {
+		if (parallelism < 1) {
+			this.parallelism = Runtime.getRuntime().availableProcessors();
+		} else {
+			this.parallelism = parallelism;
+		}
+	}
+
+	/**
+	 * @param usePrebuiltModel if true, use the API model made at compile time (RESTDocProcessor), like in a deployed
+	 *        jar, instead of a sources analysis. It's only searched in the registered controllers code sources, and
+	 *        only used if it has the same controllers as the registered ones: else, the sources are analysed.
+	 *        False by default.
+	 */
+	public void setUsePrebuiltModel(final boolean usePrebuiltModel) {
+		this.usePrebuiltModel = usePrebuiltModel;
 	}
 
 	public void registerClass(final Class<?> cl) {
@@ -45,141 +174,630 @@ public class SelfAutoRESTDoc {
 		}
 	}
 
-	public void writeToMD(final File mdFile, final String baseProjectURL) throws IOException {
-		final var entryPoints = processAnalysis();
+	/**
+	 * @return false if mdFile was already up to date, and was not touched
+	 */
+	public boolean writeToMD(final File mdFile, final String baseProjectURL) throws IOException {
+		final var metrics = new ExportMetrics();
+		return writeToMD(getAPIModel(metrics), mdFile, baseProjectURL, metrics);
+	}
+
+	/**
+	 * @return the prebuilt model if it exists, else the sources analysis result. No reference to the Spoon model is
+	 *         kept after this call.
+	 */
+	public APIModel getAPIModel() throws IOException {
+		final var metrics = new ExportMetrics();
+		final var model = getAPIModel(metrics);
+		publishMetrics(model, metrics);
+		return model;
+	}
 
-		try (final var pw = new PrintWriter(mdFile, UTF_8)) {
-			pw.print("# REST API" + NEW_LINE);
-			pw.print(NEW_LINE);
-			writeSummary(entryPoints, pw);
-			entryPoints.forEach(ep -> writeContent(ep, pw, baseProjectURL));
-			pw.print(NEW_LINE);
+	private APIModel getAPIModel(final ExportMetrics metrics) throws IOException {
+		if (usePrebuiltModel) {
+			final var prebuilt = getPrebuiltModel();
+			if (prebuilt.isPresent()) {
+				return prebuilt.get();
+			}
 		}
+		return processAnalysis(metrics);
 	}
 
-	private List<RESTEntryPoint> processAnalysis() {
-		final var launcher = new Launcher();
-		launcher.addInputResource("src/main/java");
-		launcher.buildModel();
-		final var model = launcher.getModel();
-
-		return restControllerAutoDocByClass.values().stream()
-		        .map(c -> c.processAnalysis(model))
-		        .flatMap(controller -> controller.getMethods().stream()
-		                .map(method -> new RESTEntryPoint(controller, method)))
-		        .sorted((l, r) -> (l.getPaths() + l.getVerbs()).compareTo(r.getPaths() + r.getVerbs()))
-		        .collect(Collectors.toUnmodifiableList());
+	private synchronized Optional<APIModel> getPrebuiltModel() {
+		final var controllers = List.copyOf(restControllerAutoDocByClass.keySet());
+		final var controllerNames = controllers.stream()
+		        .map(Class::getName)
+		        .collect(Collectors.toUnmodifiableSet());
+		if (controllerNames.equals(prebuiltModelControllers) == false) {
+			prebuiltModel = APIModelFile.readFromCodeSources(controllers);
+			prebuiltModelControllers = controllerNames;
+			if (prebuiltModel.isEmpty()) {
+				log.debug("No prebuilt API model in the controllers code sources, the sources will be analysed");
+			}
+		}
+		if (prebuiltModel.isEmpty()) {
+			return prebuiltModel;
+		}
+
+		final var modelControllers = APIModelFile.getControllerClassNames(prebuiltModel.get());
+		if (modelControllers.equals(controllerNames) == false) {
+			log.warn("The prebuilt API model don't have the registered controllers ({} in the model, {} registered), "
+			         + "the sources will be analysed", modelControllers.size(), controllerNames.size());
+			return Optional.empty();
+		}
+		log.info("Use the prebuilt API model, with {} endpoint(s)", prebuiltModel.get().getEndpoints().size());
+		return prebuiltModel;
+	}
+
+	/**
+	 * Without any analysis, like with a model loaded by APIModelCodec.
+	 */
+	public boolean writeToMD(final APIModel model,
+	                         final File mdFile,
+	                         final String baseProjectURL) throws IOException {
+		return writeToMD(model, mdFile, baseProjectURL, new ExportMetrics());
+	}
+
+	private boolean writeToMD(final APIModel model,
+	                          final File mdFile,
+	                          final String baseProjectURL,
+	                          final ExportMetrics metrics) throws IOException {
+		final var renderCache = loadRenderCache();
+		final var changed = runWriters(List.of(createMarkdownRenderer(renderCache)),
+		        writer -> write(writer, model, mdFile, baseProjectURL, metrics)).get(0);
+		storeRenderCache(renderCache, metrics);
+		publishMetrics(model, metrics);
+		return changed;
 	}
 
-	private static String linkifyTitle(final String title) {
-		final var c = new CRC32();
-		c.update(title.getBytes(UTF_8));
-		return "goto" + Math.abs(c.getValue());
+	/**
+	 * @return the same document as writeToMD, in memory
+	 */
+	public String makeMD(final String baseProjectURL) throws IOException {
+		final var metrics = new ExportMetrics();
+		final var model = getAPIModel(metrics);
+		final var renderCache = loadRenderCache();
+		final var document = runWriters(List.of(createMarkdownRenderer(renderCache)),
+		        writer -> make(writer, model, baseProjectURL, metrics)).get(0);
+		storeRenderCache(renderCache, metrics);
+		publishMetrics(model, metrics);
+		return document;
 	}
 
-	private void writeSummary(final List<RESTEntryPoint> entryPoints, final PrintWriter pw) {
-		pw.print("## Summary <a name=\"top\"></a>" + NEW_LINE);
-		pw.print(NEW_LINE);
+	/**
+	 * Make all the selected formats from only one analysis, and write them concurrently. Only the changed files are
+	 * replaced, atomically.
+	 * @param outputFile like API.md: its extension will be replaced by the format file extension.
+	 */
+	public ExportResult writeAll(final File outputFile, final String baseProjectURL) throws IOException {
+		final var metrics = new ExportMetrics();
+		return writeAll(getAPIModel(metrics), outputFile, baseProjectURL, metrics);
+	}
+
+	/**
+	 * Without any analysis, like with a model loaded by APIModelCodec.
+	 */
+	public ExportResult writeAll(final APIModel model,
+	                             final File outputFile,
+	                             final String baseProjectURL) throws IOException {
+		return writeAll(model, outputFile, baseProjectURL, new ExportMetrics());
+	}
 
-		entryPoints.forEach(ep -> {
-			pw.print("* [");
-			final var link = ep.getRequestNames() + " **" + ep.getVerbs() + "** `" + ep.getPaths() + "`";
-			pw.print(link.trim());
-			pw.print("](#");
-			pw.print(linkifyTitle(ep.getRequestNames() + ep.getVerbs() + ep.getPaths()));
-			pw.print(")");
-			pw.print(NEW_LINE);
+	private ExportResult writeAll(final APIModel model,
+	                              final File outputFile,
+	                              final String baseProjectURL,
+	                              final ExportMetrics metrics) throws IOException {
+		final var renderCache = loadRenderCache();
+		final var writers = getWriters(renderCache);
+		final var changed = runWriters(writers, writer -> {
+			final var file = getOutputFile(outputFile, writer);
+			if (sharded && writer instanceof MarkdownRenderer) {
+				final var event = new Render();
+				event.begin();
+				final var changed = new ShardedMarkdownWriter(parallelism > 1, modelsMinSize, renderCache, metrics)
+				        .write(model, file, baseProjectURL);
+				commitRenderEvent(event, writer, model, file);
+				return changed;
+			}
+			return write(writer, model, file, baseProjectURL, metrics);
 		});
+		storeRenderCache(renderCache, metrics);
+
+		final var files = new ArrayList<File>(writers.size());
+		final var changedFiles = new ArrayList<File>(writers.size());
+		for (var pos = 0; pos < writers.size(); pos++) {
+			final var file = getOutputFile(outputFile, writers.get(pos));
+			files.add(file);
+			if (changed.get(pos)) {
+				changedFiles.add(file);
+			}
+		}
+		final var result = new ExportResult(files, changedFiles);
+		if (result.isNoOp()) {
+			log.info("REST doc is up to date, nothing was written: {}", files);
+		} else {
+			log.info("REST doc written to {}", changedFiles);
+		}
+		publishMetrics(model, metrics);
+		return result;
+	}
+
+	/**
+	 * @return format -> document, for all the selected formats, from only one analysis
+	 */
+	public Map<APIDocWriter, String> makeAll(final String baseProjectURL) throws IOException {
+		final var metrics = new ExportMetrics();
+		final var model = getAPIModel(metrics);
+		final var renderCache = loadRenderCache();
+		final var writers = getWriters(renderCache);
+		final var documents = runWriters(writers, writer -> make(writer, model, baseProjectURL, metrics));
+		storeRenderCache(renderCache, metrics);
+		final var result = new LinkedHashMap<APIDocWriter, String>();
+		for (var pos = 0; pos < writers.size(); pos++) {
+			result.put(writers.get(pos), documents.get(pos));
+		}
+		publishMetrics(model, metrics);
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * @param formats the names of the writers to use, like markdown, openapi, html, or a registered one. By default,
+	 *        only markdown.
+	 */
+	public void setFormats(final Collection<String> formats) {
+		final var selected = formats.stream()
+		        .filter(Objects::nonNull)
+		        .map(String::trim)
+		        .map(f -> f.toLowerCase(Locale.ENGLISH))
+		        .filter(f -> f.isEmpty() == false)
+		        .distinct()
+		        .collect(Collectors.toUnmodifiableList());
+		if (selected.isEmpty()) {
+			this.formats = List.of(MarkdownRenderer.FORMAT);
+		} else {
+			this.formats = selected;
+		}
+	}
+
+	/**
+	 * @param sharded if true, writeAll will write the Markdown format as one file by controller, in a directory named
+	 *        like the output file (API.md to API/), and the output file will only be an index with the summary.
+	 *        Only the changed files are rewritten.
+	 */
+	public void setSharded(final boolean sharded) {
+		this.sharded = sharded;
+	}
+
+	/**
+	 * @param modelsMinSize if more than 0, the Markdown doc will write only once, in a "Models" section, each DTO used
+	 *        more than once with at least this fields count (sub fields included), and link to it from the endpoints.
+	 *        The smaller or one-off DTOs stay inlined. By default 0: all the DTOs are inlined.
+	 */
+	public void setModelsMinSize(final int modelsMinSize) {
+		this.modelsMinSize = modelsMinSize;
 	}
 
-	private void writeContent(final RESTEntryPoint ep, final PrintWriter pw, final String baseProjectURL) {
-		pw.print(NEW_LINE);
-		pw.print("## ");
-		final var rqname = ep.getRequestNames();
+	/**
+	 * @param renderCache can be null
+	 */
+	private MarkdownRenderer createMarkdownRenderer(final RenderCache renderCache) {
+		return new MarkdownRenderer(MarkdownRenderer.DEFAULT_TITLE, null, modelsMinSize, parallelism > 1, renderCache);
+	}
 
-		pw.print("<a name=\"");
-		pw.print(linkifyTitle(rqname + ep.getVerbs() + ep.getPaths()));
-		pw.print("\"></a> ");
+	/**
+	 * @return the endpoint sections rendered by the last export, or null without cache directory
+	 */
+	private RenderCache loadRenderCache() {
+		if (cacheDirectory == null) {
+			return null;
+		}
+		return RenderCache.load(cacheDirectory);
+	}
 
-		if (rqname.isEmpty() == false) {
-			pw.print(rqname + NEW_LINE);
+	/**
+	 * @param renderCache can be null
+	 */
+	private static void storeRenderCache(final RenderCache renderCache, final ExportMetrics metrics) {
+		if (renderCache == null) {
+			return;
 		}
-		pw.print("**" + ep.getVerbs() + "** ");
-		pw.print("`" + ep.getPaths() + "`" + NEW_LINE);
-		pw.print(NEW_LINE);
+		renderCache.store();
+		metrics.addCacheResults(SECTION, renderCache.getHitCount(), renderCache.getMissCount());
+	}
 
-		ep.getMethodComments().forEach(c -> {
-			pw.print(c + NEW_LINE);
-			pw.print(NEW_LINE);
-		});
-		if (ep.getMethodComments().isEmpty()) {
-			pw.print(ep.getMethodName() + NEW_LINE);
-			pw.print(NEW_LINE);
-		}
-
-		final var urlParameters = ep.getUrlParameters();
-		if (urlParameters.isEmpty() == false) {
-			pw.print("Parameters:" + NEW_LINE);
-			urlParameters.forEach((n, t) -> pw.print(" - **" + n + "** " + t + NEW_LINE));
-			pw.print(NEW_LINE);
-		}
-		final var headers = ep.getHeaders();
-		if (rqname.isEmpty() == false) {
-			pw.print("Headers: ");
-			pw.print(headers + NEW_LINE);
-			pw.print(NEW_LINE);
-		}
-
-		ep.getDTORequest().ifPresent(r -> {
-			pw.print("```javascript" + NEW_LINE);
-			pw.print("Request body data: ");
-			final var consumes = ep.getConsumes();
-			if (consumes.isBlank() == false) {
-				pw.print("\"");
-				pw.print(consumes);
-				pw.print("\" ");
+	/**
+	 * @param metricsListener called after each export (analysis and/or writing) with its metrics, like to publish them.
+	 *        Set null (default) to only log them.
+	 */
+	public void setMetricsListener(final Consumer<ExportMetrics> metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	private void publishMetrics(final APIModel model, final ExportMetrics metrics) {
+		metrics.addEndpoints(model.getEndpoints().size());
+		metrics.addDtoNodes(model.getDtos().size());
+		metrics.measureHeap();
+		final var listener = metricsListener;
+		if (listener == null) {
+			log.info("REST doc export: {}", metrics);
+		} else {
+			listener.accept(metrics);
+		}
+	}
+
+	/**
+	 * @param writer will be usable with setFormats, and can replace a built-in format.
+	 */
+	public void registerWriter(final APIDocWriter writer) {
+		Objects.requireNonNull(writer, "\"writer\" can't to be null");
+		customWriters.put(writer.getFormat().toLowerCase(Locale.ENGLISH), writer);
+	}
+
+	/**
+	 * @return the selected writers, in the formats order
+	 * @throws IllegalArgumentException if a selected format is unknown
+	 */
+	public List<APIDocWriter> getWriters() {
+		return getWriters(null);
+	}
+
+	/**
+	 * @param renderCache for the built-in Markdown writer, can be null
+	 */
+	private List<APIDocWriter> getWriters(final RenderCache renderCache) {
+		final var available = new HashMap<String, APIDocWriter>();
+		Stream.of(createMarkdownRenderer(renderCache), new OpenAPIWriter(), new HTMLWriter())
+		        .forEach(w -> available.put(w.getFormat(), w));
+		available.putAll(customWriters);
+
+		return formats.stream()
+		        .map(f -> Optional.ofNullable(available.get(f))
+		                .orElseThrow(() -> new IllegalArgumentException("Unknown REST doc format: \"" + f
+		                                                                + "\", use one of " + available.keySet())))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return the files that writeAll will produce, in the formats order
+	 */
+	public List<File> getOutputFiles(final File outputFile) {
+		return getWriters().stream()
+		        .map(writer -> getOutputFile(outputFile, writer))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return outputFile, with the writer file extension
+	 */
+	private static File getOutputFile(final File outputFile, final APIDocWriter writer) {
+		final var name = outputFile.getName();
+		final var dot = name.lastIndexOf('.');
+		final var baseName = dot > 0 ? name.substring(0, dot) : name;
+		return new File(outputFile.getParentFile(), baseName + "." + writer.getFileExtension());
+	}
+
+	/**
+	 * Through a buffered temp file: the document is never fully kept in memory. The file is only replaced, atomically,
+	 * if its content has changed. The render is measured apart: the WRITE phase is only the file work around it.
+	 * @return true if the file has changed
+	 */
+	private static boolean write(final APIDocWriter writer,
+	                             final APIModel model,
+	                             final File file,
+	                             final String baseProjectURL,
+	                             final ExportMetrics metrics) throws IOException {
+		final boolean changed;
+		try (final var measure = metrics.start(WRITE)) {
+			changed = OutputFiles.writeIfChanged(file.toPath(), os -> {
+				final var out = new BufferedWriter(new OutputStreamWriter(os, UTF_8), WRITE_BUFFER_SIZE);
+				render(writer, model, baseProjectURL, out, file, measure.startExcluded(RENDER));
+				out.flush();
+			});
+		}
+		log.debug("{} document {}: {}", writer.getFormat(), changed ? "written" : "unchanged", file);
+		return changed;
+	}
+
+	private static String make(final APIDocWriter writer,
+	                           final APIModel model,
+	                           final String baseProjectURL,
+	                           final ExportMetrics metrics) throws IOException {
+		final var sw = new StringWriter();
+		render(writer, model, baseProjectURL, sw, null, metrics.start(RENDER));
+		return sw.toString();
+	}
+
+	/**
+	 * @param file the output file, or null for an in memory document
+	 * @param renderMeasure a started RENDER measure, closed here
+	 */
+	private static void render(final APIDocWriter writer,
+	                           final APIModel model,
+	                           final String baseProjectURL,
+	                           final Writer out,
+	                           final File file,
+	                           final ExportMetrics.Measure renderMeasure) throws IOException {
+		final var event = new Render();
+		event.begin();
+		try (renderMeasure) {
+			writer.write(model, baseProjectURL, out);
+		}
+		commitRenderEvent(event, writer, model, file);
+	}
+
+	private static void commitRenderEvent(final Render event,
+	                                      final APIDocWriter writer,
+	                                      final APIModel model,
+	                                      final File file) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.format = writer.getFormat();
+			event.output = file == null ? "" : file.getPath();
+			event.endpointCount = model.getEndpoints().size();
+			event.commit();
+		}
+	}
+
+	@FunctionalInterface
+	private interface WriterTask<T> {
+		T run(APIDocWriter writer) throws IOException;
+	}
+
+	/**
+	 * Run one task by writer concurrently, in a dedicated pool: the writers parallel streams will use it.
+	 * @return the task results, in the writers order
+	 */
+	private <T> List<T> runWriters(final List<APIDocWriter> writers, final WriterTask<T> task) throws IOException {
+		if (writers.size() == 1 && parallelism == 1) {
+			return List.of(task.run(writers.get(0)));
+		}
+		final var pool = new ForkJoinPool(Math.max(parallelism, writers.size()));
+		try {
+			final var futures = writers.stream()
+			        .map(writer -> pool.submit(() -> task.run(writer)))
+			        .collect(Collectors.toUnmodifiableList());
+			final var results = new ArrayList<T>(futures.size());
+			for (final var future : futures) {
+				try {
+					results.add(future.get());
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted during the REST doc writing", e);
+				} catch (final ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IOException("Can't write REST doc", e.getCause());
+				}
 			}
-			pw.print("{" + NEW_LINE);
-			r.forEach(l -> pw.print(l + NEW_LINE));
-			pw.print("}" + NEW_LINE);
-			pw.print("```" + NEW_LINE);
-			pw.print(NEW_LINE);
-		});
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private APIModel processAnalysis(final ExportMetrics metrics) throws IOException {
+		final var controllers = List.copyOf(restControllerAutoDocByClass.values());
+		if (cacheDirectory == null) {
+			return mergeModels(analyseAll(controllers, Map.of(), metrics), metrics);
+		}
+
+		final var cache = new AnalysisCache(cacheDirectory);
+		final var sourceHashes = SourceFiles.hashSourceFiles(sourceDirectories, baseDirectory);
+		final var key = cache.computeKey(restControllerAutoDocByClass.keySet(), sourceHashes);
+		final var cached = cache.load(key);
+		if (cached.isPresent()) {
+			log.info("Nothing has changed since the last analysis, use cached result from {}", cacheDirectory);
+			metrics.addCacheResults(ANALYSIS, cached.get().size(), 0);
+			return mergeModels(cached.get(), metrics);
+		}
+
+		final List<ControllerRecord> records;
+		if (incremental) {
+			records = analyseIncremental(controllers, cache.loadRecords(), sourceHashes, metrics);
+		} else {
+			metrics.addCacheResults(ANALYSIS, 0, controllers.size());
+			records = analyseAll(controllers, sourceHashes, metrics);
+		}
+		cache.store(key, records);
+		return mergeModels(records, metrics);
+	}
+
+	private List<ControllerRecord> analyseIncremental(final List<RESTController> controllers,
+	                                                  final Map<String, ControllerRecord> previousRecords,
+	                                                  final Map<String, String> sourceHashes,
+	                                                  final ExportMetrics metrics) {
+		final var upToDate = new ArrayList<ControllerRecord>();
+		final var outdated = new ArrayList<RESTController>();
+		controllers.forEach(c -> Optional.ofNullable(previousRecords.get(c.getControllerClass().getName()))
+		        .filter(r -> r.isUpToDate(sourceHashes))
+		        .ifPresentOrElse(upToDate::add, () -> outdated.add(c)));
+		metrics.addCacheResults(ANALYSIS, upToDate.size(), outdated.size());
+		if (outdated.isEmpty()) {
+			return upToDate;
+		}
+
+		/**
+		 * Only parse the previous dependencies of the outdated controllers, and their direct sources.
+		 */
+		final var inputs = outdated.stream()
+		        .flatMap(c -> Stream.concat(
+		                SourceFiles.findControllerSourceFiles(c.getControllerClass(), sourceDirectories).stream(),
+		                Optional.ofNullable(previousRecords.get(c.getControllerClass().getName())).stream()
+		                        .flatMap(r -> r.getDependencies().keySet().stream())
+		                        .map(path -> new File(baseDirectory.toAbsolutePath().toFile(), path))))
+		        .filter(File::isFile)
+		        .map(File::getAbsoluteFile)
+		        .collect(Collectors.toUnmodifiableSet());
+		log.info("Analyse {} changed controller(s) from {} source(s), reuse {} unchanged controller(s)",
+		        outdated.size(), inputs.size(), upToDate.size());
+
+		final List<ControllerRecord> analysed;
+		if (inputs.isEmpty()) {
+			analysed = analyse(outdated, getExistingSourceDirectories(), sourceHashes,
+			        ConcurrentHashMap.newKeySet(), metrics);
+		} else {
+			analysed = analyseTargeted(outdated, inputs, sourceHashes, metrics);
+		}
+		return Stream.concat(upToDate.stream(), analysed.stream())
+		        .collect(Collectors.toUnmodifiableList());
+	}
 
-		ep.getDTOResponse().ifPresent(r -> {
-			pw.print("```javascript" + NEW_LINE);
-			pw.print("Response: ");
-			final var produces = ep.getProduces();
-			if (produces.isBlank() == false) {
-				pw.print("\"");
-				pw.print(produces);
-				pw.print("\" ");
+	private List<ControllerRecord> analyseAll(final List<RESTController> controllers,
+	                                          final Map<String, String> sourceHashes,
+	                                          final ExportMetrics metrics) {
+		if (targeted) {
+			final var inputs = controllers.stream()
+			        .flatMap(c -> SourceFiles.findControllerSourceFiles(c.getControllerClass(), sourceDirectories)
+			                .stream())
+			        .collect(Collectors.toUnmodifiableSet());
+			if (inputs.isEmpty() == false) {
+				return analyseTargeted(controllers, inputs, sourceHashes, metrics);
 			}
-			pw.print("{" + NEW_LINE);
-			r.forEach(l -> pw.print(l + NEW_LINE));
-			pw.print("}" + NEW_LINE);
-			pw.print("```" + NEW_LINE);
-			pw.print(NEW_LINE);
-		});
+		}
+		return analyse(controllers, getExistingSourceDirectories(), sourceHashes, ConcurrentHashMap.newKeySet(),
+		        metrics);
+	}
+
+	private List<File> getExistingSourceDirectories() {
+		return sourceDirectories.stream()
+		        .filter(File::isDirectory)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * Start the analysis with only the initialInputs in the Spoon model, and add to it the DTO sources walked by
+	 * reflection (absent from the model), until all the walked DTO sources are in the model.
+	 */
+	private List<ControllerRecord> analyseTargeted(final Collection<RESTController> controllers,
+	                                               final Set<File> initialInputs,
+	                                               final Map<String, String> sourceHashes,
+	                                               final ExportMetrics metrics) {
+		final var inputs = new TreeSet<>(initialInputs);
+		while (true) {
+			final var discoveredSources = ConcurrentHashMap.<File> newKeySet();
+			final var records = analyse(controllers, inputs, sourceHashes, discoveredSources, metrics);
+			discoveredSources.removeAll(inputs);
+			if (discoveredSources.isEmpty()) {
+				return records;
+			}
+			log.debug("Add {} discovered DTO source(s) to the {} analysed source(s)",
+			        discoveredSources.size(), inputs.size());
+			inputs.addAll(discoveredSources);
+		}
+	}
+
+	/**
+	 * @param inputs source files or directories to put in the Spoon model
+	 * @param sourceHashes relative path -> content hash, to keep the dependencies of each controller
+	 * @param discoveredSources will be populated with the existing source files of the DTOs absent from the model
+	 */
+	private List<ControllerRecord> analyse(final Collection<RESTController> controllers,
+	                                       final Collection<File> inputs,
+	                                       final Map<String, String> sourceHashes,
+	                                       final Set<File> discoveredSources,
+	                                       final ExportMetrics metrics) {
+		final var analysis = analyseWithSpoon(controllers, inputs, metrics);
+
+		/**
+		 * From here, all the DTO shapes are complete, even the ones shared between controllers, and the Spoon model
+		 * is not reachable anymore: it can be collected during the model conversion.
+		 */
+		return runWithParallelism(() -> stream(analysis)
+		        .map(controller -> {
+			        try (final var measure = metrics.start(MODEL_CONVERSION)) {
+				        final var modelBuilder = new APIModelBuilder(baseDirectory)
+				                .addController(controller.getControllerClass().getName());
+				        controller.getMethods().forEach(method -> modelBuilder.add(controller, method));
+				        controller.getUnresolvedTypes().stream()
+				                .map(t -> SourceFiles.findSourceFile(t, sourceDirectories))
+				                .flatMap(Optional::stream)
+				                .forEach(discoveredSources::add);
+				        final var dependencies = new HashMap<String, String>();
+				        Stream.concat(
+				                controller.getDependencies().stream(),
+				                SourceFiles.findControllerSourceFiles(controller.getControllerClass(),
+				                        sourceDirectories).stream())
+				                .map(f -> SourceFiles.toRelativePath(f, baseDirectory))
+				                .filter(sourceHashes::containsKey)
+				                .forEach(f -> dependencies.put(f, sourceHashes.get(f)));
+				        if (sourceHashes.isEmpty() == false) {
+					        dependencies.putAll(AnalysisCache.hashClassFiles(controller.getUnresolvedTypes()));
+				        }
+				        return new ControllerRecord(controller.getControllerClass().getName(), dependencies,
+				                modelBuilder.build());
+			        }
+		        })
+		        .collect(Collectors.toUnmodifiableList()));
+	}
+
+	/**
+	 * The Spoon model is only reachable during this call: the analysis result only keeps data copied from it (Javadoc,
+	 * source files and lines, DTO shapes).
+	 */
+	private List<RESTControllerAnalysis> analyseWithSpoon(final Collection<RESTController> controllers,
+	                                                      final Collection<File> inputs,
+	                                                      final ExportMetrics metrics) {
+		final var launcher = new Launcher();
+		inputs.forEach(input -> launcher.addInputResource(input.getPath()));
+		final var event = new ModelBuild();
+		event.begin();
+		try (final var measure = metrics.start(MODEL_BUILD)) {
+			launcher.buildModel();
+		}
+		event.end();
+		final var typeIndex = new TypeIndex(launcher.getModel());
+		event.inputCount = inputs.size();
+		event.typeCount = typeIndex.size();
+		event.commit();
+		final var shapeCache = new DtoShapeCache();
+
+		final var analysis = runWithParallelism(() -> stream(controllers)
+		        .map(c -> c.processAnalysis(typeIndex, shapeCache, parallelism > 1, metrics))
+		        .collect(Collectors.toUnmodifiableList()));
+
+		log.debug("Type index: {} types, served {} lookups ({} found in model)",
+		        typeIndex.size(), typeIndex.getLookupCount(), typeIndex.getHitCount());
+		log.debug("DTO shape cache: {} shapes, {} hits, {} misses",
+		        shapeCache.size(), shapeCache.getHitCount(), shapeCache.getMissCount());
+		metrics.addCacheResults(DTO_SHAPE, shapeCache.getHitCount(), shapeCache.getMissCount());
+		metrics.addCacheResults(TYPE_INDEX, typeIndex.getHitCount(),
+		        typeIndex.getLookupCount() - typeIndex.getHitCount());
+		return analysis;
+	}
 
-		final var rights = ep.getRights();
-		if (rights.isEmpty() == false) {
-			pw.print("_Mandatory rights: ");
-			pw.print(rights + "_" + NEW_LINE);
-			pw.print(NEW_LINE);
+	private <T> Stream<T> stream(final Collection<T> items) {
+		if (parallelism > 1) {
+			return items.parallelStream();
 		}
+		return items.stream();
+	}
 
-		pw.print("[Go to the top](#top)");
-		pw.print(" &bull; [" + ep.getControllerSimpleName());
-		pw.print(" :: ");
-		pw.print(ep.getMethodName());
+	/**
+	 * @return task result, computed in a dedicated pool if parallelism is greater than 1: the parallel streams
+	 *         started from task will use it.
+	 */
+	private <T> T runWithParallelism(final Supplier<T> task) {
+		if (parallelism == 1) {
+			return task.get();
+		}
+		final var pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(task::get).join();
+		} finally {
+			pool.shutdown();
+		}
+	}
 
-		pw.print("](" + baseProjectURL + "/");
-		pw.print(ep.getControllerFullPath());
-		pw.print("#");
-		pw.print(ep.getLineMethodInController());
-		pw.print(")");
-		pw.print(NEW_LINE);
+	/**
+	 * The records are merged by controller class name: the DTOs order don't depends on the registration order, or on
+	 * the records reused from the cache.
+	 */
+	private static APIModel mergeModels(final List<ControllerRecord> records, final ExportMetrics metrics) {
+		return metrics.measure(SORT, () -> APIModel.merge(records.stream()
+		        .sorted(Comparator.comparing(ControllerRecord::getControllerClassName))
+		        .map(ControllerRecord::getModel)
+		        .collect(Collectors.toUnmodifiableList())));
 	}
 
 }
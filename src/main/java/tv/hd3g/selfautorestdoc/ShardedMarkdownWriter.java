@@ -0,0 +1,214 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.RENDER;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.WRITE;
+import static tv.hd3g.selfautorestdoc.SelfAutoRESTDoc.NEW_LINE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * Write the Markdown doc as one file by controller (shard), in a directory named like the index file (API.md to
+ * API/), and a small index file with the summary of all the endpoints, which links to the shards.
+ * The shards are made concurrently, and only the changed ones are rewritten, atomically. The shards of the removed
+ * controllers are deleted: the shard file names are listed in a manifest file, in the shard directory, and only the
+ * files of the previous manifest can be deleted. The other files of this directory are never touched.
+ */
+class ShardedMarkdownWriter {
+	private static Logger log = LogManager.getLogger();
+
+	static final String MANIFEST_FILE_NAME = ".selfautorestdoc-shards";
+
+	private final boolean parallel;
+	private final int modelsMinSize;
+	private final RenderCache renderCache;
+	private final ExportMetrics metrics;
+
+	/**
+	 * @param parallel if true, the shards are made with a parallel stream, in the current ForkJoinPool.
+	 * @param modelsMinSize see MarkdownRenderer: each shard has its own Models section.
+	 * @param renderCache shared by all the shards, can be null
+	 */
+	ShardedMarkdownWriter(final boolean parallel,
+	                      final int modelsMinSize,
+	                      final RenderCache renderCache,
+	                      final ExportMetrics metrics) {
+		this.parallel = parallel;
+		this.modelsMinSize = modelsMinSize;
+		this.renderCache = renderCache;
+		this.metrics = metrics;
+	}
+
+	private static class Shard {
+		private final String fileName;
+		private final APIModel model;
+
+		private Shard(final String fileName, final APIModel model) {
+			this.fileName = fileName;
+			this.model = model;
+		}
+	}
+
+	/**
+	 * @return true if the index or a shard has changed, or if a shard was removed
+	 */
+	boolean write(final APIModel model, final File indexFile, final String baseProjectURL) throws IOException {
+		final var indexName = indexFile.getName();
+		final var dot = indexName.lastIndexOf('.');
+		final var shardDirName = dot > 0 ? indexName.substring(0, dot) : indexName + ".shards";
+		final var shardDir = new File(indexFile.getAbsoluteFile().getParentFile(), shardDirName).toPath();
+		Files.createDirectories(shardDir);
+
+		final var shards = createShards(model);
+		final var indexLink = "../" + indexFile.getName();
+		final var shardStream = parallel ? shards.parallelStream() : shards.stream();
+		final long writeCount;
+		try {
+			writeCount = shardStream
+			        .filter(shard -> writeShard(shard, shardDir, indexLink, baseProjectURL))
+			        .count();
+		} catch (final UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		final var shardFileNames = shards.stream()
+		        .map(s -> s.fileName)
+		        .collect(Collectors.toUnmodifiableList());
+		final var manifest = shardDir.resolve(MANIFEST_FILE_NAME);
+		final var removed = new ArrayList<Path>();
+		for (final var previous : readManifest(manifest)) {
+			final var file = shardDir.resolve(previous);
+			if (shardFileNames.contains(previous) == false
+			    && shardDir.equals(file.getParent())
+			    && Files.deleteIfExists(file)) {
+				removed.add(file);
+			}
+		}
+		OutputFiles.writeIfChanged(manifest, shardFileNames.stream()
+		        .map(name -> name + "\n")
+		        .collect(Collectors.joining())
+		        .getBytes(UTF_8));
+
+		final var index = new StringWriter();
+		try (final var measure = metrics.start(RENDER)) {
+			writeIndex(shards, shardDirName, index);
+		}
+		final boolean indexWritten;
+		try (final var measure = metrics.start(WRITE)) {
+			indexWritten = OutputFiles.writeIfChanged(indexFile.toPath(), index.toString().getBytes(UTF_8));
+		}
+
+		log.info("Sharded REST doc: {} of {} shard(s) written, {} removed, index {}",
+		        writeCount, shards.size(), removed.size(), indexWritten ? "written" : "unchanged");
+		return indexWritten || writeCount > 0 || removed.isEmpty() == false;
+	}
+
+	/**
+	 * @return the shard file names written by the previous run, empty if there was none
+	 */
+	private static List<String> readManifest(final Path manifest) throws IOException {
+		if (Files.isRegularFile(manifest) == false) {
+			return List.of();
+		}
+		return Files.readAllLines(manifest, UTF_8).stream()
+		        .filter(name -> name.isBlank() == false)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * @return true if the shard file was changed
+	 */
+	private boolean writeShard(final Shard shard,
+	                           final Path shardDir,
+	                           final String indexLink,
+	                           final String baseProjectURL) {
+		final var title = MarkdownRenderer.DEFAULT_TITLE + ": "
+		                  + shard.model.getEndpoints().get(0).getControllerSimpleName();
+		final var sw = new StringWriter();
+		try {
+			try (final var measure = metrics.start(RENDER)) {
+				new MarkdownRenderer(title, indexLink, modelsMinSize, false, renderCache)
+				        .write(shard.model, baseProjectURL, sw);
+			}
+			try (final var measure = metrics.start(WRITE)) {
+				return OutputFiles.writeIfChanged(shardDir.resolve(shard.fileName), sw.toString().getBytes(UTF_8));
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * One shard by controller source, sorted by controller, with only the DTOs used by its endpoints.
+	 */
+	private static List<Shard> createShards(final APIModel model) {
+		final var endpointsByController = model.getEndpoints().stream()
+		        .collect(Collectors.groupingBy(APIEndpoint::getControllerFullPath, TreeMap::new,
+		                Collectors.toUnmodifiableList()));
+
+		final var usedNames = new HashSet<String>();
+		final var shards = new ArrayList<Shard>(endpointsByController.size());
+		for (final Map.Entry<String, List<APIEndpoint>> entry : endpointsByController.entrySet()) {
+			final var simpleName = entry.getValue().get(0).getControllerSimpleName();
+			var name = simpleName;
+			for (var count = 2; usedNames.add(name) == false; count++) {
+				name = simpleName + "_" + count;
+			}
+			shards.add(new Shard(name + ".md", model.select(entry.getValue())));
+		}
+		return shards;
+	}
+
+	private static void writeIndex(final List<Shard> shards,
+	                               final String shardDirName,
+	                               final Appendable out) throws IOException {
+		out.append("# " + MarkdownRenderer.DEFAULT_TITLE + NEW_LINE);
+		out.append(NEW_LINE);
+		out.append("## Summary <a name=\"top\"></a>" + NEW_LINE);
+		for (final var shard : shards) {
+			final var link = shardDirName + "/" + shard.fileName;
+			out.append(NEW_LINE);
+			out.append("### [").append(shard.fileName, 0, shard.fileName.length() - 3).append("](")
+			        .append(link).append(")" + NEW_LINE);
+			out.append(NEW_LINE);
+			for (final var ep : shard.model.getEndpoints()) {
+				MarkdownRenderer.appendSummaryEntry(ep, link + "#" + ep.getAnchor(), out);
+			}
+		}
+		out.append(NEW_LINE);
+	}
+
+}
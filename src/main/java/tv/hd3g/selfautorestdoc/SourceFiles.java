@@ -0,0 +1,139 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+
+/**
+ * Java source files helpers: relative paths, content hashes, and Class to source file mapping.
+ */
+class SourceFiles {
+
+	private SourceFiles() {
+	}
+
+	/**
+	 * @param baseDirectory the project directory
+	 * @return like src/main/java/aa/bb/Cc.java, relative to baseDirectory
+	 */
+	static String toRelativePath(final File file, final Path baseDirectory) {
+		final var relative = baseDirectory.toAbsolutePath().normalize()
+		        .relativize(file.getAbsoluteFile().toPath().normalize());
+		return relative.toString().replace('\\', '/');
+	}
+
+	static String hashFile(final Path file) {
+		try {
+			return AnalysisCache.toHex(AnalysisCache.createDigest().digest(Files.readAllBytes(file)));
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Can't read " + file, e);
+		}
+	}
+
+	/**
+	 * @return relative path (to baseDirectory) -> content hash, for all the *.java files, sorted by path
+	 */
+	static Map<String, String> hashSourceFiles(final Collection<File> sourceDirectories,
+	                                           final Path baseDirectory) throws IOException {
+		final var hashes = new TreeMap<String, String>();
+		for (final var sourceDirectory : sourceDirectories) {
+			if (sourceDirectory.isDirectory() == false) {
+				continue;
+			}
+			try (final var walk = Files.walk(sourceDirectory.toPath())) {
+				walk.filter(Files::isRegularFile)
+				        .filter(f -> f.getFileName().toString().endsWith(".java"))
+				        .forEach(f -> hashes.putIfAbsent(toRelativePath(f.toFile(), baseDirectory), hashFile(f)));
+			}
+		}
+		return hashes;
+	}
+
+	/**
+	 * @param qualifiedName like aa.bb.Cc or aa.bb.Cc$Dd for nested classes
+	 * @return the absolute file which declare this class (or its top level class), in the first source directory
+	 *         where it exists
+	 */
+	static Optional<File> findSourceFile(final String qualifiedName, final Collection<File> sourceDirectories) {
+		final var topLevelName = StringUtils.substringBefore(qualifiedName, "$");
+		return sourceDirectories.stream()
+		        .map(d -> new File(d, topLevelName.replace('.', '/') + ".java").getAbsoluteFile())
+		        .filter(File::isFile)
+		        .findFirst();
+	}
+
+	/**
+	 * @return the absolute file which declare this class (or its top level class, for nested classes), if it exists
+	 */
+	static Optional<File> findSourceFile(final Class<?> cl, final Collection<File> sourceDirectories) {
+		if (cl.isPrimitive() || cl.isArray()) {
+			return Optional.empty();
+		}
+		return findSourceFile(cl.getName(), sourceDirectories);
+	}
+
+	private static Stream<Class<?>> extractClasses(final Type type) {
+		if (type instanceof Class) {
+			return Stream.of((Class<?>) type);
+		} else if (type instanceof ParameterizedType) {
+			final var pType = (ParameterizedType) type;
+			return Stream.concat(extractClasses(pType.getRawType()),
+			        Arrays.stream(pType.getActualTypeArguments()).flatMap(SourceFiles::extractClasses));
+		}
+		return Stream.empty();
+	}
+
+	/**
+	 * @return the controller source file, with the source files of the types directly used as request body
+	 *         and as method return.
+	 */
+	static Set<File> findControllerSourceFiles(final Class<?> controllerClass,
+	                                           final Collection<File> sourceDirectories) {
+		final var directTypes = Arrays.stream(controllerClass.getDeclaredMethods())
+		        .flatMap(m -> Stream.concat(
+		                Stream.of(m.getGenericReturnType()),
+		                Arrays.stream(m.getParameters())
+		                        .filter(p -> p.isAnnotationPresent(RequestBody.class))
+		                        .map(Parameter::getParameterizedType)))
+		        .flatMap(SourceFiles::extractClasses);
+
+		return Stream.concat(Stream.<Class<?>> of(controllerClass), directTypes)
+		        .distinct()
+		        .map(cl -> findSourceFile(cl, sourceDirectories))
+		        .flatMap(Optional::stream)
+		        .collect(Collectors.toUnmodifiableSet());
+	}
+
+}
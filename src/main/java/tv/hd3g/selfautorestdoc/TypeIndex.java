@@ -0,0 +1,81 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtType;
+
+/**
+ * Qualified name -> CtType, built once per Spoon model, with nested types.
+ * Read only after creation, it can be shared between all the controllers analysis.
+ */
+class TypeIndex {
+
+	private final Map<String, CtType<?>> typesByQualifiedName;
+	private final AtomicLong lookups;
+	private final AtomicLong hits;
+
+	TypeIndex(final CtModel model) {
+		Objects.requireNonNull(model, "\"model\" can't to be null");
+		typesByQualifiedName = new HashMap<>();
+		lookups = new AtomicLong();
+		hits = new AtomicLong();
+		model.getAllTypes().forEach(this::add);
+	}
+
+	private void add(final CtType<?> type) {
+		typesByQualifiedName.putIfAbsent(type.getQualifiedName(), type);
+		type.getNestedTypes().forEach(this::add);
+	}
+
+	/**
+	 * @return the model type declared for this class, if it's present in the model
+	 */
+	public Optional<CtType<?>> get(final Class<?> type) {
+		lookups.incrementAndGet();
+		final var result = Optional.<CtType<?>> ofNullable(typesByQualifiedName.get(type.getName()));
+		if (result.isPresent()) {
+			hits.incrementAndGet();
+		}
+		return result;
+	}
+
+	public int size() {
+		return typesByQualifiedName.size();
+	}
+
+	/**
+	 * @return the lookups count served by this index
+	 */
+	public long getLookupCount() {
+		return lookups.get();
+	}
+
+	/**
+	 * @return the lookups count which found a type in the model
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+}
@@ -27,6 +27,7 @@ import org.springframework.stereotype.Component;
 /**
  * Usage:
  * $ java -jar myspringapp.jar export-rest-doc-api
+ * All the selfautorestdoc.formats are written next to selfautorestdoc.outputfile, like API.md, API.json, API.html
  */
 @Component
 public class ExportRESTDocAPICmdLine implements ApplicationRunner {
@@ -43,7 +44,7 @@ public class ExportRESTDocAPICmdLine implements ApplicationRunner {
 		if (args.getNonOptionArgs().contains("export-rest-doc-api") == false) {
 			return;
 		}
-		selfAutoRestDocEndpointsListener.getSelfAutoRESTDoc().writeToMD(outputFile, baseProjectURL);
+		selfAutoRestDocEndpointsListener.getSelfAutoRESTDoc().writeAll(outputFile, baseProjectURL);
 		if (args.getNonOptionArgs().contains("dont-quit-after-done") == false) {
 			System.exit(0);
 		}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.mod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.MediaType;
+
+/**
+ * A generated document, ready to be served as is: raw and gzip bodies, and their strong ETags, are computed once.
+ */
+public class RESTDocDocument {
+
+	private final MediaType mediaType;
+	private final byte[] content;
+	private final byte[] gzipContent;
+	private final String eTag;
+	private final String gzipETag;
+
+	public RESTDocDocument(final MediaType mediaType, final byte[] content) {
+		this.mediaType = Objects.requireNonNull(mediaType, "\"mediaType\" can't to be null");
+		this.content = Objects.requireNonNull(content, "\"content\" can't to be null");
+		gzipContent = gzip(content);
+
+		final String hash;
+		try {
+			hash = String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(content)));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Can't found SHA-256 digest", e);
+		}
+		/**
+		 * A strong ETag is specific to a representation: the gzip body has its own.
+		 */
+		eTag = "\"" + hash + "\"";
+		gzipETag = "\"" + hash + "-gzip\"";
+	}
+
+	private static byte[] gzip(final byte[] content) {
+		final var bytes = new ByteArrayOutputStream(content.length / 4 + 64);
+		try (final var out = new GZIPOutputStream(bytes)) {
+			out.write(content);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public byte[] getContent() {
+		return content;
+	}
+
+	public byte[] getGzipContent() {
+		return gzipContent;
+	}
+
+	/**
+	 * @return with quotes, like "abcd"
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * @return with quotes, like "abcd-gzip"
+	 */
+	public String getGzipETag() {
+		return gzipETag;
+	}
+
+}
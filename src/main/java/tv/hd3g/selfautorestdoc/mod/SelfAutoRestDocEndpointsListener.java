@@ -16,22 +16,51 @@
  */
 package tv.hd3g.selfautorestdoc.mod;
 
+import java.io.File;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import tv.hd3g.selfautorestdoc.SelfAutoRESTDoc;
 
+/**
+ * Run before the other listeners, like SelfAutoRestDocWebController, which need the registered controllers.
+ * The analysis cache is disabled by default in a running application: set selfautorestdoc.cachedir to enable it.
+ */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class SelfAutoRestDocEndpointsListener implements ApplicationListener<ApplicationEvent> {
 
 	private final SelfAutoRESTDoc selfAutoRESTDoc;
 
-	public SelfAutoRestDocEndpointsListener() {
+	public SelfAutoRestDocEndpointsListener(
+	                                        @Value("${selfautorestdoc.cachedir:}") final String cacheDirectory,
+	                                        @Value("${selfautorestdoc.incremental:false}") final boolean incremental,
+	                                        @Value("${selfautorestdoc.targeted:false}") final boolean targeted,
+	                                        @Value("${selfautorestdoc.parallelism:1}") final int parallelism,
+	                                        @Value("${selfautorestdoc.prebuilt:false}") final boolean prebuilt,
+	                                        @Value("${selfautorestdoc.formats:markdown}") final String formats,
+	                                        @Value("${selfautorestdoc.sharded:false}") final boolean sharded,
+	                                        @Value("${selfautorestdoc.modelsminsize:0}") final int modelsMinSize) {
 		selfAutoRESTDoc = new SelfAutoRESTDoc();
+		if (cacheDirectory.isBlank() == false) {
+			selfAutoRESTDoc.setCacheDirectory(new File(cacheDirectory));
+		}
+		selfAutoRESTDoc.setIncremental(incremental);
+		selfAutoRESTDoc.setTargeted(targeted);
+		selfAutoRESTDoc.setParallelism(parallelism);
+		selfAutoRESTDoc.setUsePrebuiltModel(prebuilt);
+		selfAutoRESTDoc.setFormats(List.of(formats.split(",")));
+		selfAutoRESTDoc.setSharded(sharded);
+		selfAutoRESTDoc.setModelsMinSize(modelsMinSize);
 	}
 
 	@Override
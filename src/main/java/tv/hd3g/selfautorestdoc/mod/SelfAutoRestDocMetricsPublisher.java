@@ -0,0 +1,110 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.mod;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import tv.hd3g.selfautorestdoc.ExportMetrics;
+import tv.hd3g.selfautorestdoc.ExportMetrics.Cache;
+import tv.hd3g.selfautorestdoc.ExportMetrics.Phase;
+
+/**
+ * Publish the metrics of each REST doc export to the MeterRegistry, if there is one in the context (like with
+ * Spring Boot Actuator). Else, they are only logged by SelfAutoRESTDoc.
+ * By phase (tag "phase"): selfautorestdoc.export.phase (timer, the phase total for one export) and
+ * selfautorestdoc.export.phase.allocated (bytes). By export: selfautorestdoc.export.endpoints,
+ * selfautorestdoc.export.dtos, selfautorestdoc.export.heap.peak and .after-last-gc (bytes), and the
+ * selfautorestdoc.export.cache counters (tag "cache": dtoshape, typeindex, analysis or section, and tag "result": hit
+ * or miss).
+ */
+@Component
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class SelfAutoRestDocMetricsPublisher {
+
+	private static final String PREFIX = "selfautorestdoc.export";
+
+	public SelfAutoRestDocMetricsPublisher(final SelfAutoRestDocEndpointsListener selfAutoRestDocEndpointsListener,
+	                                       final ObjectProvider<MeterRegistry> meterRegistry) {
+		meterRegistry.ifAvailable(registry -> selfAutoRestDocEndpointsListener.getSelfAutoRESTDoc()
+		        .setMetricsListener(metrics -> publish(registry, metrics)));
+	}
+
+	private static void publish(final MeterRegistry registry, final ExportMetrics metrics) {
+		for (final var phase : Phase.values()) {
+			if (metrics.getCount(phase) == 0) {
+				continue;
+			}
+			final var tag = phase.name().toLowerCase(Locale.ENGLISH);
+			Timer.builder(PREFIX + ".phase")
+			        .description("REST doc export duration, by phase")
+			        .tag("phase", tag)
+			        .register(registry)
+			        .record(metrics.getDuration(phase, TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+			DistributionSummary.builder(PREFIX + ".phase.allocated")
+			        .description("Bytes allocated by the REST doc export, by phase")
+			        .baseUnit("bytes")
+			        .tag("phase", tag)
+			        .register(registry)
+			        .record(metrics.getAllocatedBytes(phase));
+		}
+		DistributionSummary.builder(PREFIX + ".endpoints")
+		        .description("Exported endpoints")
+		        .register(registry)
+		        .record(metrics.getEndpointCount());
+		DistributionSummary.builder(PREFIX + ".dtos")
+		        .description("Exported DTOs")
+		        .register(registry)
+		        .record(metrics.getDtoNodeCount());
+		DistributionSummary.builder(PREFIX + ".heap.peak")
+		        .description("Heap peak growth during the REST doc export")
+		        .baseUnit("bytes")
+		        .register(registry)
+		        .record(metrics.getPeakHeapBytes());
+		DistributionSummary.builder(PREFIX + ".heap.after-last-gc")
+		        .description("Heap used just after the last GC, seen at the end of the REST doc export (JVM wide)")
+		        .baseUnit("bytes")
+		        .register(registry)
+		        .record(metrics.getHeapAfterLastGcBytes());
+		for (final var cache : Cache.values()) {
+			countCache(registry, cache, "hit", metrics.getCacheHitCount(cache));
+			countCache(registry, cache, "miss", metrics.getCacheMissCount(cache));
+		}
+	}
+
+	private static void countCache(final MeterRegistry registry,
+	                               final Cache cache,
+	                               final String result,
+	                               final long count) {
+		Counter.builder(PREFIX + ".cache")
+		        .description("REST doc export caches use, by cache and result")
+		        .tag("cache", cache.name().toLowerCase(Locale.ENGLISH).replace("_", ""))
+		        .tag("result", result)
+		        .register(registry)
+		        .increment(count);
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.mod;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpHeaders.VARY;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Serve the REST doc from memory, only if selfautorestdoc.endpoint.enabled is true, like /selfautorestdoc/API.md
+ * There is one document by selfautorestdoc.formats, named by its file extension (API.json, API.html...).
+ * The documents are made in a background thread after each context refresh, and served with a strong ETag
+ * (304 if not modified) and a pre-gzipped body. Before the first generation, it returns 503.
+ * It's not a RestController: it will not be documented with the application endpoints.
+ */
+@Controller
+@ConditionalOnProperty(name = "selfautorestdoc.endpoint.enabled", havingValue = "true")
+public class SelfAutoRestDocWebController implements ApplicationListener<ContextRefreshedEvent>, DisposableBean {
+	private static Logger log = LogManager.getLogger();
+
+	private final SelfAutoRestDocEndpointsListener selfAutoRestDocEndpointsListener;
+	private final ApplicationContext applicationContext;
+	private final String baseProjectURL;
+	private final ExecutorService executor;
+	/**
+	 * File extension -> document
+	 */
+	private volatile Map<String, RESTDocDocument> documents;
+
+	public SelfAutoRestDocWebController(final SelfAutoRestDocEndpointsListener selfAutoRestDocEndpointsListener,
+	                                    final ApplicationContext applicationContext,
+	                                    @Value("${selfautorestdoc.baseProjectURL:/blob/master}") final String baseProjectURL) {
+		this.selfAutoRestDocEndpointsListener = selfAutoRestDocEndpointsListener;
+		this.applicationContext = applicationContext;
+		this.baseProjectURL = baseProjectURL;
+		executor = Executors.newSingleThreadExecutor(r -> {
+			final var t = new Thread(r, "SelfAutoRESTDoc");
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			return t;
+		});
+	}
+
+	/**
+	 * Called after SelfAutoRestDocEndpointsListener, which have registered the controllers.
+	 * The refresh events of the other contexts, like a child management context, are sent here too: they are ignored.
+	 */
+	@Override
+	public void onApplicationEvent(final ContextRefreshedEvent event) {
+		if (event.getApplicationContext() != applicationContext) {
+			return;
+		}
+		executor.execute(() -> {
+			try {
+				final var made = selfAutoRestDocEndpointsListener.getSelfAutoRESTDoc().makeAll(baseProjectURL);
+				final var result = new HashMap<String, RESTDocDocument>();
+				made.forEach((writer, content) -> result.put(writer.getFileExtension(), new RESTDocDocument(
+				        new MediaType(MediaType.parseMediaType(writer.getMediaType()), UTF_8),
+				        content.getBytes(UTF_8))));
+				documents = Map.copyOf(result);
+				log.info("REST API doc is ready to be served, as {}", documents.keySet());
+			} catch (final Exception e) {
+				log.error("Can't make REST API doc", e);
+			}
+		});
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	@GetMapping("${selfautorestdoc.endpoint.path:/selfautorestdoc}/API.{extension}")
+	@ResponseBody
+	public ResponseEntity<byte[]> getDocument(@PathVariable("extension") final String extension,
+	                                          @RequestHeader(value = ACCEPT_ENCODING,
+	                                                         required = false) final String acceptEncoding,
+	                                          final WebRequest webRequest) {
+		final var currentDocuments = documents;
+		if (currentDocuments == null) {
+			return ResponseEntity.status(SERVICE_UNAVAILABLE).header(RETRY_AFTER, "5").build();
+		}
+		final var document = currentDocuments.get(extension);
+		if (document == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return serve(document, acceptEncoding, webRequest);
+	}
+
+	private static ResponseEntity<byte[]> serve(final RESTDocDocument document,
+	                                            final String acceptEncoding,
+	                                            final WebRequest webRequest) {
+		final var gzip = acceptsGzip(acceptEncoding);
+		final var eTag = gzip ? document.getGzipETag() : document.getETag();
+		if (webRequest.checkNotModified(eTag)) {
+			/**
+			 * 304: the gzip and the raw bodies have their own ETag, so a shared cache needs Vary here too.
+			 */
+			return ResponseEntity.status(NOT_MODIFIED)
+			        .eTag(eTag)
+			        .header(VARY, ACCEPT_ENCODING)
+			        .build();
+		}
+
+		final var response = ResponseEntity.ok()
+		        .contentType(document.getMediaType())
+		        .eTag(eTag)
+		        .header(VARY, ACCEPT_ENCODING);
+		if (gzip) {
+			return response.header(CONTENT_ENCODING, "gzip").body(document.getGzipContent());
+		}
+		return response.body(document.getContent());
+	}
+
+	/**
+	 * Like "gzip", "deflate, gzip;q=0.8" or "*", but not "gzip;q=0" or "x-gzip-foo".
+	 * An explicit gzip (or x-gzip) coding wins over "*".
+	 * @param acceptEncoding the Accept-Encoding header value, can be null
+	 */
+	static boolean acceptsGzip(final String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		var gzipQuality = -1f;
+		var anyQuality = -1f;
+		for (final var item : acceptEncoding.split(",")) {
+			final var parts = item.split(";");
+			final var coding = parts[0].trim().toLowerCase(Locale.ENGLISH);
+			final var quality = getQuality(parts);
+			if (coding.equals("gzip") || coding.equals("x-gzip")) {
+				gzipQuality = Math.max(gzipQuality, quality);
+			} else if (coding.equals("*")) {
+				anyQuality = Math.max(anyQuality, quality);
+			}
+		}
+		if (gzipQuality > -1f) {
+			return gzipQuality > 0f;
+		}
+		return anyQuality > 0f;
+	}
+
+	/**
+	 * @param parts coding, then its parameters, like ["gzip", "q=0.5"]
+	 * @return 1 without q parameter, 0 if it's not a valid number
+	 */
+	private static float getQuality(final String[] parts) {
+		for (var pos = 1; pos < parts.length; pos++) {
+			final var parameter = parts[pos].trim();
+			if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+			    && parameter.charAt(1) == '=') {
+				try {
+					return Float.parseFloat(parameter.substring(2).trim());
+				} catch (final NumberFormatException e) {
+					return 0f;
+				}
+			}
+		}
+		return 1f;
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * An analysed request or response DTO type. Its fields can point to other DTOs, or to itself (recursive DTO), by
+ * index in APIModel.getDtos().
+ */
+public final class APIDto {
+
+	private final String typeName;
+	private final String qualifiedName;
+	private final List<APIDtoField> fields;
+	private final String anchor;
+
+	/**
+	 * With an unknown qualified name: the type name is used.
+	 * @param typeName the simple name of the DTO type
+	 * @param fields sorted by name
+	 */
+	public APIDto(final String typeName, final List<APIDtoField> fields) {
+		this(typeName, typeName, fields);
+	}
+
+	/**
+	 * @param typeName the simple name of the DTO type
+	 * @param qualifiedName the full name of the DTO type, to not mix the same named types of different packages
+	 * @param fields sorted by name
+	 */
+	public APIDto(final String typeName, final String qualifiedName, final List<APIDtoField> fields) {
+		this.typeName = Objects.requireNonNull(typeName, "\"typeName\" can't to be null");
+		this.qualifiedName = Objects.requireNonNull(qualifiedName, "\"qualifiedName\" can't to be null");
+		this.fields = List.copyOf(fields);
+
+		final var c = new CRC32();
+		c.update(qualifiedName.getBytes(UTF_8));
+		this.fields.forEach(f -> c.update((";" + f.getName() + ":" + f.getStratum() + ":" + f.getType())
+		        .getBytes(UTF_8)));
+		anchor = "model" + Math.abs(c.getValue());
+	}
+
+	private APIDto(final APIDto dto, final List<APIDtoField> fields, final String anchor) {
+		typeName = dto.typeName;
+		qualifiedName = dto.qualifiedName;
+		this.fields = fields;
+		this.anchor = anchor;
+	}
+
+	public String getTypeName() {
+		return typeName;
+	}
+
+	public String getQualifiedName() {
+		return qualifiedName;
+	}
+
+	public List<APIDtoField> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @return a stable link name, made from the qualified type name and the fields, without the DTO indexes. It's
+	 *         unique in its APIModel.
+	 */
+	public String getAnchor() {
+		return anchor;
+	}
+
+	/**
+	 * @return a copy of this DTO, with an other anchor, like to resolve a collision in its model
+	 */
+	APIDto withAnchor(final String anchor) {
+		return new APIDto(this, fields, anchor);
+	}
+
+	/**
+	 * @param newIndex old DTO index -> new DTO index
+	 * @return a copy of this DTO, with the new DTO indexes in its fields, and the same anchor
+	 */
+	APIDto reindex(final IntUnaryOperator newIndex) {
+		return new APIDto(this, fields.stream()
+		        .map(f -> new APIDtoField(f.getName(), f.getStratum(), f.getType(),
+		                f.hasDto() ? newIndex.applyAsInt(f.getDtoIndex()) : -1))
+		        .collect(Collectors.toUnmodifiableList()), anchor);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(typeName, qualifiedName, fields);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (APIDto) obj;
+		return typeName.equals(other.typeName)
+		       && qualifiedName.equals(other.qualifiedName)
+		       && fields.equals(other.fields);
+	}
+
+}
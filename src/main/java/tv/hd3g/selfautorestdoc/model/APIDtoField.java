@@ -0,0 +1,94 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import java.util.Objects;
+
+/**
+ * A DTO item: a JSON value, list or object.
+ */
+public final class APIDtoField {
+
+	public enum Stratum {
+		VALUE,
+		LIST,
+		MAP;
+	}
+
+	private final String name;
+	private final Stratum stratum;
+	private final String type;
+	private final int dtoIndex;
+
+	/**
+	 * @param type the simple name of the item type
+	 * @param dtoIndex the index of the item type in APIModel.getDtos(), or -1 for a value
+	 */
+	public APIDtoField(final String name, final Stratum stratum, final String type, final int dtoIndex) {
+		this.name = Objects.requireNonNull(name, "\"name\" can't to be null");
+		this.stratum = Objects.requireNonNull(stratum, "\"stratum\" can't to be null");
+		this.type = Objects.requireNonNull(type, "\"type\" can't to be null");
+		this.dtoIndex = Math.max(-1, dtoIndex);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Stratum getStratum() {
+		return stratum;
+	}
+
+	/**
+	 * @return the simple name of the item type
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the index of the item type in APIModel.getDtos(), or -1 if it's not walked as a DTO
+	 */
+	public int getDtoIndex() {
+		return dtoIndex;
+	}
+
+	public boolean hasDto() {
+		return dtoIndex > -1;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, stratum, type, dtoIndex);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (APIDtoField) obj;
+		return name.equals(other.name)
+		       && stratum == other.stratum
+		       && type.equals(other.type)
+		       && dtoIndex == other.dtoIndex;
+	}
+
+}
@@ -0,0 +1,402 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * One analysed REST method, without any reference to the analysis (Spoon, reflection).
+ */
+public final class APIEndpoint {
+
+	private final List<String> verbs;
+	private final List<String> paths;
+	private final List<APIParameter> pathParameters;
+	private final List<APIParameter> queryParameters;
+	private final String rights;
+	private final List<String> requestNames;
+	private final List<String> headers;
+	private final List<String> produces;
+	private final List<String> consumes;
+	private final int requestBodyDto;
+	private final int responseDto;
+	private final String controllerSimpleName;
+	private final String controllerClassName;
+	private final String controllerFullPath;
+	private final String methodName;
+	private final int lineMethodInController;
+	private final List<String> methodComments;
+
+	private final String fullPaths;
+	private final String sortKey;
+	private final String anchor;
+
+	/**
+	 * Use an APIEndpoint.Builder.
+	 */
+	private APIEndpoint(final Builder builder) {
+		verbs = List.copyOf(builder.verbs);
+		paths = List.copyOf(builder.paths);
+		pathParameters = List.copyOf(builder.pathParameters);
+		queryParameters = List.copyOf(builder.queryParameters);
+		rights = Objects.requireNonNull(builder.rights, "\"rights\" can't to be null");
+		requestNames = List.copyOf(builder.requestNames);
+		headers = List.copyOf(builder.headers);
+		produces = List.copyOf(builder.produces);
+		consumes = List.copyOf(builder.consumes);
+		requestBodyDto = Math.max(-1, builder.requestBodyDto);
+		responseDto = Math.max(-1, builder.responseDto);
+		controllerSimpleName = Objects.requireNonNull(builder.controllerSimpleName,
+		        "\"controllerSimpleName\" can't to be null");
+		controllerClassName = Objects.requireNonNull(builder.controllerClassName,
+		        "\"controllerClassName\" can't to be null");
+		controllerFullPath = Objects.requireNonNull(builder.controllerFullPath,
+		        "\"controllerFullPath\" can't to be null");
+		methodName = Objects.requireNonNull(builder.methodName, "\"methodName\" can't to be null");
+		lineMethodInController = builder.lineMethodInController;
+		methodComments = List.copyOf(builder.methodComments);
+
+		final var allPaths = String.join(", ", paths);
+		if (queryParameters.isEmpty()) {
+			fullPaths = allPaths;
+		} else {
+			fullPaths = allPaths + queryParameters.stream()
+			        .map(qp -> qp.getDefaultValue()
+			                .map(defaultValue -> qp.getName() + "=" + defaultValue)
+			                .orElseGet(() -> qp.getName() + "=<" + qp.getType() + ">"))
+			        .collect(Collectors.joining("&", "?", ""));
+		}
+		final var allVerbs = String.join(", ", verbs);
+		sortKey = fullPaths + allVerbs;
+		anchor = linkifyTitle(String.join(", ", requestNames) + allVerbs + fullPaths);
+	}
+
+	private static String linkifyTitle(final String title) {
+		final var c = new CRC32();
+		c.update(title.getBytes(UTF_8));
+		return "goto" + Math.abs(c.getValue());
+	}
+
+	public static class Builder {
+		private List<String> verbs = List.of();
+		private List<String> paths = List.of();
+		private List<APIParameter> pathParameters = List.of();
+		private List<APIParameter> queryParameters = List.of();
+		private String rights = "";
+		private List<String> requestNames = List.of();
+		private List<String> headers = List.of();
+		private List<String> produces = List.of();
+		private List<String> consumes = List.of();
+		private int requestBodyDto = -1;
+		private int responseDto = -1;
+		private String controllerSimpleName;
+		private String controllerClassName;
+		private String controllerFullPath;
+		private String methodName;
+		private int lineMethodInController = 1;
+		private List<String> methodComments = List.of();
+
+		/**
+		 * @param verbs like POST, GET
+		 */
+		public Builder verbs(final List<String> verbs) {
+			this.verbs = verbs;
+			return this;
+		}
+
+		/**
+		 * @param paths like /aa/bbb/{ccc}, without query parameters
+		 */
+		public Builder paths(final List<String> paths) {
+			this.paths = paths;
+			return this;
+		}
+
+		public Builder pathParameters(final List<APIParameter> pathParameters) {
+			this.pathParameters = pathParameters;
+			return this;
+		}
+
+		public Builder queryParameters(final List<APIParameter> queryParameters) {
+			this.queryParameters = queryParameters;
+			return this;
+		}
+
+		/**
+		 * @param rights like (AA &amp; BB | CC &amp; DD) &amp; (EE), or empty
+		 */
+		public Builder rights(final String rights) {
+			this.rights = rights;
+			return this;
+		}
+
+		public Builder requestNames(final List<String> requestNames) {
+			this.requestNames = requestNames;
+			return this;
+		}
+
+		public Builder headers(final List<String> headers) {
+			this.headers = headers;
+			return this;
+		}
+
+		public Builder produces(final List<String> produces) {
+			this.produces = produces;
+			return this;
+		}
+
+		public Builder consumes(final List<String> consumes) {
+			this.consumes = consumes;
+			return this;
+		}
+
+		/**
+		 * @param requestBodyDto index in APIModel.getDtos(), or -1
+		 */
+		public Builder requestBodyDto(final int requestBodyDto) {
+			this.requestBodyDto = requestBodyDto;
+			return this;
+		}
+
+		/**
+		 * @param responseDto index in APIModel.getDtos(), or -1
+		 */
+		public Builder responseDto(final int responseDto) {
+			this.responseDto = responseDto;
+			return this;
+		}
+
+		public Builder controllerSimpleName(final String controllerSimpleName) {
+			this.controllerSimpleName = controllerSimpleName;
+			return this;
+		}
+
+		/**
+		 * @param controllerClassName the binary name, like aa.bb.Controller, or aa.bb.Outer$Controller
+		 */
+		public Builder controllerClassName(final String controllerClassName) {
+			this.controllerClassName = controllerClassName;
+			return this;
+		}
+
+		/**
+		 * @param controllerFullPath like src/main/java/aa/bb/Controller.java
+		 */
+		public Builder controllerFullPath(final String controllerFullPath) {
+			this.controllerFullPath = controllerFullPath;
+			return this;
+		}
+
+		public Builder methodName(final String methodName) {
+			this.methodName = methodName;
+			return this;
+		}
+
+		public Builder lineMethodInController(final int lineMethodInController) {
+			this.lineMethodInController = lineMethodInController;
+			return this;
+		}
+
+		public Builder methodComments(final List<String> methodComments) {
+			this.methodComments = methodComments;
+			return this;
+		}
+
+		public APIEndpoint build() {
+			return new APIEndpoint(this);
+		}
+	}
+
+	/**
+	 * @param newIndex old DTO index -> new DTO index
+	 * @return a copy of this endpoint, with the new DTO indexes
+	 */
+	APIEndpoint reindex(final IntUnaryOperator newIndex) {
+		return toBuilder()
+		        .requestBodyDto(requestBodyDto > -1 ? newIndex.applyAsInt(requestBodyDto) : -1)
+		        .responseDto(responseDto > -1 ? newIndex.applyAsInt(responseDto) : -1)
+		        .build();
+	}
+
+	private Builder toBuilder() {
+		return new Builder()
+		        .verbs(verbs)
+		        .paths(paths)
+		        .pathParameters(pathParameters)
+		        .queryParameters(queryParameters)
+		        .rights(rights)
+		        .requestNames(requestNames)
+		        .headers(headers)
+		        .produces(produces)
+		        .consumes(consumes)
+		        .requestBodyDto(requestBodyDto)
+		        .responseDto(responseDto)
+		        .controllerSimpleName(controllerSimpleName)
+		        .controllerClassName(controllerClassName)
+		        .controllerFullPath(controllerFullPath)
+		        .methodName(methodName)
+		        .lineMethodInController(lineMethodInController)
+		        .methodComments(methodComments);
+	}
+
+	/**
+	 * @return like POST, GET
+	 */
+	public List<String> getVerbs() {
+		return verbs;
+	}
+
+	/**
+	 * @return like /aa/bbb/{ccc}, without query parameters
+	 */
+	public List<String> getPaths() {
+		return paths;
+	}
+
+	/**
+	 * @return like /aa/bbb/{ccc}, /aaa/bb/{eee}/ddd?id=1&amp;bool=yes
+	 */
+	public String getFullPaths() {
+		return fullPaths;
+	}
+
+	public List<APIParameter> getPathParameters() {
+		return pathParameters;
+	}
+
+	public List<APIParameter> getQueryParameters() {
+		return queryParameters;
+	}
+
+	/**
+	 * @return like (AA &amp; BB | CC &amp; DD) &amp; (EE), or empty
+	 */
+	public String getRights() {
+		return rights;
+	}
+
+	public List<String> getRequestNames() {
+		return requestNames;
+	}
+
+	public List<String> getHeaders() {
+		return headers;
+	}
+
+	public List<String> getProduces() {
+		return produces;
+	}
+
+	public List<String> getConsumes() {
+		return consumes;
+	}
+
+	/**
+	 * @return index in APIModel.getDtos(), or -1
+	 */
+	public int getRequestBodyDto() {
+		return requestBodyDto;
+	}
+
+	/**
+	 * @return index in APIModel.getDtos(), or -1
+	 */
+	public int getResponseDto() {
+		return responseDto;
+	}
+
+	public String getControllerSimpleName() {
+		return controllerSimpleName;
+	}
+
+	/**
+	 * @return like Class.getName()
+	 */
+	public String getControllerClassName() {
+		return controllerClassName;
+	}
+
+	public String getControllerFullPath() {
+		return controllerFullPath;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public int getLineMethodInController() {
+		return lineMethodInController;
+	}
+
+	public List<String> getMethodComments() {
+		return methodComments;
+	}
+
+	/**
+	 * @return full paths + verbs, to sort the endpoints
+	 */
+	public String getSortKey() {
+		return sortKey;
+	}
+
+	/**
+	 * @return like goto1234, the stable link name of this endpoint in a document
+	 */
+	public String getAnchor() {
+		return anchor;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(sortKey, controllerFullPath, methodName, lineMethodInController);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (APIEndpoint) obj;
+		return verbs.equals(other.verbs)
+		       && paths.equals(other.paths)
+		       && pathParameters.equals(other.pathParameters)
+		       && queryParameters.equals(other.queryParameters)
+		       && rights.equals(other.rights)
+		       && requestNames.equals(other.requestNames)
+		       && headers.equals(other.headers)
+		       && produces.equals(other.produces)
+		       && consumes.equals(other.consumes)
+		       && requestBodyDto == other.requestBodyDto
+		       && responseDto == other.responseDto
+		       && controllerSimpleName.equals(other.controllerSimpleName)
+		       && controllerClassName.equals(other.controllerClassName)
+		       && controllerFullPath.equals(other.controllerFullPath)
+		       && methodName.equals(other.methodName)
+		       && lineMethodInController == other.lineMethodInController
+		       && methodComments.equals(other.methodComments);
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The analysed API, detached from the analysis: the endpoints, sorted by path and verbs, and a flat table of all
+ * the DTO shapes. A DTO is referenced by its index in this table, so a shared or recursive DTO is stored once.
+ * It also has the class names of all the analysed controllers, even the ones without any endpoint.
+ * It's immutable, and it can be saved/loaded with APIModelCodec.
+ */
+public final class APIModel {
+
+	/**
+	 * By path and verbs, then by controller, method name and line, to never depend on the endpoints input order.
+	 */
+	private static final Comparator<APIEndpoint> ENDPOINT_ORDER = Comparator.comparing(APIEndpoint::getSortKey)
+	        .thenComparing(APIEndpoint::getControllerFullPath)
+	        .thenComparing(APIEndpoint::getMethodName)
+	        .thenComparingInt(APIEndpoint::getLineMethodInController);
+
+	public static final APIModel EMPTY = new APIModel(List.of(), List.of());
+
+	private final List<APIEndpoint> endpoints;
+	private final List<APIDto> dtos;
+	private final List<String> controllerClassNames;
+
+	/**
+	 * @param endpoints will be sorted
+	 * @param dtos referenced by the endpoints and by the DTO fields. If some DTOs have the same anchor, the next ones
+	 *        get a suffixed anchor, in the DTOs order.
+	 */
+	public APIModel(final Collection<APIEndpoint> endpoints, final List<APIDto> dtos) {
+		this(endpoints, dtos, Set.of());
+	}
+
+	/**
+	 * @param controllerClassNames the analysed controllers, added to the endpoints controllers
+	 */
+	public APIModel(final Collection<APIEndpoint> endpoints,
+	                final List<APIDto> dtos,
+	                final Collection<String> controllerClassNames) {
+		this.endpoints = endpoints.stream()
+		        .sorted(ENDPOINT_ORDER)
+		        .collect(Collectors.toUnmodifiableList());
+		this.dtos = withUniqueAnchors(dtos);
+		this.controllerClassNames = Stream.concat(controllerClassNames.stream(),
+		        this.endpoints.stream().map(APIEndpoint::getControllerClassName))
+		        .distinct()
+		        .sorted()
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	private static List<APIDto> withUniqueAnchors(final List<APIDto> dtos) {
+		final var anchors = new HashSet<String>(dtos.size());
+		final var result = new ArrayList<APIDto>(dtos.size());
+		for (final var dto : dtos) {
+			var anchor = dto.getAnchor();
+			for (var suffix = 2; anchors.add(anchor) == false; suffix++) {
+				anchor = dto.getAnchor() + "-" + suffix;
+			}
+			result.add(anchor.equals(dto.getAnchor()) ? dto : dto.withAnchor(anchor));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * @return sorted by path and verbs
+	 */
+	public List<APIEndpoint> getEndpoints() {
+		return endpoints;
+	}
+
+	public List<APIDto> getDtos() {
+		return dtos;
+	}
+
+	/**
+	 * @return sorted, with the controllers without any endpoint
+	 */
+	public List<String> getControllerClassNames() {
+		return controllerClassNames;
+	}
+
+	public APIDto getDto(final int index) {
+		return dtos.get(index);
+	}
+
+	public Optional<APIDto> getRequestBodyDto(final APIEndpoint endpoint) {
+		return getOptionalDto(endpoint.getRequestBodyDto());
+	}
+
+	public Optional<APIDto> getResponseDto(final APIEndpoint endpoint) {
+		return getOptionalDto(endpoint.getResponseDto());
+	}
+
+	private Optional<APIDto> getOptionalDto(final int index) {
+		if (index < 0) {
+			return Optional.empty();
+		}
+		return Optional.of(dtos.get(index));
+	}
+
+	public boolean isEmpty() {
+		return endpoints.isEmpty();
+	}
+
+	/**
+	 * @param selectedEndpoints some endpoints of this model
+	 * @return a model with only these endpoints, only their controllers, and only the DTOs they can reach, with new
+	 *         DTO indexes
+	 */
+	public APIModel select(final Collection<APIEndpoint> selectedEndpoints) {
+		final var newIndexes = new int[dtos.size()];
+		Arrays.fill(newIndexes, -1);
+		final var selectedDtos = new ArrayList<APIDto>();
+		final var toWalk = new ArrayDeque<Integer>();
+		final IntConsumer reach = index -> {
+			if (index > -1 && newIndexes[index] == -1) {
+				newIndexes[index] = selectedDtos.size();
+				selectedDtos.add(dtos.get(index));
+				toWalk.add(index);
+			}
+		};
+		for (final var endpoint : selectedEndpoints) {
+			reach.accept(endpoint.getRequestBodyDto());
+			reach.accept(endpoint.getResponseDto());
+			while (toWalk.isEmpty() == false) {
+				dtos.get(toWalk.poll()).getFields().forEach(f -> reach.accept(f.getDtoIndex()));
+			}
+		}
+		final IntUnaryOperator reindex = index -> newIndexes[index];
+		return new APIModel(selectedEndpoints.stream()
+		        .map(endpoint -> endpoint.reindex(reindex))
+		        .collect(Collectors.toUnmodifiableList()),
+		        selectedDtos.stream()
+		                .map(dto -> dto.reindex(reindex))
+		                .collect(Collectors.toUnmodifiableList()));
+	}
+
+	/**
+	 * The structurally equal DTOs, like the same DTO used by many controllers, are only kept once: the first one.
+	 * @return all the endpoints, controllers and DTOs of the models, in one model
+	 */
+	public static APIModel merge(final Collection<APIModel> models) {
+		if (models.isEmpty()) {
+			return EMPTY;
+		} else if (models.size() == 1) {
+			return models.iterator().next();
+		}
+		final var endpoints = new ArrayList<APIEndpoint>(models.stream().mapToInt(m -> m.endpoints.size()).sum());
+		final var allDtos = new ArrayList<APIDto>(models.stream().mapToInt(m -> m.dtos.size()).sum());
+		for (final var model : models) {
+			final var offset = allDtos.size();
+			final IntUnaryOperator shift = index -> index + offset;
+			model.dtos.forEach(dto -> allDtos.add(dto.reindex(shift)));
+			model.endpoints.forEach(endpoint -> endpoints.add(endpoint.reindex(shift)));
+		}
+
+		final var classes = findEqualDtos(allDtos);
+		final var classIndexes = new HashMap<Integer, Integer>();
+		final var newIndexes = new int[allDtos.size()];
+		final var dtos = new ArrayList<APIDto>();
+		for (var pos = 0; pos < allDtos.size(); pos++) {
+			final var index = classIndexes.putIfAbsent(classes[pos], dtos.size());
+			if (index == null) {
+				newIndexes[pos] = dtos.size();
+				dtos.add(allDtos.get(pos));
+			} else {
+				newIndexes[pos] = index;
+			}
+		}
+		final IntUnaryOperator reindex = index -> newIndexes[index];
+		return new APIModel(endpoints.stream()
+		        .map(endpoint -> endpoint.reindex(reindex))
+		        .collect(Collectors.toUnmodifiableList()),
+		        dtos.stream()
+		                .map(dto -> dto.reindex(reindex))
+		                .collect(Collectors.toUnmodifiableList()),
+		        models.stream()
+		                .flatMap(m -> m.controllerClassNames.stream())
+		                .collect(Collectors.toUnmodifiableSet()));
+	}
+
+	/**
+	 * Two DTOs are equal if they have the same type and fields, and if their sub DTOs are equal, cycles included.
+	 * The DTOs are first grouped by type and fields, then each group is split by the groups of the sub DTOs, until no
+	 * group can be split.
+	 * @return for each DTO index, its group number
+	 */
+	private static int[] findEqualDtos(final List<APIDto> dtos) {
+		final var size = dtos.size();
+		var groups = new int[size];
+		final var shallowGroups = new HashMap<List<Object>, Integer>();
+		for (var pos = 0; pos < size; pos++) {
+			final var dto = dtos.get(pos);
+			final var key = new ArrayList<Object>();
+			key.add(dto.getTypeName());
+			key.add(dto.getQualifiedName());
+			for (final var field : dto.getFields()) {
+				key.add(field.getName());
+				key.add(field.getStratum());
+				key.add(field.getType());
+				key.add(field.hasDto());
+			}
+			groups[pos] = shallowGroups.computeIfAbsent(key, k -> shallowGroups.size());
+		}
+
+		var groupCount = shallowGroups.size();
+		while (true) {
+			final var splitGroups = new HashMap<List<Integer>, Integer>();
+			final var split = new int[size];
+			for (var pos = 0; pos < size; pos++) {
+				final var key = new ArrayList<Integer>();
+				key.add(groups[pos]);
+				for (final var field : dtos.get(pos).getFields()) {
+					if (field.hasDto()) {
+						key.add(groups[field.getDtoIndex()]);
+					}
+				}
+				split[pos] = splitGroups.computeIfAbsent(key, k -> splitGroups.size());
+			}
+			if (splitGroups.size() == groupCount) {
+				return groups;
+			}
+			groups = split;
+			groupCount = splitGroups.size();
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(endpoints, dtos, controllerClassNames);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (APIModel) obj;
+		return endpoints.equals(other.endpoints)
+		       && dtos.equals(other.dtos)
+		       && controllerClassNames.equals(other.controllerClassNames);
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum;
+
+/**
+ * Compact, versioned, binary snapshot of an APIModel:
+ * "SARD" magic, format version, then a table of all the distinct strings, and the DTOs, endpoints and controller
+ * class names as string table references. All the numbers are unsigned varints (LEB128). A DTO index is stored +1
+ * (0 for none).
+ */
+public final class APIModelCodec {
+
+	private static final byte[] MAGIC = "SARD".getBytes(UTF_8);
+	public static final int VERSION = 4;
+
+	private static final Stratum[] STRATUMS = Stratum.values();
+	private static final int FLAG_REQUIRED = 1;
+	private static final int FLAG_DEFAULT_VALUE = 2;
+
+	private APIModelCodec() {
+	}
+
+	public static void write(final APIModel model, final OutputStream outputStream) throws IOException {
+		final var body = new Writer();
+		body.writeModel(model);
+
+		final var header = new Writer();
+		header.out.write(MAGIC);
+		header.writeVarInt(VERSION);
+		header.writeVarInt(body.strings.size());
+		for (final var value : body.strings) {
+			final var bytes = value.getBytes(UTF_8);
+			header.writeVarInt(bytes.length);
+			header.out.write(bytes);
+		}
+		header.out.writeTo(outputStream);
+		body.out.writeTo(outputStream);
+		outputStream.flush();
+	}
+
+	public static void write(final APIModel model, final Path file) throws IOException {
+		try (final var out = new BufferedOutputStream(Files.newOutputStream(file, CREATE, TRUNCATE_EXISTING, WRITE))) {
+			write(model, out);
+		}
+	}
+
+	/**
+	 * @param buffer from its current position
+	 */
+	public static APIModel read(final ByteBuffer buffer) throws IOException {
+		try {
+			return new Reader(buffer).readModel();
+		} catch (final BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+		               | IllegalArgumentException e) {
+			throw new IOException("Invalid API model file", e);
+		}
+	}
+
+	/**
+	 * Memory-mapped read: the file is not copied in heap, only the model is created.
+	 */
+	public static APIModel read(final Path file) throws IOException {
+		try (final var channel = FileChannel.open(file, READ)) {
+			return read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Fully read the stream, but don't close it.
+	 */
+	public static APIModel read(final InputStream inputStream) throws IOException {
+		return read(ByteBuffer.wrap(inputStream.readAllBytes()));
+	}
+
+	public static byte[] toBytes(final APIModel model) {
+		final var out = new ByteArrayOutputStream();
+		try {
+			write(model, out);
+		} catch (final IOException e) {
+			throw new IllegalStateException("Can't write in memory", e);
+		}
+		return out.toByteArray();
+	}
+
+	private static class Writer {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		final List<String> strings = new ArrayList<>();
+		final Map<String, Integer> stringIndexes = new HashMap<>();
+
+		void writeVarInt(final int value) {
+			var v = value;
+			while ((v & ~0x7F) != 0) {
+				out.write(v & 0x7F | 0x80);
+				v >>>= 7;
+			}
+			out.write(v);
+		}
+
+		void writeString(final String value) {
+			writeVarInt(stringIndexes.computeIfAbsent(value, v -> {
+				strings.add(v);
+				return strings.size() - 1;
+			}));
+		}
+
+		void writeStrings(final List<String> values) {
+			writeVarInt(values.size());
+			values.forEach(this::writeString);
+		}
+
+		void writeParameters(final List<APIParameter> parameters) {
+			writeVarInt(parameters.size());
+			for (final var p : parameters) {
+				writeString(p.getName());
+				writeString(p.getType());
+				final var defaultValue = p.getDefaultValue();
+				writeVarInt((p.isRequired() ? FLAG_REQUIRED : 0) | (defaultValue.isPresent() ? FLAG_DEFAULT_VALUE : 0));
+				defaultValue.ifPresent(this::writeString);
+			}
+		}
+
+		void writeModel(final APIModel model) {
+			writeVarInt(model.getDtos().size());
+			for (final var dto : model.getDtos()) {
+				writeString(dto.getTypeName());
+				writeString(dto.getQualifiedName());
+				writeVarInt(dto.getFields().size());
+				for (final var field : dto.getFields()) {
+					writeString(field.getName());
+					writeVarInt(field.getStratum().ordinal());
+					writeString(field.getType());
+					writeVarInt(field.getDtoIndex() + 1);
+				}
+			}
+
+			writeVarInt(model.getEndpoints().size());
+			for (final var e : model.getEndpoints()) {
+				writeStrings(e.getVerbs());
+				writeStrings(e.getPaths());
+				writeParameters(e.getPathParameters());
+				writeParameters(e.getQueryParameters());
+				writeString(e.getRights());
+				writeStrings(e.getRequestNames());
+				writeStrings(e.getHeaders());
+				writeStrings(e.getProduces());
+				writeStrings(e.getConsumes());
+				writeVarInt(e.getRequestBodyDto() + 1);
+				writeVarInt(e.getResponseDto() + 1);
+				writeString(e.getControllerSimpleName());
+				writeString(e.getControllerClassName());
+				writeString(e.getControllerFullPath());
+				writeString(e.getMethodName());
+				writeVarInt(e.getLineMethodInController());
+				writeStrings(e.getMethodComments());
+			}
+
+			writeStrings(model.getControllerClassNames());
+		}
+	}
+
+	private static class Reader {
+		final ByteBuffer buffer;
+		String[] strings;
+
+		Reader(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int readVarInt() throws IOException {
+			var value = 0;
+			for (var shift = 0; shift < 32; shift += 7) {
+				final var b = buffer.get();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Invalid varint in API model file");
+		}
+
+		String readString() throws IOException {
+			return strings[readVarInt()];
+		}
+
+		List<String> readStrings() throws IOException {
+			final var size = readVarInt();
+			final var result = new ArrayList<String>(size);
+			for (var pos = 0; pos < size; pos++) {
+				result.add(readString());
+			}
+			return result;
+		}
+
+		List<APIParameter> readParameters() throws IOException {
+			final var size = readVarInt();
+			final var result = new ArrayList<APIParameter>(size);
+			for (var pos = 0; pos < size; pos++) {
+				final var name = readString();
+				final var type = readString();
+				final var flags = readVarInt();
+				final var defaultValue = (flags & FLAG_DEFAULT_VALUE) != 0 ? readString() : null;
+				result.add(new APIParameter(name, type, (flags & FLAG_REQUIRED) != 0, defaultValue));
+			}
+			return result;
+		}
+
+		APIModel readModel() throws IOException {
+			final var magic = new byte[MAGIC.length];
+			buffer.get(magic);
+			for (var pos = 0; pos < MAGIC.length; pos++) {
+				if (magic[pos] != MAGIC[pos]) {
+					throw new IOException("Not an API model file");
+				}
+			}
+			final var version = readVarInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported API model file version: " + version);
+			}
+
+			strings = new String[readVarInt()];
+			for (var pos = 0; pos < strings.length; pos++) {
+				final var bytes = new byte[readVarInt()];
+				buffer.get(bytes);
+				strings[pos] = new String(bytes, UTF_8);
+			}
+
+			final var dtoCount = readVarInt();
+			final var dtos = new ArrayList<APIDto>(dtoCount);
+			for (var pos = 0; pos < dtoCount; pos++) {
+				final var typeName = readString();
+				final var qualifiedName = readString();
+				final var fieldCount = readVarInt();
+				final var fields = new ArrayList<APIDtoField>(fieldCount);
+				for (var f = 0; f < fieldCount; f++) {
+					fields.add(new APIDtoField(readString(), STRATUMS[readVarInt()], readString(), readVarInt() - 1));
+				}
+				dtos.add(new APIDto(typeName, qualifiedName, fields));
+			}
+
+			final var endpointCount = readVarInt();
+			final var endpoints = new ArrayList<APIEndpoint>(endpointCount);
+			for (var pos = 0; pos < endpointCount; pos++) {
+				endpoints.add(new APIEndpoint.Builder()
+				        .verbs(readStrings())
+				        .paths(readStrings())
+				        .pathParameters(readParameters())
+				        .queryParameters(readParameters())
+				        .rights(readString())
+				        .requestNames(readStrings())
+				        .headers(readStrings())
+				        .produces(readStrings())
+				        .consumes(readStrings())
+				        .requestBodyDto(readVarInt() - 1)
+				        .responseDto(readVarInt() - 1)
+				        .controllerSimpleName(readString())
+				        .controllerClassName(readString())
+				        .controllerFullPath(readString())
+				        .methodName(readString())
+				        .lineMethodInController(readVarInt())
+				        .methodComments(readStrings())
+				        .build());
+			}
+			return new APIModel(endpoints, dtos, readStrings());
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * An URL path or query parameter of an endpoint.
+ */
+public final class APIParameter {
+
+	private final String name;
+	private final String type;
+	private final boolean required;
+	private final String defaultValue;
+
+	/**
+	 * @param type the simple name of the parameter class
+	 * @param defaultValue can be null
+	 */
+	public APIParameter(final String name, final String type, final boolean required, final String defaultValue) {
+		this.name = Objects.requireNonNull(name, "\"name\" can't to be null");
+		this.type = Objects.requireNonNull(type, "\"type\" can't to be null");
+		this.required = required;
+		this.defaultValue = defaultValue;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the simple name of the parameter class
+	 */
+	public String getType() {
+		return type;
+	}
+
+	public boolean isRequired() {
+		return required;
+	}
+
+	public Optional<String> getDefaultValue() {
+		return Optional.ofNullable(defaultValue);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, type, required, defaultValue);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final var other = (APIParameter) obj;
+		return name.equals(other.name)
+		       && type.equals(other.type)
+		       && required == other.required
+		       && Objects.equals(defaultValue, other.defaultValue);
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class APIModelBuilderTest {
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testToControllerFullPath() {
+		final var controllerFile = tempDir.resolve("src/main/java/demo/ItemController.java").toFile();
+		assertEquals("src/main/java/demo/ItemController.java", APIModelBuilder.toControllerFullPath(
+		        "demo.ItemController", Optional.of(controllerFile), tempDir));
+		assertEquals("project/src/main/java/demo/ItemController.java", APIModelBuilder.toControllerFullPath(
+		        "demo.ItemController", Optional.of(tempDir.resolve("project").resolve(
+		                "src/main/java/demo/ItemController.java").toFile()), tempDir));
+		assertEquals("demo/ItemController", APIModelBuilder.toControllerFullPath(
+		        "demo.ItemController", Optional.empty(), tempDir));
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.ITEM_CONTROLLER;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.STATUS_CONTROLLER;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class APIModelFileTest {
+
+	@TempDir
+	Path tempDir;
+
+	private APIModel model;
+	private Path classesDirectory;
+
+	@BeforeEach
+	void init() throws IOException {
+		model = APIModelSamples.create();
+		final var sourceDirectory = tempDir.resolve("src");
+		classesDirectory = tempDir.resolve("classes");
+		Files.createDirectories(sourceDirectory.resolve("demo"));
+		Files.createDirectories(classesDirectory);
+
+		final var args = new ArrayList<>(List.of("-d", classesDirectory.toString()));
+		for (final var className : List.of(ITEM_CONTROLLER, STATUS_CONTROLLER)) {
+			final var simpleName = className.substring(className.lastIndexOf('.') + 1);
+			args.add(Files.writeString(sourceDirectory.resolve("demo").resolve(simpleName + ".java"),
+			        "package demo; public class " + simpleName + " {}", UTF_8).toString());
+		}
+		assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(String[]::new)));
+	}
+
+	private APIModel selectController(final String controllerClassName) {
+		return model.select(model.getEndpoints().stream()
+		        .filter(e -> e.getControllerClassName().equals(controllerClassName))
+		        .collect(Collectors.toUnmodifiableList()));
+	}
+
+	private void writeModelFile(final Path classes, final APIModel model) throws IOException {
+		final var modelFile = classes.resolve(APIModelFile.RESOURCE_NAME);
+		Files.createDirectories(modelFile.getParent());
+		APIModelCodec.write(model, modelFile);
+	}
+
+	/**
+	 * Move the StatusController class in a jar, with its own model file.
+	 */
+	private Path createStatusControllerJar() throws IOException {
+		final var jar = tempDir.resolve("status.jar");
+		final var classEntry = STATUS_CONTROLLER.replace('.', '/') + ".class";
+		try (final var out = new JarOutputStream(Files.newOutputStream(jar))) {
+			out.putNextEntry(new JarEntry(classEntry));
+			out.write(Files.readAllBytes(classesDirectory.resolve(classEntry)));
+			out.closeEntry();
+			out.putNextEntry(new JarEntry(APIModelFile.RESOURCE_NAME));
+			APIModelCodec.write(selectController(STATUS_CONTROLLER), out);
+			out.closeEntry();
+		}
+		Files.delete(classesDirectory.resolve(classEntry));
+		return jar;
+	}
+
+	private Optional<APIModel> readFromCodeSources(final Path... classPath) throws IOException {
+		final var urls = new URL[classPath.length];
+		for (var pos = 0; pos < classPath.length; pos++) {
+			urls[pos] = classPath[pos].toUri().toURL();
+		}
+		try (final var classLoader = new URLClassLoader(urls, null)) {
+			return APIModelFile.readFromCodeSources(List.of(
+			        classLoader.loadClass(ITEM_CONTROLLER),
+			        classLoader.loadClass(STATUS_CONTROLLER)));
+		} catch (final ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	void testReadFromCodeSources() throws IOException {
+		writeModelFile(classesDirectory, model);
+		/**
+		 * The two controllers share the same classes directory: its model file is read once.
+		 */
+		assertEquals(Optional.of(model), readFromCodeSources(classesDirectory));
+	}
+
+	@Test
+	void testReadFromCodeSources_jar() throws IOException {
+		writeModelFile(classesDirectory, selectController(ITEM_CONTROLLER));
+		final var jar = createStatusControllerJar();
+
+		final var merged = readFromCodeSources(classesDirectory, jar).orElseThrow();
+		assertEquals(model.getEndpoints().size(), merged.getEndpoints().size());
+		assertEquals(Set.of(ITEM_CONTROLLER, STATUS_CONTROLLER), APIModelFile.getControllerClassNames(merged));
+
+		/**
+		 * The jar is not kept open
+		 */
+		Files.delete(jar);
+	}
+
+	@Test
+	void testReadFromCodeSources_noModelFile() throws IOException {
+		assertEquals(Optional.empty(), readFromCodeSources(classesDirectory));
+
+		final var jar = createStatusControllerJar();
+		writeModelFile(classesDirectory, selectController(ITEM_CONTROLLER));
+		final var merged = readFromCodeSources(classesDirectory, jar).orElseThrow();
+		assertEquals(Set.of(ITEM_CONTROLLER, STATUS_CONTROLLER), APIModelFile.getControllerClassNames(merged));
+
+		Files.delete(classesDirectory.resolve(APIModelFile.RESOURCE_NAME));
+		final var statusOnly = readFromCodeSources(classesDirectory, jar).orElseThrow();
+		assertEquals(Set.of(STATUS_CONTROLLER), APIModelFile.getControllerClassNames(statusOnly));
+	}
+
+	@Test
+	void testReadFromCodeSources_invalidModelFile() throws IOException {
+		final var modelFile = classesDirectory.resolve(APIModelFile.RESOURCE_NAME);
+		Files.createDirectories(modelFile.getParent());
+		Files.writeString(modelFile, "Not a model", UTF_8);
+		assertEquals(Optional.empty(), readFromCodeSources(classesDirectory));
+	}
+
+	@Test
+	void testGetControllerClassNames() {
+		assertEquals(Set.of(ITEM_CONTROLLER, STATUS_CONTROLLER), APIModelFile.getControllerClassNames(model));
+		assertEquals(Set.of(STATUS_CONTROLLER),
+		        APIModelFile.getControllerClassNames(selectController(STATUS_CONTROLLER)));
+		assertTrue(APIModelFile.getControllerClassNames(APIModel.EMPTY).isEmpty());
+
+		/**
+		 * A controller without any endpoint is still in the model
+		 */
+		final var withEmpty = new APIModel(model.getEndpoints(), model.getDtos(), List.of("demo.EmptyController"));
+		assertEquals(Set.of("demo.EmptyController", ITEM_CONTROLLER, STATUS_CONTROLLER),
+		        APIModelFile.getControllerClassNames(withEmpty));
+	}
+
+}
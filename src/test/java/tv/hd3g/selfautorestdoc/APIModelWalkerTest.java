@@ -0,0 +1,291 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+import tv.hd3g.selfautorestdoc.model.APIParameter;
+
+class APIModelWalkerTest {
+
+	private APIModel model;
+	private Recorder recorder;
+
+	@BeforeEach
+	void init() {
+		model = APIModelSamples.create();
+		recorder = new Recorder();
+	}
+
+	/**
+	 * Keep all the events, as short texts.
+	 */
+	private static class Recorder implements APIDocVisitor {
+		final List<String> events = new ArrayList<>();
+		String rejectedMethodName;
+
+		@Override
+		public void startDocument(final APIModel model) {
+			events.add("startDocument");
+		}
+
+		@Override
+		public void summaryEntry(final APIEndpoint endpoint) {
+			events.add("summaryEntry " + endpoint.getMethodName());
+		}
+
+		@Override
+		public void endSummary() {
+			events.add("endSummary");
+		}
+
+		@Override
+		public boolean acceptEndpoint(final APIEndpoint endpoint) {
+			events.add("acceptEndpoint " + endpoint.getMethodName());
+			return endpoint.getMethodName().equals(rejectedMethodName) == false;
+		}
+
+		@Override
+		public void startEndpoint(final APIEndpoint endpoint) {
+			events.add("startEndpoint " + endpoint.getMethodName());
+		}
+
+		@Override
+		public void parameter(final ParameterKind kind, final APIParameter parameter, final int index) {
+			events.add("parameter " + kind + " " + parameter.getName() + " " + index);
+		}
+
+		@Override
+		public void endParameters(final APIEndpoint endpoint) {
+			events.add("endParameters");
+		}
+
+		@Override
+		public void startDto(final DtoRole role,
+		                     final int dtoIndex,
+		                     final APIDto dto,
+		                     final List<String> mediaTypes) {
+			events.add("startDto " + role + " " + dtoIndex + " " + dto.getTypeName() + " " + mediaTypes);
+		}
+
+		@Override
+		public void dtoReference(final DtoRole role,
+		                         final int dtoIndex,
+		                         final APIDto dto,
+		                         final List<String> mediaTypes) {
+			events.add("dtoReference " + role + " " + dtoIndex + " " + dto.getTypeName() + " " + mediaTypes);
+		}
+
+		@Override
+		public void modelReference(final APIDtoField field, final APIDto dto) {
+			events.add("modelReference " + field.getName() + " " + dto.getTypeName());
+		}
+
+		@Override
+		public void startField(final APIDtoField field, final int depth, final boolean last, final boolean expanded) {
+			events.add("startField " + field.getName() + " " + depth + (last ? " last" : "")
+			           + (expanded ? " expanded" : ""));
+		}
+
+		@Override
+		public void endField(final APIDtoField field, final int depth, final boolean last, final boolean expanded) {
+			events.add("endField " + field.getName());
+		}
+
+		@Override
+		public void endDto(final DtoRole role, final int dtoIndex, final APIDto dto) {
+			events.add("endDto " + role + " " + dtoIndex);
+		}
+
+		@Override
+		public void endEndpoint(final APIEndpoint endpoint) {
+			events.add("endEndpoint " + endpoint.getMethodName());
+		}
+
+		@Override
+		public void startModels() {
+			events.add("startModels");
+		}
+
+		@Override
+		public void endModels() {
+			events.add("endModels");
+		}
+
+		@Override
+		public void endDocument() {
+			events.add("endDocument");
+		}
+	}
+
+	private APIEndpoint getEndpoint(final String methodName) {
+		return model.getEndpoints().stream()
+		        .filter(e -> e.getMethodName().equals(methodName))
+		        .findFirst()
+		        .orElseThrow();
+	}
+
+	@Test
+	void testWalkEndpoint() throws IOException {
+		APIModelWalker.walkEndpoint(model, new BitSet(), getEndpoint("listItems"), recorder);
+		/**
+		 * Item is expanded in Page, but not in itself
+		 */
+		assertEquals(List.of(
+		        "acceptEndpoint listItems",
+		        "startEndpoint listItems",
+		        "parameter QUERY page 0",
+		        "endParameters",
+		        "startDto RESPONSE 1 Page [application/json]",
+		        "startField items 0 expanded",
+		        "startField children 1",
+		        "endField children",
+		        "startField id 1",
+		        "endField id",
+		        "startField tags 1 last",
+		        "endField tags",
+		        "endField items",
+		        "startField total 0 last",
+		        "endField total",
+		        "endDto RESPONSE 1",
+		        "endEndpoint listItems"), recorder.events);
+	}
+
+	@Test
+	void testWalkEndpoint_notAccepted() throws IOException {
+		recorder.rejectedMethodName = "listItems";
+		APIModelWalker.walkEndpoint(model, new BitSet(), getEndpoint("listItems"), recorder);
+		assertEquals(List.of("acceptEndpoint listItems"), recorder.events);
+	}
+
+	@Test
+	void testWalk() throws IOException {
+		APIModelWalker.walk(model, recorder);
+		final var events = recorder.events;
+		assertEquals(List.of(
+		        "startDocument",
+		        "summaryEntry getItem",
+		        "summaryEntry listItems",
+		        "summaryEntry createItem",
+		        "summaryEntry status",
+		        "endSummary",
+		        "acceptEndpoint getItem"), events.subList(0, 7));
+		assertEquals("endDocument", events.get(events.size() - 1));
+		assertTrue(events.contains("startEndpoint status"));
+		assertTrue(events.contains("startDto REQUEST_BODY 0 Item [application/json]"));
+		assertTrue(events.stream().noneMatch(e -> e.startsWith("dtoReference")
+		                                          || e.startsWith("modelReference")
+		                                          || e.endsWith("Models")));
+
+		/**
+		 * Each endpoint section is the same as a walkEndpoint
+		 */
+		final var sections = new Recorder();
+		for (final var endpoint : model.getEndpoints()) {
+			APIModelWalker.walkEndpoint(model, new BitSet(), endpoint, sections);
+		}
+		assertEquals(sections.events, events.subList(6, events.size() - 1));
+	}
+
+	@Test
+	void testWalk_notAccepted() throws IOException {
+		recorder.rejectedMethodName = "status";
+		APIModelWalker.walk(model, recorder);
+		final var events = recorder.events;
+		assertEquals(List.of("endEndpoint createItem", "acceptEndpoint status", "endDocument"),
+		        events.subList(events.size() - 3, events.size()));
+		assertTrue(events.contains("summaryEntry status"));
+	}
+
+	@Test
+	void testFindSharedDtos() {
+		final var shared = new BitSet();
+		shared.set(0);
+		/**
+		 * Item: 4 uses, 3 fields. Page: only one use.
+		 */
+		assertEquals(shared, APIModelWalker.findSharedDtos(model, 3));
+		assertEquals(new BitSet(), APIModelWalker.findSharedDtos(model, 4));
+		assertEquals(new BitSet(), APIModelWalker.findSharedDtos(model, 0));
+	}
+
+	@Test
+	void testWalk_sharedDtos() throws IOException {
+		APIModelWalker.walk(model, APIModelWalker.findSharedDtos(model, 3), recorder);
+		assertEquals(List.of(
+		        "startDocument",
+		        "summaryEntry getItem",
+		        "summaryEntry listItems",
+		        "summaryEntry createItem",
+		        "summaryEntry status",
+		        "endSummary",
+		        "acceptEndpoint getItem",
+		        "startEndpoint getItem",
+		        "parameter PATH id 0",
+		        "endParameters",
+		        "dtoReference RESPONSE 0 Item [application/json]",
+		        "endEndpoint getItem",
+		        "acceptEndpoint listItems",
+		        "startEndpoint listItems",
+		        "parameter QUERY page 0",
+		        "endParameters",
+		        "startDto RESPONSE 1 Page [application/json]",
+		        "modelReference items Item",
+		        "startField items 0",
+		        "endField items",
+		        "startField total 0 last",
+		        "endField total",
+		        "endDto RESPONSE 1",
+		        "endEndpoint listItems",
+		        "acceptEndpoint createItem",
+		        "startEndpoint createItem",
+		        "endParameters",
+		        "dtoReference REQUEST_BODY 0 Item [application/json]",
+		        "dtoReference RESPONSE 0 Item [application/json]",
+		        "endEndpoint createItem",
+		        "acceptEndpoint status",
+		        "startEndpoint status",
+		        "endParameters",
+		        "endEndpoint status",
+		        "startModels",
+		        "startDto MODEL 0 Item []",
+		        "startField children 0",
+		        "endField children",
+		        "startField id 0",
+		        "endField id",
+		        "startField tags 0 last",
+		        "endField tags",
+		        "endDto MODEL 0",
+		        "endModels",
+		        "endDocument"), recorder.events);
+	}
+
+}
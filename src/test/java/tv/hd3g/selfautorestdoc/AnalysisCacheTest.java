@@ -0,0 +1,143 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.AnalysisCache.CLASS_DEPENDENCY_PREFIX;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.ITEM_CONTROLLER;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.AnalysisCache.ControllerRecord;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class AnalysisCacheTest {
+
+	private static final String CONTROLLER_PATH = "src/main/java/demo/ItemController.java";
+	private static final String DTO_PATH = "src/main/java/demo/Item.java";
+
+	@TempDir
+	Path tempDir;
+
+	private AnalysisCache cache;
+	private Map<String, String> sourceHashes;
+	private APIModel model;
+
+	@BeforeEach
+	void init() {
+		cache = new AnalysisCache(tempDir.toFile());
+		sourceHashes = Map.of(CONTROLLER_PATH, "aa", DTO_PATH, "bb");
+		model = APIModelSamples.create();
+	}
+
+	@Test
+	void testComputeKey() {
+		final var key = cache.computeKey(List.of(String.class), sourceHashes);
+		assertEquals(key, cache.computeKey(List.of(String.class), new TreeMap<>(sourceHashes)));
+		assertNotEquals(key, cache.computeKey(List.of(String.class, Integer.class), sourceHashes));
+		assertNotEquals(key, cache.computeKey(List.of(String.class), Map.of(CONTROLLER_PATH, "aa")));
+		assertNotEquals(key, cache.computeKey(List.of(String.class), Map.of(CONTROLLER_PATH, "aa", DTO_PATH, "cc")));
+	}
+
+	@Test
+	void testLoad() {
+		cache.store("key", List.of(new ControllerRecord(ITEM_CONTROLLER, sourceHashes, model)));
+
+		final var loaded = cache.load("key");
+		assertTrue(loaded.isPresent());
+		assertEquals(1, loaded.get().size());
+		final var record = loaded.get().get(0);
+		assertEquals(ITEM_CONTROLLER, record.getControllerClassName());
+		assertEquals(sourceHashes, record.getDependencies());
+		assertEquals(model, record.getModel());
+	}
+
+	@Test
+	void testLoad_otherKey() {
+		cache.store("key", List.of(new ControllerRecord(ITEM_CONTROLLER, sourceHashes, model)));
+
+		assertTrue(cache.load("otherKey").isEmpty());
+		assertEquals(model, cache.loadRecords().get(ITEM_CONTROLLER).getModel());
+	}
+
+	@Test
+	void testLoad_noCache() {
+		assertTrue(cache.load("key").isEmpty());
+		assertTrue(cache.loadRecords().isEmpty());
+	}
+
+	@Test
+	void testLoad_invalidCache() throws IOException {
+		Files.writeString(tempDir.resolve("analysis.bin"), "Not an analysis cache");
+		assertTrue(cache.load("key").isEmpty());
+		assertTrue(cache.loadRecords().isEmpty());
+	}
+
+	@Test
+	void testIsUpToDate() {
+		final var record = new ControllerRecord(ITEM_CONTROLLER, sourceHashes, model);
+		assertTrue(record.isUpToDate(sourceHashes));
+		assertTrue(record.isUpToDate(Map.of(CONTROLLER_PATH, "aa", DTO_PATH, "bb", "src/main/java/demo/Other.java",
+		        "cc")));
+		assertFalse(record.isUpToDate(Map.of(CONTROLLER_PATH, "aa", DTO_PATH, "cc")));
+		assertFalse(record.isUpToDate(Map.of(CONTROLLER_PATH, "aa")));
+	}
+
+	@Test
+	void testIsUpToDate_classChanged() {
+		final var dependencies = new HashMap<>(sourceHashes);
+		dependencies.putAll(AnalysisCache.hashClassFiles(List.of(APIModel.class.getName())));
+		assertTrue(new ControllerRecord(ITEM_CONTROLLER, dependencies, model).isUpToDate(sourceHashes));
+
+		dependencies.put(CLASS_DEPENDENCY_PREFIX + APIModel.class.getName(), "00");
+		assertFalse(new ControllerRecord(ITEM_CONTROLLER, dependencies, model).isUpToDate(sourceHashes));
+
+		dependencies.put(CLASS_DEPENDENCY_PREFIX + "demo.Missing", "00");
+		assertFalse(new ControllerRecord(ITEM_CONTROLLER, dependencies, model).isClassesUpToDate());
+	}
+
+	@Test
+	void testLoad_classChanged() {
+		final var classHashes = AnalysisCache.hashClassFiles(List.of(APIModel.class.getName(), "demo.Missing"));
+		assertEquals(Map.of(CLASS_DEPENDENCY_PREFIX + APIModel.class.getName(),
+		        AnalysisCache.hashClassFile(APIModel.class.getName()).orElseThrow()), classHashes);
+
+		final var dependencies = new HashMap<>(sourceHashes);
+		dependencies.putAll(classHashes);
+		cache.store("key", List.of(new ControllerRecord(ITEM_CONTROLLER, dependencies, model)));
+		assertTrue(cache.load("key").isPresent());
+
+		dependencies.put(CLASS_DEPENDENCY_PREFIX + APIModel.class.getName(), "00");
+		cache.store("key", List.of(new ControllerRecord(ITEM_CONTROLLER, dependencies, model)));
+		assertTrue(cache.load("key").isEmpty());
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import spoon.reflect.reference.CtTypeReference;
+
+import tv.hd3g.selfautorestdoc.DtoAnalyser.DtoShape;
+
+class DtoShapeCacheTest {
+
+	@Mock
+	private CtTypeReference<Object> pageType;
+	@Mock
+	private CtTypeReference<Object> itemType;
+
+	private DtoShapeCache shapeCache;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		when(pageType.getQualifiedName()).thenReturn("demo.Page");
+		when(pageType.getActualTypeArguments()).thenReturn(List.of(itemType));
+		when(itemType.getQualifiedName()).thenReturn("demo.Item");
+		when(itemType.getActualTypeArguments()).thenReturn(List.of());
+		shapeCache = new DtoShapeCache();
+	}
+
+	@Test
+	void testGetKey() {
+		assertEquals("response:demo.Item", DtoShapeCache.getKey(itemType, true));
+		assertEquals("request:demo.Item", DtoShapeCache.getKey(itemType, false));
+		assertEquals("response:demo.Page<demo.Item>", DtoShapeCache.getKey(pageType, true));
+	}
+
+	@Test
+	void testShare() {
+		final var key = DtoShapeCache.getKey(pageType, true);
+		assertNull(shapeCache.get(key));
+
+		final var shape = new DtoShape("Page", "demo.Page");
+		assertSame(shape, shapeCache.putIfAbsent(key, shape));
+		assertSame(shape, shapeCache.putIfAbsent(key, new DtoShape("Page", "demo.Page")));
+		assertSame(shape, shapeCache.get(key));
+		assertSame(shape, shapeCache.get(key));
+		assertNull(shapeCache.get(DtoShapeCache.getKey(pageType, false)));
+
+		assertEquals(1, shapeCache.size());
+		assertEquals(2, shapeCache.getHitCount());
+		assertEquals(2, shapeCache.getMissCount());
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.ExportEvents.Render;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class ExportEventsTest {
+
+	private static final String MODEL_BUILD = "tv.hd3g.selfautorestdoc.ModelBuild";
+	private static final String CONTROLLER_ANALYSIS = "tv.hd3g.selfautorestdoc.ControllerAnalysis";
+	private static final String DTO_EXPANSION = "tv.hd3g.selfautorestdoc.DtoExpansion";
+	private static final String RENDER = "tv.hd3g.selfautorestdoc.Render";
+
+	@TempDir
+	Path tempDir;
+
+	private APIModel model;
+
+	@BeforeEach
+	void init() {
+		model = APIModelSamples.create();
+	}
+
+	@FunctionalInterface
+	private interface Action {
+		void run() throws IOException;
+	}
+
+	/**
+	 * @return the SelfAutoRESTDoc events of a recording made during the action
+	 */
+	private List<RecordedEvent> record(final Action action) throws IOException {
+		final var file = tempDir.resolve("export.jfr");
+		try (final var recording = new Recording()) {
+			for (final var name : List.of(MODEL_BUILD, CONTROLLER_ANALYSIS, DTO_EXPANSION, RENDER)) {
+				recording.enable(name).withThreshold(Duration.ZERO);
+			}
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+		}
+		return RecordingFile.readAllEvents(file).stream()
+		        .filter(e -> e.getEventType().getName().startsWith("tv.hd3g.selfautorestdoc."))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	private static List<RecordedEvent> filter(final List<RecordedEvent> events, final String name) {
+		return events.stream()
+		        .filter(e -> e.getEventType().getName().equals(name))
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	@Test
+	void testNotRecorded() {
+		final var event = new Render();
+		event.begin();
+		event.end();
+		assertFalse(event.shouldCommit());
+	}
+
+	@Test
+	void testRender() throws IOException {
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		selfAutoRESTDoc.setFormats(List.of("markdown", "html"));
+		final var outputFile = tempDir.resolve("API.md").toFile();
+
+		final var events = record(() -> selfAutoRESTDoc.writeAll(model, outputFile, "/blob/master"));
+		final var renders = filter(events, RENDER);
+		assertEquals(events, renders);
+		assertEquals(Set.of("markdown", "html"), renders.stream()
+		        .map(e -> e.getString("format"))
+		        .collect(Collectors.toUnmodifiableSet()));
+		assertEquals(Set.of(outputFile.getPath(), tempDir.resolve("API.html").toFile().getPath()), renders.stream()
+		        .map(e -> e.getString("output"))
+		        .collect(Collectors.toUnmodifiableSet()));
+		assertTrue(renders.stream().allMatch(e -> e.getInt("endpointCount") == model.getEndpoints().size()));
+
+		final var singleFile = tempDir.resolve("single.md").toFile();
+		final var singleEvents = record(() -> selfAutoRESTDoc.writeToMD(model, singleFile, "/blob/master"));
+		assertEquals(1, singleEvents.size());
+		assertEquals("markdown", singleEvents.get(0).getString("format"));
+		assertEquals(singleFile.getPath(), singleEvents.get(0).getString("output"));
+	}
+
+	@Test
+	void testRender_sharded() throws IOException {
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		selfAutoRESTDoc.setSharded(true);
+		final var outputFile = tempDir.resolve("API.md").toFile();
+
+		/**
+		 * One for the index and all the shards
+		 */
+		final var renders = filter(record(() -> selfAutoRESTDoc.writeAll(model, outputFile, "/blob/master")), RENDER);
+		assertEquals(1, renders.size());
+		assertEquals(outputFile.getPath(), renders.get(0).getString("output"));
+	}
+
+	@Test
+	void testAnalysis() throws IOException {
+		try (final var project = new SyntheticAPIProject(new SyntheticAPIGenerator(15).endpointsByController(5),
+		        tempDir.resolve("project"))) {
+			final var events = record(() -> project.getAPIModel(selfAutoRESTDoc -> {
+			}));
+
+			final var modelBuilds = filter(events, MODEL_BUILD);
+			assertEquals(1, modelBuilds.size());
+			assertTrue(modelBuilds.get(0).getInt("inputCount") > 0);
+			assertTrue(modelBuilds.get(0).getInt("typeCount") > 0);
+
+			final var controllers = filter(events, CONTROLLER_ANALYSIS);
+			final var controllerNames = controllers.stream()
+			        .map(e -> e.getClass("controllerClass").getName())
+			        .collect(Collectors.toUnmodifiableSet());
+			assertEquals(Set.of("synthetic.api.Controller0", "synthetic.api.Controller1", "synthetic.api.Controller2"),
+			        controllerNames);
+			assertTrue(controllers.stream().allMatch(e -> e.getInt("endpointCount") == 5));
+
+			final var dtoExpansions = filter(events, DTO_EXPANSION);
+			assertTrue(dtoExpansions.stream().anyMatch(e -> e.getBoolean("response")));
+			assertTrue(dtoExpansions.stream().allMatch(e -> e.getString("rootType").startsWith("synthetic.api.")
+			                                                 && e.getInt("nodeCount") > 0));
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.ANALYSIS;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.DTO_SHAPE;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.MODEL_BUILD;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.RENDER;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.SORT;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.WRITE;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+class ExportMetricsTest {
+
+	private ExportMetrics metrics;
+
+	@BeforeEach
+	void init() {
+		metrics = new ExportMetrics();
+	}
+
+	private static List<MemoryPoolMXBean> getHeapPools() {
+		return ManagementFactory.getMemoryPoolMXBeans().stream()
+		        .filter(pool -> pool.getType() == MemoryType.HEAP)
+		        .filter(MemoryPoolMXBean::isValid)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	@Test
+	void testMeasure() throws InterruptedException {
+		try (final var sort = metrics.start(SORT)) {
+			try (final var render = metrics.start(RENDER)) {
+				Thread.sleep(5);
+			}
+		}
+		assertEquals("result", metrics.measure(WRITE, () -> "result"));
+
+		assertEquals(1, metrics.getCount(WRITE));
+		assertEquals(1, metrics.getCount(RENDER));
+		assertEquals(1, metrics.getCount(SORT));
+		assertEquals(0, metrics.getCount(MODEL_BUILD));
+		assertTrue(metrics.getDuration(RENDER, TimeUnit.MILLISECONDS) >= 5);
+		final var renderNanos = metrics.getDuration(RENDER, TimeUnit.NANOSECONDS);
+		assertTrue(metrics.getDuration(SORT, TimeUnit.NANOSECONDS) >= renderNanos);
+		assertEquals(0, metrics.getDuration(MODEL_BUILD, TimeUnit.NANOSECONDS));
+	}
+
+	@Test
+	void testMeasure_excluded() throws InterruptedException {
+		try (final var write = metrics.start(WRITE)) {
+			try (final var render = write.startExcluded(RENDER)) {
+				Thread.sleep(50);
+			}
+		}
+
+		assertEquals(1, metrics.getCount(WRITE));
+		assertEquals(1, metrics.getCount(RENDER));
+		assertTrue(metrics.getDuration(RENDER, TimeUnit.MILLISECONDS) >= 50);
+		assertTrue(metrics.getDuration(WRITE, TimeUnit.MILLISECONDS) < 50);
+	}
+
+	@Test
+	void testMeasure_concurrent() {
+		IntStream.range(0, 1000).parallel().forEach(i -> metrics.measure(SORT, () -> i));
+		assertEquals(1000, metrics.getCount(SORT));
+	}
+
+	@Test
+	void testAllocatedBytes() {
+		final var threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean instanceof ThreadMXBean
+		           && ((ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled(),
+		        "Thread allocated memory is not available");
+
+		final var size = 10 * 1024 * 1024;
+		final var array = metrics.measure(RENDER, () -> new byte[size]);
+		assertEquals(size, array.length);
+		assertTrue(metrics.getAllocatedBytes(RENDER) >= size);
+		assertEquals(0, metrics.getAllocatedBytes(WRITE));
+	}
+
+	@Test
+	void testAllocatedBytes_excluded() {
+		final var threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean instanceof ThreadMXBean
+		           && ((ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled(),
+		        "Thread allocated memory is not available");
+
+		final var size = 10 * 1024 * 1024;
+		try (final var write = metrics.start(WRITE)) {
+			try (final var render = write.startExcluded(RENDER)) {
+				assertEquals(size, new byte[size].length);
+			}
+		}
+		assertTrue(metrics.getAllocatedBytes(RENDER) >= size);
+		assertTrue(metrics.getAllocatedBytes(WRITE) < size);
+	}
+
+	@Test
+	void testMeasureHeap() {
+		final var pools = getHeapPools();
+		final var peaksBefore = pools.stream()
+		        .map(pool -> pool.getPeakUsage().getUsed())
+		        .collect(Collectors.toUnmodifiableList());
+
+		final var kept = new ArrayList<byte[]>();
+		for (var pos = 0; pos < 16; pos++) {
+			kept.add(new byte[1024 * 1024]);
+		}
+		metrics.measureHeap();
+		assertEquals(16, kept.size());
+
+		assertTrue(metrics.getPeakHeapBytes() >= 0);
+		assertTrue(metrics.getHeapAfterLastGcBytes() >= 0);
+		/**
+		 * The JVM-wide peaks are never reset by an export
+		 */
+		for (var pos = 0; pos < pools.size(); pos++) {
+			final var pool = pools.get(pos);
+			assertTrue(pool.getPeakUsage().getUsed() >= peaksBefore.get(pos), pool.getName());
+		}
+	}
+
+	@Test
+	void testToString() {
+		metrics.addEndpoints(4);
+		metrics.addDtoNodes(2);
+		metrics.addCacheResults(DTO_SHAPE, 3, 1);
+		metrics.measure(WRITE, () -> null);
+		metrics.measure(WRITE, () -> null);
+
+		final var text = metrics.toString();
+		assertTrue(text.startsWith("4 endpoint(s), 2 DTO(s), dto shape cache 3 hit(s) 1 miss(es), heap "), text);
+		assertFalse(text.contains("analysis cache"), text);
+		assertTrue(text.contains("; write: "), text);
+		assertTrue(text.contains(" (x2)"), text);
+		assertFalse(text.contains("render"), text);
+		assertEquals(4, metrics.getEndpointCount());
+		assertEquals(2, metrics.getDtoNodeCount());
+		assertEquals(3, metrics.getCacheHitCount(DTO_SHAPE));
+		assertEquals(1, metrics.getCacheMissCount(DTO_SHAPE));
+		assertEquals(0, metrics.getCacheHitCount(ANALYSIS));
+	}
+
+}
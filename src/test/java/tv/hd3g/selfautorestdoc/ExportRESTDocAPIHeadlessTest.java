@@ -0,0 +1,97 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExportRESTDocAPIHeadlessTest {
+
+	private static final int ENDPOINTS = 15;
+
+	@TempDir
+	Path tempDir;
+
+	private Path sourceDirectory;
+	private Path classesDirectory;
+	private List<String> controllers;
+
+	/**
+	 * The synthetic API classes are only in classesDirectory, not in the test classpath.
+	 */
+	@BeforeEach
+	void init() throws IOException {
+		sourceDirectory = tempDir.resolve("src");
+		classesDirectory = tempDir.resolve("classes");
+		controllers = new SyntheticAPIGenerator(ENDPOINTS).endpointsByController(5).generate(sourceDirectory);
+		SyntheticAPIGenerator.compile(sourceDirectory, classesDirectory);
+	}
+
+	@Test
+	void testScan() throws IOException {
+		final var headless = new ExportRESTDocAPIHeadless(classesDirectory.toFile(), List.of());
+		try (final var classLoader = headless.createClassLoader()) {
+			final var found = new RestControllerScanner(classLoader).scan(classesDirectory.toFile());
+			assertEquals(controllers, found.stream()
+			        .map(Class::getName)
+			        .collect(Collectors.toUnmodifiableList()));
+		}
+	}
+
+	@Test
+	void testExport() throws IOException {
+		/**
+		 * Dto1 will be walked by reflection, from the classes directory
+		 */
+		Files.delete(sourceDirectory.resolve(SyntheticAPIGenerator.PACKAGE.replace('.', '/')).resolve("Dto1.java"));
+
+		final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+		selfAutoRESTDoc.setSourceDirectories(List.of(sourceDirectory.toFile()));
+		selfAutoRESTDoc.setBaseDirectory(tempDir.toFile());
+		final var outputFile = tempDir.resolve("API.md").toFile();
+		final var result = new ExportRESTDocAPIHeadless(classesDirectory.toFile(), List.of())
+		        .export(selfAutoRESTDoc, outputFile, "/blob/master");
+
+		assertEquals(List.of(outputFile), result.getFiles());
+		final var doc = Files.readString(outputFile.toPath(), UTF_8);
+		assertTrue(doc.startsWith("# " + MarkdownRenderer.DEFAULT_TITLE));
+		for (var endpoint = 0; endpoint < ENDPOINTS; endpoint++) {
+			assertTrue(doc.contains("Endpoint " + endpoint + " comment"));
+		}
+		assertTrue(doc.contains("[Controller0 :: endpoint0](/blob/master/src/synthetic/api/Controller0.java#"));
+		assertTrue(doc.contains("parent: Dto1"));
+	}
+
+	@Test
+	void testMissingClassesDirectory() {
+		final var classes = tempDir.resolve("missing").toFile();
+		assertThrows(IllegalArgumentException.class, () -> new ExportRESTDocAPIHeadless(classes, List.of()));
+	}
+
+}
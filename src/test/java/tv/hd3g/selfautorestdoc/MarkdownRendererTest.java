@@ -0,0 +1,168 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class MarkdownRendererTest {
+
+	@TempDir
+	Path tempDir;
+
+	private static String render(final APIModel model,
+	                             final int modelsMinSize,
+	                             final boolean parallel) throws IOException {
+		final var out = new StringWriter();
+		new MarkdownRenderer(MarkdownRenderer.DEFAULT_TITLE, null, modelsMinSize, parallel)
+		        .write(model, "/blob/master", out);
+		return out.toString();
+	}
+
+	private static String render(final APIModel model,
+	                             final int modelsMinSize,
+	                             final RenderCache renderCache) throws IOException {
+		final var out = new StringWriter();
+		new MarkdownRenderer(MarkdownRenderer.DEFAULT_TITLE, null, modelsMinSize, false, renderCache)
+		        .write(model, "/blob/master", out);
+		return out.toString();
+	}
+
+	private static int count(final String doc, final String text) {
+		var count = 0;
+		for (var pos = doc.indexOf(text); pos > -1; pos = doc.indexOf(text, pos + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	void testWrite() throws IOException {
+		final var model = APIModelSamples.create();
+		final var doc = render(model, 0, false);
+
+		assertTrue(doc.startsWith("# " + MarkdownRenderer.DEFAULT_TITLE + "\n"));
+		final var getItem = model.getEndpoints().get(0);
+		assertTrue(doc.contains("* [Get an item **GET** `/items/{id}`](#" + getItem.getAnchor() + ")"));
+		assertTrue(doc.contains("Parameters:\n - **id** String\n"));
+		assertTrue(doc.contains("_Mandatory rights: (write & read)_"));
+		assertTrue(doc.contains("[ItemController :: getItem](/blob/master/src/main/java/demo/ItemController.java#20)"));
+
+		/**
+		 * The sections, after the summary, in the endpoints order
+		 */
+		var pos = doc.indexOf("## Summary");
+		for (final var endpoint : model.getEndpoints()) {
+			final var section = doc.indexOf("<a name=\"" + endpoint.getAnchor() + "\"></a>");
+			assertTrue(section > pos, endpoint.getMethodName());
+			pos = section;
+		}
+	}
+
+	@Test
+	void testWrite_models() throws IOException {
+		final var model = APIModelSamples.create();
+		final var item = model.getDto(0);
+		final var itemLink = "[Item](#" + item.getAnchor() + ")";
+		final var doc = render(model, 3, false);
+
+		/**
+		 * Item is used 4 times: written once, in the models section
+		 */
+		assertTrue(doc.contains("\n## Models <a name=\"models\"></a>\n"));
+		assertTrue(doc.indexOf("## Models") > doc.lastIndexOf("[Go to the top](#top)"));
+		assertTrue(doc.contains("### <a name=\"" + item.getAnchor() + "\"></a> Item\n"));
+		assertEquals(1, count(doc, "id: String"));
+		assertTrue(doc.contains("Response: \"application/json\" " + itemLink + "\n"));
+		assertTrue(doc.contains("Request body data: \"application/json\" " + itemLink + "\n"));
+		/**
+		 * Page is used once: it stays inlined, with a link to Item
+		 */
+		assertTrue(doc.contains("See " + itemLink + "\n"));
+		assertEquals(1, count(doc, "total: int"));
+
+		final var inlined = render(model, 0, false);
+		assertFalse(inlined.contains("## Models"));
+		assertEquals(4, count(inlined, "id: String"));
+		assertEquals(inlined, render(model, 4, false));
+	}
+
+	@Test
+	void testWrite_renderCache() throws IOException {
+		final var model = APIModelSamples.create();
+		final var endpoints = model.getEndpoints().size();
+		final var doc = render(model, 3, false);
+
+		final var cache = RenderCache.load(tempDir.toFile());
+		assertEquals(doc, render(model, 3, cache));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(endpoints, cache.getMissCount());
+		cache.store();
+
+		/**
+		 * The next export copies all the sections
+		 */
+		final var loaded = RenderCache.load(tempDir.toFile());
+		assertEquals(doc, render(model, 3, loaded));
+		assertEquals(endpoints, loaded.getHitCount());
+		assertEquals(0, loaded.getMissCount());
+
+		/**
+		 * Not the ones with an other shared DTOs choice
+		 */
+		assertEquals(render(model, 0, false), render(model, 0, loaded));
+		assertTrue(loaded.getMissCount() > 0);
+	}
+
+	@Test
+	void testWrite_parallel() throws Exception {
+		/**
+		 * More than one sections batch
+		 */
+		final var model = APIModelSamples.create(300);
+		final var doc = render(model, 0, false);
+		assertEquals(doc, render(model, 0, true));
+
+		final var pool = new ForkJoinPool(4);
+		try {
+			assertEquals(doc, pool.submit(() -> render(model, 0, true)).get());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void testWrite_parallelWithModels() throws IOException {
+		final var model = APIModelSamples.create(300);
+		final var doc = render(model, 1, false);
+		assertTrue(doc.contains("## Models"));
+		assertEquals(doc, render(model, 1, true));
+	}
+
+}
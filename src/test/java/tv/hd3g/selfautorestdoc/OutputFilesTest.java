@@ -0,0 +1,142 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutputFilesTest {
+
+	private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000_000L);
+
+	@TempDir
+	Path tempDir;
+
+	private Path file;
+
+	@BeforeEach
+	void init() {
+		file = tempDir.resolve("API.md");
+	}
+
+	private static boolean writeStreamed(final Path file, final String content) throws IOException {
+		return OutputFiles.writeIfChanged(file, out -> out.write(content.getBytes(UTF_8)));
+	}
+
+	/**
+	 * @return all the files of the directory, temp files included
+	 */
+	private List<String> listFileNames() throws IOException {
+		try (final var files = Files.list(tempDir)) {
+			return files.map(f -> f.getFileName().toString())
+			        .sorted()
+			        .collect(Collectors.toUnmodifiableList());
+		}
+	}
+
+	@Test
+	void testWriteIfChanged() throws IOException {
+		assertTrue(OutputFiles.writeIfChanged(file, "Content".getBytes(UTF_8)));
+		assertEquals("Content", Files.readString(file, UTF_8));
+
+		Files.setLastModifiedTime(file, OLD_TIME);
+		assertFalse(OutputFiles.writeIfChanged(file, "Content".getBytes(UTF_8)));
+		assertEquals(OLD_TIME, Files.getLastModifiedTime(file));
+
+		assertTrue(OutputFiles.writeIfChanged(file, "Other".getBytes(UTF_8)));
+		assertEquals("Other", Files.readString(file, UTF_8));
+		assertTrue(OutputFiles.writeIfChanged(file, "Longer content".getBytes(UTF_8)));
+		assertEquals("Longer content", Files.readString(file, UTF_8));
+		assertEquals(List.of("API.md"), listFileNames());
+	}
+
+	@Test
+	void testWriteIfChanged_streamed() throws IOException {
+		assertTrue(writeStreamed(file, "Content"));
+		assertEquals("Content", Files.readString(file, UTF_8));
+
+		Files.setLastModifiedTime(file, OLD_TIME);
+		assertFalse(writeStreamed(file, "Content"));
+		assertEquals(OLD_TIME, Files.getLastModifiedTime(file));
+
+		/**
+		 * Same size, not the same content
+		 */
+		assertTrue(writeStreamed(file, "Contend"));
+		assertEquals("Contend", Files.readString(file, UTF_8));
+		assertEquals(List.of("API.md"), listFileNames());
+	}
+
+	@Test
+	void testWriteIfChanged_newDirectory() throws IOException {
+		final var subFile = tempDir.resolve("sub").resolve("API.md");
+		assertTrue(writeStreamed(subFile, "Content"));
+		assertEquals("Content", Files.readString(subFile, UTF_8));
+	}
+
+	@Test
+	void testWriteIfChanged_writerError() throws IOException {
+		assertTrue(writeStreamed(file, "Content"));
+		assertThrows(IOException.class, () -> OutputFiles.writeIfChanged(file, out -> {
+			out.write("Partial".getBytes(UTF_8));
+			throw new IOException("Can't make the content");
+		}));
+		assertEquals("Content", Files.readString(file, UTF_8));
+		assertEquals(List.of("API.md"), listFileNames());
+	}
+
+	@Test
+	void testWriteIfChanged_permissions() throws IOException {
+		assumeTrue(Files.getFileAttributeView(tempDir, PosixFileAttributeView.class) != null,
+		        "Not a POSIX file system");
+
+		assertTrue(writeStreamed(file, "Content"));
+		final var permissions = PosixFilePermissions.fromString("rw-r-----");
+		Files.setPosixFilePermissions(file, permissions);
+
+		assertTrue(writeStreamed(file, "Other"));
+		assertEquals(permissions, Files.getPosixFilePermissions(file));
+		assertTrue(OutputFiles.writeIfChanged(file, "Content".getBytes(UTF_8)));
+		assertEquals(permissions, Files.getPosixFilePermissions(file));
+
+		/**
+		 * A new file is not created as a private temp file (0600)
+		 */
+		final var newFile = tempDir.resolve("API.html");
+		final var expected = Files.getPosixFilePermissions(Files.createFile(tempDir.resolve("reference")));
+		assertTrue(writeStreamed(newFile, "Content"));
+		assertEquals(expected, Files.getPosixFilePermissions(newFile));
+	}
+
+}
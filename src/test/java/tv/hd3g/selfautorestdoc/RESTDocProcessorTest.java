@@ -0,0 +1,259 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.LIST;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+class RESTDocProcessorTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path sourceDirectory;
+	private Path classesDirectory;
+	private Path itemController;
+	private List<Path> allSources;
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+
+	private Path writeSource(final String className, final String... lines) throws IOException {
+		final var file = sourceDirectory.resolve("demo").resolve(className + ".java");
+		Files.createDirectories(file.getParent());
+		return Files.writeString(file, String.join("\n", lines), UTF_8);
+	}
+
+	@BeforeEach
+	void init() throws IOException {
+		sourceDirectory = tempDir.resolve("src");
+		classesDirectory = tempDir.resolve("classes");
+		Files.createDirectories(classesDirectory);
+		diagnostics = new DiagnosticCollector<>();
+
+		itemController = writeSource("ItemController",
+		        "package demo;",
+		        "import org.springframework.http.ResponseEntity;",
+		        "import org.springframework.web.bind.annotation.*;",
+		        "@RestController",
+		        "@RequestMapping(\"/items\")",
+		        "public class ItemController {",
+		        "	/**",
+		        "	 * Get one item",
+		        "	 */",
+		        "	@GetMapping(\"{id}\")",
+		        "	public ResponseEntity<Item> get(@PathVariable(\"id\") final long id,",
+		        "	                                @RequestParam(defaultValue = \"x\") final String q) {",
+		        "		return null;",
+		        "	}",
+		        "	@PostMapping",
+		        "	public ResponseEntity<Item> create(@RequestBody final CreateRequest request) {",
+		        "		return null;",
+		        "	}",
+		        "}");
+		allSources = List.of(itemController,
+		        writeSource("TagController",
+		                "package demo;",
+		                "import org.springframework.web.bind.annotation.*;",
+		                "@RestController",
+		                "@RequestMapping(\"/tags\")",
+		                "public class TagController {",
+		                "	@DeleteMapping(\"{tag}\")",
+		                "	public void delete(@PathVariable(\"tag\") final String tag) {",
+		                "	}",
+		                "}"),
+		        writeSource("Item",
+		                "package demo;",
+		                "import java.util.List;",
+		                "public class Item {",
+		                "	public String getName() { return null; }",
+		                "	public List<Item> getChildren() { return null; }",
+		                "}"),
+		        writeSource("CreateRequest",
+		                "package demo;",
+		                "import com.fasterxml.jackson.annotation.JsonProperty;",
+		                "public class CreateRequest {",
+		                "	public CreateRequest(final String name, @JsonProperty(\"qty\") final int count) {",
+		                "	}",
+		                "}"));
+	}
+
+	/**
+	 * Compile like an incremental build: the previous classes are in the classpath. With -parameters, like the Spring
+	 * Boot builds: the DTOs constructors parameters names are kept in the classes.
+	 * @return the model written by the processor
+	 */
+	private APIModel compile(final List<Path> sources) throws IOException {
+		runCompiler(sources);
+		return APIModelCodec.read(classesDirectory.resolve(APIModelFile.RESOURCE_NAME));
+	}
+
+	private void runCompiler(final List<Path> sources) throws IOException {
+		final var compiler = ToolProvider.getSystemJavaCompiler();
+		try (final var fileManager = compiler.getStandardFileManager(null, Locale.ENGLISH, UTF_8)) {
+			final var options = List.of("-d", classesDirectory.toString(),
+			        "-classpath", classesDirectory + File.pathSeparator + System.getProperty("java.class.path"),
+			        "-A" + RESTDocProcessor.BASE_DIRECTORY_OPTION + "=" + sourceDirectory,
+			        "-encoding", "UTF-8", "-parameters");
+			final var units = fileManager.getJavaFileObjectsFromFiles(sources.stream()
+			        .map(Path::toFile)
+			        .collect(Collectors.toUnmodifiableList()));
+			final var task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+			task.setProcessors(List.of(new RESTDocProcessor()));
+			assertTrue(task.call(), () -> diagnostics.getDiagnostics().toString());
+		}
+	}
+
+	private boolean hasWarnings() {
+		return diagnostics.getDiagnostics().stream()
+		        .anyMatch(d -> d.getKind() == Diagnostic.Kind.WARNING);
+	}
+
+	private static APIEndpoint getEndpoint(final APIModel model, final String methodName) {
+		return model.getEndpoints().stream()
+		        .filter(e -> e.getMethodName().equals(methodName))
+		        .findFirst()
+		        .orElseThrow();
+	}
+
+	private static Optional<APIDtoField> getField(final APIModel model, final int dtoIndex, final String name) {
+		return model.getDto(dtoIndex).getFields().stream()
+		        .filter(f -> f.getName().equals(name))
+		        .findFirst();
+	}
+
+	@Test
+	void testProcess() throws IOException {
+		final var model = compile(allSources);
+		assertFalse(hasWarnings());
+		assertEquals(3, model.getEndpoints().size());
+
+		final var get = getEndpoint(model, "get");
+		assertEquals(List.of("GET"), get.getVerbs());
+		assertEquals(List.of("/items/{id}"), get.getPaths());
+		assertEquals("q", get.getQueryParameters().get(0).getName());
+		assertEquals(Optional.of("x"), get.getQueryParameters().get(0).getDefaultValue());
+		assertEquals("id", get.getPathParameters().get(0).getName());
+		assertEquals("long", get.getPathParameters().get(0).getType());
+		assertEquals(List.of("Get one item"), get.getMethodComments());
+		assertEquals("demo.ItemController", get.getControllerClassName());
+		assertEquals("demo/ItemController.java", get.getControllerFullPath());
+
+		final var item = get.getResponseDto();
+		assertEquals("demo.Item", model.getDto(item).getQualifiedName());
+		assertEquals("String", getField(model, item, "name").orElseThrow().getType());
+		final var children = getField(model, item, "children").orElseThrow();
+		assertEquals(LIST, children.getStratum());
+		assertEquals(item, children.getDtoIndex());
+
+		final var create = getEndpoint(model, "create");
+		assertEquals(item, create.getResponseDto());
+		final var request = create.getRequestBodyDto();
+		assertEquals("demo.CreateRequest", model.getDto(request).getQualifiedName());
+		assertEquals(List.of("name", "qty"), model.getDto(request).getFields().stream()
+		        .map(APIDtoField::getName)
+		        .collect(Collectors.toUnmodifiableList()));
+
+		assertEquals(List.of("DELETE"), getEndpoint(model, "delete").getVerbs());
+	}
+
+	@Test
+	void testProcess_partialCompile() throws IOException {
+		final var model = compile(allSources);
+
+		/**
+		 * TagController is not compiled again, but it's still in the classes: the model would miss it.
+		 */
+		assertEquals(APIModel.EMPTY, compile(List.of(itemController)));
+		assertTrue(hasWarnings());
+
+		assertEquals(model, compile(allSources));
+	}
+
+	@Test
+	void testProcess_controllerWithoutEndpoint() throws IOException {
+		final var emptyController = writeSource("EmptyController",
+		        "package demo;",
+		        "import org.springframework.web.bind.annotation.*;",
+		        "@RestController",
+		        "public class EmptyController {",
+		        "	public void notMapped() {",
+		        "	}",
+		        "}");
+		final var sources = new ArrayList<>(allSources);
+		sources.add(emptyController);
+		final var model = compile(sources);
+		assertEquals(3, model.getEndpoints().size());
+		assertEquals(List.of("demo.EmptyController", "demo.ItemController", "demo.TagController"),
+		        model.getControllerClassNames());
+
+		/**
+		 * EmptyController is not compiled again, but it's still in the classes: the model would miss it.
+		 */
+		assertEquals(APIModel.EMPTY, compile(allSources));
+		assertTrue(hasWarnings());
+
+		assertEquals(model, compile(sources));
+
+		/**
+		 * Only a controller without any endpoint: the model is still written.
+		 */
+		Files.delete(classesDirectory.resolve(APIModelFile.RESOURCE_NAME));
+		assertEquals(List.of("demo.EmptyController"), compile(List.of(emptyController)).getControllerClassNames());
+	}
+
+	@Test
+	void testProcess_dtosCompiledBefore() throws IOException {
+		/**
+		 * The DTOs are only in the classes when the controllers are compiled
+		 */
+		runCompiler(allSources.subList(2, 4));
+		final var model = compile(allSources.subList(0, 2));
+		assertFalse(hasWarnings());
+
+		final var create = getEndpoint(model, "create");
+		assertEquals("demo.CreateRequest", model.getDto(create.getRequestBodyDto()).getQualifiedName());
+		assertEquals("demo.Item", model.getDto(create.getResponseDto()).getQualifiedName());
+		assertEquals(compile(allSources), model);
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class RenderCacheTest {
+
+	private static final String OPTIONS = "markdown|/blob/master";
+
+	@TempDir
+	Path tempDir;
+
+	private APIModel model;
+
+	@BeforeEach
+	void init() {
+		model = APIModelSamples.create();
+	}
+
+	private String computeKey(final APIModel model, final int endpoint, final Set<String> sharedDtoAnchors) {
+		return RenderCache.computeKey(model, model.getEndpoints().get(endpoint), sharedDtoAnchors, OPTIONS);
+	}
+
+	@Test
+	void testComputeKey() {
+		final var key = computeKey(model, 0, Set.of());
+		assertEquals(key, computeKey(APIModelSamples.create(), 0, Set.of()));
+		assertNotEquals(key, computeKey(model, 1, Set.of()));
+		assertNotEquals(key, RenderCache.computeKey(model, model.getEndpoints().get(0), Set.of(), "markdown|/other"));
+
+		/**
+		 * The getItem response is an Item: only its own DTOs can change its key
+		 */
+		final var itemAnchor = model.getDto(0).getAnchor();
+		assertNotEquals(key, computeKey(model, 0, Set.of(itemAnchor)));
+		assertEquals(key, computeKey(model, 0, Set.of(model.getDto(1).getAnchor())));
+		final var withoutStatus = model.select(model.getEndpoints().subList(0, 3));
+		assertEquals(key, computeKey(withoutStatus, 0, Set.of()));
+	}
+
+	@Test
+	void testStore() {
+		final var cache = RenderCache.load(tempDir.toFile());
+		assertTrue(cache.get("key0").isEmpty());
+		cache.put("key0", "Section 0\n");
+		cache.put("key1", "Section 1 &bull; \u00e9\n");
+		cache.store();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		final var loaded = RenderCache.load(tempDir.toFile());
+		assertEquals("Section 1 &bull; \u00e9\n", loaded.get("key1").orElseThrow());
+		assertEquals(1, loaded.getHitCount());
+		loaded.store();
+
+		/**
+		 * Only the used sections are kept
+		 */
+		final var reloaded = RenderCache.load(tempDir.toFile());
+		assertTrue(reloaded.get("key0").isEmpty());
+		assertTrue(reloaded.get("key1").isPresent());
+	}
+
+	@Test
+	void testLoad_invalidFile() throws IOException {
+		Files.writeString(tempDir.resolve("sections.bin"), "Not a render cache");
+		final var cache = RenderCache.load(tempDir.toFile());
+		assertTrue(cache.get("key").isEmpty());
+		cache.put("key", "Section");
+		cache.store();
+		assertFalse(RenderCache.load(tempDir.toFile()).get("key").isEmpty());
+	}
+
+}
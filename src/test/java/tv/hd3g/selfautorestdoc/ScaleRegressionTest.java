@@ -0,0 +1,158 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Export synthetic APIs, and fail if the export time or the peak heap goes above its budget. The budgets are linear
+ * with the endpoints count, and the export time can't grow much faster than the endpoints count between two sizes:
+ * a quadratic regression will break them on the large APIs.
+ * The peak heap is the ExportMetrics one: its growth during the export, over the previous JVM peaks.
+ * Options, as system properties:
+ * - selfautorestdoc.scale.endpoints: the API sizes to test, like 10,1000,10000 (default 100,1000)
+ * - selfautorestdoc.scale.budget.ms and selfautorestdoc.scale.budget.msByEndpoint (default 60000 + 50/endpoint)
+ * - selfautorestdoc.scale.budget.heapMB and selfautorestdoc.scale.budget.heapKBByEndpoint (default 512 + 256/endpoint)
+ * - selfautorestdoc.scale.budget.growth: the max time growth, by endpoints growth, between two sizes (default 2: 20
+ * times slower for 10 times more endpoints)
+ */
+class ScaleRegressionTest {
+	private static Logger log = LogManager.getLogger();
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * Endpoints -> export duration, in ms
+	 */
+	private final Map<Integer, Long> durations = new TreeMap<>();
+
+	@TestFactory
+	Stream<DynamicTest> testExportBudgets() {
+		final var sizes = Arrays.stream(System.getProperty("selfautorestdoc.scale.endpoints", "100,1000").split(","))
+		        .map(String::trim)
+		        .filter(size -> size.isEmpty() == false)
+		        .map(Integer::parseInt)
+		        .sorted()
+		        .distinct()
+		        .collect(Collectors.toUnmodifiableList());
+		return Stream.concat(sizes.stream()
+		        .map(endpoints -> DynamicTest.dynamicTest(endpoints + " endpoints",
+		                () -> checkExport(new SyntheticAPIGenerator(endpoints)))),
+		        Stream.of(DynamicTest.dynamicTest("Time growth", this::checkGrowth)));
+	}
+
+	/**
+	 * Between each tested size and the next one.
+	 */
+	private void checkGrowth() {
+		final var maxGrowth = Double.parseDouble(System.getProperty("selfautorestdoc.scale.budget.growth", "2"));
+		final var sizes = List.copyOf(durations.keySet());
+		for (var pos = 1; pos < sizes.size(); pos++) {
+			final int smaller = sizes.get(pos - 1);
+			final int larger = sizes.get(pos);
+			final var endpointsGrowth = (double) larger / smaller;
+			final var timeGrowth = (double) Math.max(1, durations.get(larger)) / Math.max(1, durations.get(smaller));
+			final var maxTimeGrowth = endpointsGrowth * maxGrowth;
+			log.info("Export time growth from {} to {} endpoints: x{} (budget x{})",
+			        smaller, larger, String.format("%.1f", timeGrowth), String.format("%.1f", maxTimeGrowth));
+			assertTrue(timeGrowth <= maxTimeGrowth,
+			        "Export time grows x" + timeGrowth + " from " + smaller + " to " + larger + " endpoints");
+		}
+	}
+
+	private void checkExport(final SyntheticAPIGenerator generator) throws IOException {
+		final var endpoints = generator.getEndpoints();
+		final var baseDirectory = Files.createDirectories(tempDir.resolve("api" + endpoints));
+		final var sourceDirectory = baseDirectory.resolve("src");
+		final var classesDirectory = baseDirectory.resolve("classes");
+		final var controllers = generator.generate(sourceDirectory);
+		SyntheticAPIGenerator.compile(sourceDirectory, classesDirectory);
+
+		final var maxMillis = Long.getLong("selfautorestdoc.scale.budget.ms", 60_000)
+		                      + Long.getLong("selfautorestdoc.scale.budget.msByEndpoint", 50) * endpoints;
+		final var maxHeap = Long.getLong("selfautorestdoc.scale.budget.heapMB", 512) * 1024 * 1024
+		                    + Long.getLong("selfautorestdoc.scale.budget.heapKBByEndpoint", 256) * 1024 * endpoints;
+
+		final var currentThread = Thread.currentThread();
+		final var previousClassLoader = currentThread.getContextClassLoader();
+		try (final var classLoader = new URLClassLoader(
+		        new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader())) {
+			/**
+			 * Spoon will load the DTOs classes from it
+			 */
+			currentThread.setContextClassLoader(classLoader);
+			final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+			selfAutoRESTDoc.setSourceDirectories(List.of(sourceDirectory.toFile()));
+			selfAutoRESTDoc.setUsePrebuiltModel(false);
+			for (final var controller : controllers) {
+				selfAutoRESTDoc.registerClass(classLoader.loadClass(controller));
+			}
+			final var metrics = new AtomicReference<ExportMetrics>();
+			selfAutoRESTDoc.setMetricsListener(metrics::set);
+
+			/**
+			 * The analysis and the write, in only one export
+			 */
+			final var start = System.nanoTime();
+			final var outputFile = baseDirectory.resolve("API.md").toFile();
+			final var result = selfAutoRESTDoc.writeAll(outputFile, "/blob/master");
+			final var duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			durations.put(endpoints, duration);
+			final var heapPeak = metrics.get().getPeakHeapBytes();
+
+			final var heapPeakMB = heapPeak / 1024 / 1024;
+			final var maxHeapMB = maxHeap / 1024 / 1024;
+			log.info("Export {} endpoint(s) in {} controller(s): {} ms (budget {} ms), heap peak growth {} MB "
+			         + "(budget {} MB)", endpoints, controllers.size(), duration, maxMillis, heapPeakMB, maxHeapMB);
+
+			assertEquals(endpoints, metrics.get().getEndpointCount());
+			assertTrue(result.getFiles().get(0).length() > 0);
+			assertTrue(duration <= maxMillis,
+			        "Export of " + endpoints + " endpoints took " + duration + " ms, over " + maxMillis + " ms");
+			assertTrue(heapPeak <= maxHeap,
+			        "Export of " + endpoints + " endpoints used " + heapPeakMB + " MB of heap, over " + maxHeapMB
+			                                + " MB");
+		} catch (final ClassNotFoundException e) {
+			throw new IllegalStateException("Can't load a synthetic controller", e);
+		} finally {
+			currentThread.setContextClassLoader(previousClassLoader);
+		}
+	}
+
+}
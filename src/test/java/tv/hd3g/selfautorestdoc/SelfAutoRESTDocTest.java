@@ -0,0 +1,263 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.ANALYSIS;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.DTO_SHAPE;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.TYPE_INDEX;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.CONTROLLER_ANALYSIS;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.MODEL_BUILD;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.LIST;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIDto;
+import tv.hd3g.selfautorestdoc.model.APIDtoField;
+import tv.hd3g.selfautorestdoc.model.APIEndpoint;
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelCodec;
+
+/**
+ * Analyse a small synthetic API, with the different analysis modes.
+ */
+class SelfAutoRESTDocTest {
+
+	/**
+	 * 3 controllers
+	 */
+	private static final int ENDPOINTS = 15;
+
+	@TempDir
+	Path tempDir;
+
+	private SyntheticAPIProject project;
+	private AtomicReference<ExportMetrics> metrics;
+
+	@BeforeEach
+	void init() throws IOException {
+		project = new SyntheticAPIProject(new SyntheticAPIGenerator(ENDPOINTS)
+		        .endpointsByController(5)
+		        .dtoDepth(2)
+		        .dtoWidth(3), tempDir);
+		metrics = new AtomicReference<>();
+	}
+
+	@AfterEach
+	void end() throws IOException {
+		project.close();
+	}
+
+	/**
+	 * @return the model, and set metrics with the ones of this analysis
+	 */
+	private APIModel getAPIModel(final Consumer<SelfAutoRESTDoc> setup) throws IOException {
+		return project.getAPIModel(selfAutoRESTDoc -> {
+			selfAutoRESTDoc.setMetricsListener(metrics::set);
+			setup.accept(selfAutoRESTDoc);
+		});
+	}
+
+	@Test
+	void testAnalysisCache() throws IOException {
+		final var cacheDirectory = tempDir.resolve("cache").toFile();
+		final Consumer<SelfAutoRESTDoc> withCache = selfAutoRESTDoc -> selfAutoRESTDoc.setCacheDirectory(
+		        cacheDirectory);
+
+		final var model = getAPIModel(withCache);
+		assertEquals(ENDPOINTS, model.getEndpoints().size());
+		assertEquals(1, metrics.get().getCount(MODEL_BUILD));
+		assertEquals(0, metrics.get().getCacheHitCount(ANALYSIS));
+		assertEquals(3, metrics.get().getCacheMissCount(ANALYSIS));
+		assertEquals(model, getAPIModel(selfAutoRESTDoc -> {
+		}));
+		assertEquals(0, metrics.get().getCacheMissCount(ANALYSIS));
+
+		/**
+		 * Hit: no analysis
+		 */
+		assertEquals(model, getAPIModel(withCache));
+		assertEquals(0, metrics.get().getCount(MODEL_BUILD));
+		assertEquals(3, metrics.get().getCacheHitCount(ANALYSIS));
+		assertEquals(0, metrics.get().getCacheMissCount(ANALYSIS));
+
+		/**
+		 * Miss: a source has changed
+		 */
+		project.replaceInSource("Controller0", "Endpoint 0 comment", "Endpoint 0 changed comment");
+		final var changedModel = getAPIModel(withCache);
+		assertEquals(1, metrics.get().getCount(MODEL_BUILD));
+		assertNotEquals(model, changedModel);
+		assertTrue(changedModel.getEndpoints().stream()
+		        .flatMap(endpoint -> endpoint.getMethodComments().stream())
+		        .anyMatch(comment -> comment.contains("Endpoint 0 changed comment")));
+	}
+
+	@Test
+	void testIncrementalAnalysis() throws IOException {
+		final var cacheDirectory = tempDir.resolve("cache").toFile();
+		final Consumer<SelfAutoRESTDoc> incremental = selfAutoRESTDoc -> {
+			selfAutoRESTDoc.setCacheDirectory(cacheDirectory);
+			selfAutoRESTDoc.setIncremental(true);
+		};
+		getAPIModel(incremental);
+		assertEquals(3, metrics.get().getCount(CONTROLLER_ANALYSIS));
+
+		/**
+		 * Only the changed controller
+		 */
+		project.replaceInSource("Controller2", "Endpoint 10 comment", "Endpoint 10 changed comment");
+		final var changedControllerModel = getAPIModel(incremental);
+		assertEquals(1, metrics.get().getCount(CONTROLLER_ANALYSIS));
+		assertEquals(2, metrics.get().getCacheHitCount(ANALYSIS));
+		assertEquals(1, metrics.get().getCacheMissCount(ANALYSIS));
+		assertEquals(getAPIModel(selfAutoRESTDoc -> {
+		}), changedControllerModel);
+
+		/**
+		 * Dto1 is only used by the endpoint 1 (Controller0) and the endpoint 9 (Controller1) responses
+		 */
+		project.replaceInSource("Dto1", "Root DTO 1", "Root DTO 1, changed");
+		final var changedDtoModel = getAPIModel(incremental);
+		assertEquals(2, metrics.get().getCount(CONTROLLER_ANALYSIS));
+		assertEquals(getAPIModel(selfAutoRESTDoc -> {
+		}), changedDtoModel);
+
+		/**
+		 * Page is used by all the root DTOs
+		 */
+		project.replaceInSource("Page", "A generic DTO", "A changed generic DTO");
+		getAPIModel(incremental);
+		assertEquals(3, metrics.get().getCount(CONTROLLER_ANALYSIS));
+	}
+
+	@Test
+	void testTargetedAnalysis() throws IOException {
+		final var model = getAPIModel(selfAutoRESTDoc -> {
+		});
+		assertEquals(1, metrics.get().getCount(MODEL_BUILD));
+
+		/**
+		 * First with the controllers and their root DTOs, then with the DTOs walked by reflection (Page, the levels),
+		 * until no more DTO source is discovered.
+		 */
+		assertEquals(model, getAPIModel(selfAutoRESTDoc -> selfAutoRESTDoc.setTargeted(true)));
+		assertTrue(metrics.get().getCount(MODEL_BUILD) > 1);
+	}
+
+	@Test
+	void testTargetedAnalysis_missingSource() throws IOException {
+		Files.delete(project.getSourceFile("Dto1"));
+
+		/**
+		 * Dto1 is only known by its class: it will never be discovered, and always walked by reflection.
+		 */
+		final var model = getAPIModel(selfAutoRESTDoc -> selfAutoRESTDoc.setTargeted(true));
+		assertEquals(ENDPOINTS, model.getEndpoints().size());
+		assertTrue(model.getDtos().stream().anyMatch(dto -> dto.getQualifiedName().equals(
+		        SyntheticAPIGenerator.PACKAGE + ".Dto1")));
+	}
+
+	private static APIEndpoint getEndpoint(final APIModel model, final int endpoint) {
+		return model.getEndpoints().stream()
+		        .filter(e -> e.getMethodName().equals("endpoint" + endpoint))
+		        .findFirst()
+		        .orElseThrow();
+	}
+
+	@Test
+	void testSharedDtoShapes() throws IOException {
+		final var model = getAPIModel(selfAutoRESTDoc -> {
+		});
+		assertTrue(metrics.get().getCacheHitCount(DTO_SHAPE) > 0);
+		assertTrue(metrics.get().getCacheMissCount(DTO_SHAPE) > 0);
+		assertTrue(metrics.get().getCacheHitCount(TYPE_INDEX) > 0);
+
+		/**
+		 * The endpoints 0 (Controller0) and 8 (Controller1) both respond a Dto0
+		 */
+		final var dto0 = getEndpoint(model, 0).getResponseDto();
+		assertEquals(SyntheticAPIGenerator.PACKAGE + ".Dto0", model.getDto(dto0).getQualifiedName());
+		assertEquals(dto0, getEndpoint(model, 8).getResponseDto());
+	}
+
+	private static APIDtoField getField(final APIDto dto, final String name) {
+		return dto.getFields().stream()
+		        .filter(f -> f.getName().equals(name))
+		        .findFirst()
+		        .orElseThrow();
+	}
+
+	@Test
+	void testCyclicAndGenericDtos() throws IOException {
+		final var model = getAPIModel(selfAutoRESTDoc -> {
+		});
+
+		/**
+		 * Dto0 -> parent: Dto0, and Dto0 -> child: Dto0Level1 -> next: Dto0Level2 -> root: Dto0
+		 */
+		final var dto0 = getEndpoint(model, 0).getResponseDto();
+		assertEquals(dto0, getField(model.getDto(dto0), "parent").getDtoIndex());
+		final var level1 = getField(model.getDto(dto0), "child").getDtoIndex();
+		assertEquals("Dto0Level1", model.getDto(level1).getTypeName());
+		final var level2 = getField(model.getDto(level1), "next").getDtoIndex();
+		assertEquals("Dto0Level2", model.getDto(level2).getTypeName());
+		assertEquals(dto0, getField(model.getDto(level2), "root").getDtoIndex());
+
+		/**
+		 * Dto0 -> page: Page<Dto0Level1> -> items: List<Dto0Level1>, the same Dto0Level1 as the child
+		 */
+		final var page = model.getDto(getField(model.getDto(dto0), "page").getDtoIndex());
+		assertEquals("Page", page.getTypeName());
+		final var items = getField(page, "items");
+		assertEquals(LIST, items.getStratum());
+		assertEquals(level1, items.getDtoIndex());
+
+		/**
+		 * By direction (request/response), each DTO type only once, with one Page by type argument, and Object for
+		 * the maps values: no expansion of the cycles.
+		 */
+		final var rootDtoCount = ENDPOINTS / 2 + 1;
+		assertTrue(model.getDtos().size() <= 2 * (4 * rootDtoCount + 1));
+	}
+
+	@Test
+	void testParallelAnalysis() throws IOException {
+		final var model = getAPIModel(selfAutoRESTDoc -> selfAutoRESTDoc.setParallelism(1));
+		final var bytes = APIModelCodec.toBytes(model);
+
+		for (final var parallelism : List.of(2, 4, 0)) {
+			final var parallelModel = getAPIModel(selfAutoRESTDoc -> selfAutoRESTDoc.setParallelism(parallelism));
+			assertEquals(model, parallelModel);
+			assertArrayEquals(bytes, APIModelCodec.toBytes(parallelModel));
+		}
+	}
+
+}
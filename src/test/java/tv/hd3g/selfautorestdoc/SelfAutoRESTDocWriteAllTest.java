@@ -0,0 +1,190 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Cache.SECTION;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.MODEL_BUILD;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+/**
+ * Write all the formats from an already made model, without any analysis.
+ */
+class SelfAutoRESTDocWriteAllTest {
+
+	private static final String BASE_PROJECT_URL = "/blob/master";
+
+	@TempDir
+	Path tempDir;
+
+	private SelfAutoRESTDoc selfAutoRESTDoc;
+	private APIModel model;
+	private File outputFile;
+	private AtomicReference<ExportMetrics> metrics;
+
+	@BeforeEach
+	void init() {
+		selfAutoRESTDoc = new SelfAutoRESTDoc();
+		model = APIModelSamples.create();
+		outputFile = tempDir.resolve("API.md").toFile();
+		metrics = new AtomicReference<>();
+		selfAutoRESTDoc.setMetricsListener(metrics::set);
+	}
+
+	private static String read(final File file) throws IOException {
+		return Files.readString(file.toPath(), UTF_8);
+	}
+
+	@Test
+	void testWriteAll() throws IOException {
+		selfAutoRESTDoc.setFormats(List.of("markdown", " OpenAPI", "html ", "markdown"));
+		final var expectedFiles = List.of(
+		        tempDir.resolve("API.md").toFile(),
+		        tempDir.resolve("API.json").toFile(),
+		        tempDir.resolve("API.html").toFile());
+		assertEquals(expectedFiles, selfAutoRESTDoc.getOutputFiles(outputFile));
+
+		final var result = selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL);
+		assertEquals(expectedFiles, result.getFiles());
+		assertEquals(expectedFiles, result.getChangedFiles());
+		assertTrue(read(expectedFiles.get(0)).startsWith("# REST API"));
+		assertTrue(read(expectedFiles.get(1)).contains("\"openapi\""));
+		assertTrue(read(expectedFiles.get(2)).startsWith("<!DOCTYPE html>"));
+		/**
+		 * From only one model, without analysis
+		 */
+		assertEquals(3, metrics.get().getCount(WRITE));
+		assertEquals(0, metrics.get().getCount(MODEL_BUILD));
+
+		final var markdownFile = tempDir.resolve("single.md").toFile();
+		assertTrue(selfAutoRESTDoc.writeToMD(model, markdownFile, BASE_PROJECT_URL));
+		assertEquals(read(markdownFile), read(expectedFiles.get(0)));
+	}
+
+	@Test
+	void testWriteAll_noOp() throws IOException {
+		selfAutoRESTDoc.setFormats(List.of("markdown", "html"));
+		assertEquals(2, selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL).getChangedFiles().size());
+
+		final var result = selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL);
+		assertTrue(result.isNoOp());
+		assertEquals(2, result.getFiles().size());
+
+		/**
+		 * Only the HTML file is removed: only it is written again.
+		 */
+		final var htmlFile = result.getFiles().get(1);
+		assertTrue(htmlFile.delete());
+		assertEquals(List.of(htmlFile),
+		        selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL).getChangedFiles());
+	}
+
+	@Test
+	void testWriteAll_renderCache() throws IOException {
+		selfAutoRESTDoc.setCacheDirectory(tempDir.resolve("cache").toFile());
+		final var endpoints = model.getEndpoints().size();
+		selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL);
+		assertEquals(0, metrics.get().getCacheHitCount(SECTION));
+		assertEquals(endpoints, metrics.get().getCacheMissCount(SECTION));
+		final var document = read(outputFile);
+
+		/**
+		 * The next export copies the sections from the cache, even with an other SelfAutoRESTDoc
+		 */
+		assertTrue(Files.deleteIfExists(outputFile.toPath()));
+		final var other = new SelfAutoRESTDoc();
+		other.setCacheDirectory(tempDir.resolve("cache").toFile());
+		other.setMetricsListener(metrics::set);
+		other.writeAll(model, outputFile, BASE_PROJECT_URL);
+		assertEquals(endpoints, metrics.get().getCacheHitCount(SECTION));
+		assertEquals(0, metrics.get().getCacheMissCount(SECTION));
+		assertEquals(document, read(outputFile));
+	}
+
+	@Test
+	void testSetFormats_default() {
+		assertEquals(List.of(MarkdownRenderer.FORMAT), getFormats());
+		selfAutoRESTDoc.setFormats(List.of("html"));
+		assertEquals(List.of(HTMLWriter.FORMAT), getFormats());
+		selfAutoRESTDoc.setFormats(List.of(" ", ""));
+		assertEquals(List.of(MarkdownRenderer.FORMAT), getFormats());
+	}
+
+	@Test
+	void testSetFormats_unknown() {
+		selfAutoRESTDoc.setFormats(List.of("markdown", "pdf"));
+		final var e = assertThrows(IllegalArgumentException.class, () -> selfAutoRESTDoc.getWriters());
+		assertTrue(e.getMessage().contains("\"pdf\""));
+	}
+
+	@Test
+	void testRegisterWriter() throws IOException {
+		selfAutoRESTDoc.registerWriter(new APIDocWriter() {
+
+			@Override
+			public String getFormat() {
+				return "Count";
+			}
+
+			@Override
+			public String getFileExtension() {
+				return "txt";
+			}
+
+			@Override
+			public String getMediaType() {
+				return "text/plain";
+			}
+
+			@Override
+			public void write(final APIModel model, final String baseProjectURL, final Writer out) throws IOException {
+				out.write(model.getEndpoints().size() + " endpoints");
+			}
+		});
+		selfAutoRESTDoc.setFormats(List.of("count", "markdown"));
+
+		final var result = selfAutoRESTDoc.writeAll(model, outputFile, BASE_PROJECT_URL);
+		assertEquals(List.of(tempDir.resolve("API.txt").toFile(), outputFile), result.getFiles());
+		assertEquals("4 endpoints", read(result.getFiles().get(0)));
+	}
+
+	private List<String> getFormats() {
+		return selfAutoRESTDoc.getWriters().stream()
+		        .map(APIDocWriter::getFormat)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tv.hd3g.selfautorestdoc.ExportMetrics.Phase.RENDER;
+import static tv.hd3g.selfautorestdoc.ShardedMarkdownWriter.MANIFEST_FILE_NAME;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.ITEM_CONTROLLER;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.endpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class ShardedMarkdownWriterTest {
+
+	private static final String BASE_PROJECT_URL = "/blob/master";
+
+	@TempDir
+	Path tempDir;
+
+	private APIModel model;
+	private File indexFile;
+	private Path shardDir;
+	private ExportMetrics metrics;
+
+	@BeforeEach
+	void init() {
+		model = APIModelSamples.create();
+		indexFile = tempDir.resolve("API.md").toFile();
+		shardDir = tempDir.resolve("API");
+		metrics = new ExportMetrics();
+	}
+
+	private boolean write(final APIModel model) throws IOException {
+		return new ShardedMarkdownWriter(false, 0, null, metrics).write(model, indexFile, BASE_PROJECT_URL);
+	}
+
+	private APIModel selectController(final String controllerClassName) {
+		return model.select(model.getEndpoints().stream()
+		        .filter(e -> e.getControllerClassName().equals(controllerClassName))
+		        .collect(Collectors.toUnmodifiableList()));
+	}
+
+	private String read(final String shardFileName) throws IOException {
+		return Files.readString(shardDir.resolve(shardFileName), UTF_8);
+	}
+
+	@Test
+	void testWrite() throws IOException {
+		assertTrue(write(model));
+		assertEquals("ItemController.md\nStatusController.md\n", read(MANIFEST_FILE_NAME));
+		/**
+		 * Index, then each shard
+		 */
+		assertEquals(3, metrics.getCount(RENDER));
+
+		final var index = Files.readString(indexFile.toPath(), UTF_8);
+		assertTrue(index.startsWith("# REST API"));
+		assertTrue(index.contains("### [ItemController](API/ItemController.md)"));
+		assertTrue(index.contains("### [StatusController](API/StatusController.md)"));
+		final var getItem = model.getEndpoints().get(0);
+		assertTrue(index.contains("(API/ItemController.md#" + getItem.getAnchor() + ")"));
+
+		final var itemShard = read("ItemController.md");
+		assertTrue(itemShard.startsWith("# REST API: ItemController"));
+		assertTrue(itemShard.contains("(../API.md)"));
+		assertTrue(itemShard.contains("Get one item, with its children"));
+		assertFalse(itemShard.contains("Always up"));
+		assertTrue(read("StatusController.md").contains("Always up"));
+	}
+
+	@Test
+	void testWrite_unchanged() throws IOException {
+		assertTrue(write(model));
+		final var lastModified = Files.getLastModifiedTime(shardDir.resolve("ItemController.md"));
+		assertFalse(write(model));
+		assertEquals(lastModified, Files.getLastModifiedTime(shardDir.resolve("ItemController.md")));
+	}
+
+	@Test
+	void testWrite_parallel() throws IOException {
+		final var parallelIndex = tempDir.resolve("parallel").resolve("API.md").toFile();
+		Files.createDirectories(parallelIndex.toPath().getParent());
+		assertTrue(new ShardedMarkdownWriter(true, 3, null, metrics).write(model, parallelIndex, BASE_PROJECT_URL));
+		assertTrue(new ShardedMarkdownWriter(false, 3, null, metrics).write(model, indexFile, BASE_PROJECT_URL));
+
+		for (final var name : List.of("ItemController.md", "StatusController.md", MANIFEST_FILE_NAME)) {
+			assertEquals(read(name), Files.readString(tempDir.resolve("parallel/API").resolve(name), UTF_8));
+		}
+		assertEquals(Files.readString(indexFile.toPath(), UTF_8), Files.readString(parallelIndex.toPath(), UTF_8));
+	}
+
+	@Test
+	void testWrite_removedController() throws IOException {
+		assertTrue(write(model));
+		Files.writeString(shardDir.resolve("notes.md"), "Not a shard", UTF_8);
+
+		assertTrue(write(selectController(ITEM_CONTROLLER)));
+		assertFalse(Files.exists(shardDir.resolve("StatusController.md")));
+		assertTrue(Files.exists(shardDir.resolve("ItemController.md")));
+		assertTrue(Files.exists(shardDir.resolve("notes.md")));
+		assertEquals("ItemController.md\n", read(MANIFEST_FILE_NAME));
+		assertFalse(Files.readString(indexFile.toPath(), UTF_8).contains("StatusController"));
+
+		assertFalse(write(selectController(ITEM_CONTROLLER)));
+	}
+
+	@Test
+	void testWrite_manifestOutsideFile() throws IOException {
+		final var outside = tempDir.resolve("outside.md");
+		Files.writeString(outside, "Not a shard", UTF_8);
+		Files.createDirectories(shardDir);
+		Files.writeString(shardDir.resolve(MANIFEST_FILE_NAME), "../outside.md\n", UTF_8);
+
+		assertTrue(write(model));
+		assertTrue(Files.exists(outside));
+	}
+
+	@Test
+	void testWrite_sameSimpleName() throws IOException {
+		final var endpoints = new ArrayList<>(model.getEndpoints());
+		endpoints.add(endpoint("other.ItemController", "getOther", "GET", "/other").build());
+		assertTrue(write(new APIModel(endpoints, model.getDtos())));
+
+		assertEquals("ItemController.md\nStatusController.md\nItemController_2.md\n", read(MANIFEST_FILE_NAME));
+		assertTrue(read("ItemController_2.md").contains("getOther"));
+		assertFalse(read("ItemController.md").contains("getOther"));
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceFilesTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path writeSource(final Path sourceDirectory, final String relativePath) throws IOException {
+		final var file = sourceDirectory.resolve(relativePath);
+		Files.createDirectories(file.getParent());
+		return Files.writeString(file, relativePath, UTF_8);
+	}
+
+	@Test
+	void testToRelativePath() {
+		final var file = tempDir.resolve("src/main/java/demo/Item.java").toFile();
+		assertEquals("src/main/java/demo/Item.java", SourceFiles.toRelativePath(file, tempDir));
+		assertEquals("src/main/java/demo/Item.java", SourceFiles.toRelativePath(file, tempDir.resolve("src/..")));
+		assertEquals("../other/demo/Item.java", SourceFiles.toRelativePath(
+		        tempDir.resolve("other/demo/Item.java").toFile(), tempDir.resolve("project")));
+		assertEquals("src/main/java/demo/Item.java", SourceFiles.toRelativePath(
+		        new File("src/main/java/demo/Item.java"), Path.of("")));
+	}
+
+	@Test
+	void testHashSourceFiles() throws IOException {
+		final var mainDirectory = tempDir.resolve("src/main/java");
+		final var generatedDirectory = tempDir.resolve("target/generated-sources");
+		final var item = writeSource(mainDirectory, "demo/Item.java");
+		writeSource(mainDirectory, "demo/README.txt");
+		final var generated = writeSource(generatedDirectory, "demo/Generated.java");
+
+		final var hashes = SourceFiles.hashSourceFiles(List.of(mainDirectory.toFile(), generatedDirectory.toFile(),
+		        tempDir.resolve("missing").toFile()), tempDir);
+		assertEquals(List.of("src/main/java/demo/Item.java", "target/generated-sources/demo/Generated.java"),
+		        List.copyOf(hashes.keySet()));
+		assertEquals(SourceFiles.hashFile(item), hashes.get("src/main/java/demo/Item.java"));
+		assertEquals(SourceFiles.hashFile(generated), hashes.get("target/generated-sources/demo/Generated.java"));
+	}
+
+	@Test
+	void testFindSourceFile() throws IOException {
+		final var mainDirectory = tempDir.resolve("src/main/java");
+		final var otherDirectory = tempDir.resolve("src/other/java");
+		final var item = writeSource(mainDirectory, "demo/Item.java");
+		writeSource(otherDirectory, "demo/Item.java");
+		final var sourceDirectories = List.of(mainDirectory.toFile(), otherDirectory.toFile());
+
+		assertEquals(Optional.of(item.toFile()), SourceFiles.findSourceFile("demo.Item", sourceDirectories));
+		assertEquals(Optional.of(item.toFile()), SourceFiles.findSourceFile("demo.Item$Nested", sourceDirectories));
+		assertTrue(SourceFiles.findSourceFile("demo.Missing", sourceDirectories).isEmpty());
+		assertTrue(SourceFiles.findSourceFile(int.class, sourceDirectories).isEmpty());
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import javax.tools.ToolProvider;
+
+/**
+ * Make the sources of a large synthetic REST API, with a configurable shape: the controllers, and their DTOs (deep,
+ * wide, recursive, generic), with @CheckBefore rights on each endpoint. All is in the PACKAGE package.
+ */
+class SyntheticAPIGenerator {
+
+	static final String PACKAGE = "synthetic.api";
+	private static final String[] VERBS = { "Get", "Post", "Put", "Delete", "Patch" };
+	private static final String[] VALUE_TYPES = { "String", "int", "List<String>", "Map<String, String>", "long" };
+
+	private final int endpoints;
+	private int endpointsByController;
+	private int dtoDepth;
+	private int dtoWidth;
+	private boolean recursiveDtos;
+	private boolean genericDtos;
+	private int checkBeforeCount;
+
+	/**
+	 * @param endpoints from 10 to 10 000 (or more)
+	 */
+	SyntheticAPIGenerator(final int endpoints) {
+		if (endpoints < 1) {
+			throw new IllegalArgumentException("Invalid endpoints count: " + endpoints);
+		}
+		this.endpoints = endpoints;
+		endpointsByController = 20;
+		dtoDepth = 3;
+		dtoWidth = 10;
+		recursiveDtos = true;
+		genericDtos = true;
+		checkBeforeCount = 2;
+	}
+
+	SyntheticAPIGenerator endpointsByController(final int endpointsByController) {
+		this.endpointsByController = Math.max(1, endpointsByController);
+		return this;
+	}
+
+	/**
+	 * @param dtoDepth the nested DTO levels under each root DTO
+	 */
+	SyntheticAPIGenerator dtoDepth(final int dtoDepth) {
+		this.dtoDepth = Math.max(0, dtoDepth);
+		return this;
+	}
+
+	/**
+	 * @param dtoWidth the value fields count of each root DTO
+	 */
+	SyntheticAPIGenerator dtoWidth(final int dtoWidth) {
+		this.dtoWidth = Math.max(0, dtoWidth);
+		return this;
+	}
+
+	/**
+	 * @param recursiveDtos add to each root DTO a field to itself, and to its deepest level a field to the root.
+	 */
+	SyntheticAPIGenerator recursiveDtos(final boolean recursiveDtos) {
+		this.recursiveDtos = recursiveDtos;
+		return this;
+	}
+
+	/**
+	 * @param genericDtos add to each root DTO a Page&lt;T&gt; field
+	 */
+	SyntheticAPIGenerator genericDtos(final boolean genericDtos) {
+		this.genericDtos = genericDtos;
+		return this;
+	}
+
+	/**
+	 * @param checkBeforeCount the rights count on each endpoint
+	 */
+	SyntheticAPIGenerator checkBeforeCount(final int checkBeforeCount) {
+		this.checkBeforeCount = Math.max(0, checkBeforeCount);
+		return this;
+	}
+
+	int getEndpoints() {
+		return endpoints;
+	}
+
+	/**
+	 * Each endpoint responds with a root DTO shared with another endpoint.
+	 */
+	int getRootDtoCount() {
+		return endpoints / 2 + 1;
+	}
+
+	/**
+	 * @return the qualified names of the created controllers
+	 */
+	List<String> generate(final Path sourceDirectory) throws IOException {
+		final var packageDirectory = sourceDirectory.resolve(PACKAGE.replace('.', '/'));
+		Files.createDirectories(packageDirectory);
+
+		writePage(packageDirectory);
+		for (var dto = 0; dto < getRootDtoCount(); dto++) {
+			writeRootDto(packageDirectory, dto);
+			for (var level = 1; level <= dtoDepth; level++) {
+				writeLevelDto(packageDirectory, dto, level);
+			}
+		}
+
+		final var controllers = new ArrayList<String>();
+		final var controllerCount = (endpoints + endpointsByController - 1) / endpointsByController;
+		for (var controller = 0; controller < controllerCount; controller++) {
+			final var first = controller * endpointsByController;
+			final var last = Math.min(endpoints, first + endpointsByController);
+			controllers.add(writeController(packageDirectory, controller, first, last));
+		}
+		return controllers;
+	}
+
+	/**
+	 * Compile all the sources, with the current classpath.
+	 */
+	static void compile(final Path sourceDirectory, final Path classesDirectory) throws IOException {
+		final var compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("No Java compiler in this runtime, a JDK is needed");
+		}
+		Files.createDirectories(classesDirectory);
+		final List<Path> sources;
+		try (final var walk = Files.walk(sourceDirectory)) {
+			sources = walk.filter(f -> f.toString().endsWith(".java")).collect(Collectors.toUnmodifiableList());
+		}
+		try (final var fileManager = compiler.getStandardFileManager(null, Locale.ENGLISH, UTF_8)) {
+			final var errors = new StringWriter();
+			final var options = List.of("-d", classesDirectory.toString(),
+			        "-classpath", System.getProperty("java.class.path"),
+			        "-proc:none", "-nowarn", "-encoding", "UTF-8");
+			final var units = fileManager.getJavaFileObjectsFromFiles(sources.stream()
+			        .map(Path::toFile)
+			        .collect(Collectors.toUnmodifiableList()));
+			if (compiler.getTask(errors, fileManager, null, options, null, units).call() == false) {
+				throw new IllegalStateException("Can't compile synthetic API: " + errors);
+			}
+		}
+	}
+
+	private static String capitalize(final String name) {
+		return name.substring(0, 1).toUpperCase(Locale.ENGLISH) + name.substring(1);
+	}
+
+	/**
+	 * @param fields type, name, type, name...
+	 */
+	private static void writeClass(final Path packageDirectory,
+	                               final String className,
+	                               final String comment,
+	                               final List<String> fields) throws IOException {
+		final var sb = new StringBuilder();
+		sb.append("package " + PACKAGE + ";\n\n");
+		sb.append("import java.util.List;\n");
+		sb.append("import java.util.Map;\n\n");
+		sb.append("/**\n * " + comment + "\n */\n");
+		sb.append("public class " + className + " {\n\n");
+		for (var pos = 0; pos < fields.size(); pos += 2) {
+			sb.append("\tprivate " + fields.get(pos) + " " + fields.get(pos + 1) + ";\n");
+		}
+		for (var pos = 0; pos < fields.size(); pos += 2) {
+			final var type = fields.get(pos);
+			final var name = fields.get(pos + 1);
+			sb.append("\n\tpublic " + type + " get" + capitalize(name) + "() {\n");
+			sb.append("\t\treturn " + name + ";\n\t}\n");
+			sb.append("\n\tpublic void set" + capitalize(name) + "(final " + type + " " + name + ") {\n");
+			sb.append("\t\tthis." + name + " = " + name + ";\n\t}\n");
+		}
+		sb.append("}\n");
+		Files.writeString(packageDirectory.resolve(className.replaceAll("<.*>", "") + ".java"), sb, UTF_8);
+	}
+
+	private static void writePage(final Path packageDirectory) throws IOException {
+		writeClass(packageDirectory, "Page<T>", "A generic DTO",
+		        List.of("List<T>", "items", "T", "first", "int", "total"));
+	}
+
+	private static String rootDtoName(final int dto) {
+		return "Dto" + dto;
+	}
+
+	private static String levelDtoName(final int dto, final int level) {
+		return "Dto" + dto + "Level" + level;
+	}
+
+	private void writeRootDto(final Path packageDirectory, final int dto) throws IOException {
+		final var fields = new ArrayList<String>();
+		for (var pos = 0; pos < dtoWidth; pos++) {
+			fields.add(VALUE_TYPES[pos % VALUE_TYPES.length]);
+			fields.add("value" + pos);
+		}
+		if (dtoDepth > 0) {
+			fields.add(levelDtoName(dto, 1));
+			fields.add("child");
+		}
+		if (recursiveDtos) {
+			fields.add(rootDtoName(dto));
+			fields.add("parent");
+		}
+		if (genericDtos) {
+			fields.add(dtoDepth > 0 ? "Page<" + levelDtoName(dto, 1) + ">" : "Page<String>");
+			fields.add("page");
+		}
+		writeClass(packageDirectory, rootDtoName(dto), "Root DTO " + dto, fields);
+	}
+
+	private void writeLevelDto(final Path packageDirectory, final int dto, final int level) throws IOException {
+		final var fields = new ArrayList<String>(List.of("String", "name", "int", "level"));
+		if (level < dtoDepth) {
+			fields.add(levelDtoName(dto, level + 1));
+			fields.add("next");
+		} else if (recursiveDtos) {
+			fields.add(rootDtoName(dto));
+			fields.add("root");
+		}
+		writeClass(packageDirectory, levelDtoName(dto, level), "Level " + level + " of DTO " + dto, fields);
+	}
+
+	/**
+	 * @return the controller qualified name
+	 */
+	private String writeController(final Path packageDirectory,
+	                               final int controller,
+	                               final int firstEndpoint,
+	                               final int lastEndpoint) throws IOException {
+		final var className = "Controller" + controller;
+		final var sb = new StringBuilder();
+		sb.append("package " + PACKAGE + ";\n\n");
+		sb.append("import org.springframework.http.ResponseEntity;\n");
+		sb.append("import org.springframework.web.bind.annotation.*;\n\n");
+		sb.append("import tv.hd3g.commons.authkit.CheckBefore;\n\n");
+		sb.append("/**\n * Synthetic controller " + controller + "\n */\n");
+		sb.append("@RestController\n");
+		sb.append("@RequestMapping(value = \"/api/c" + controller + "\", produces = \"application/json\")\n");
+		sb.append("public class " + className + " {\n");
+
+		for (var endpoint = firstEndpoint; endpoint < lastEndpoint; endpoint++) {
+			final var verb = VERBS[endpoint % VERBS.length];
+			final var withBody = verb.equals("Post") || verb.equals("Put") || verb.equals("Patch");
+			sb.append("\n\t/**\n\t * Endpoint " + endpoint + " comment\n\t */\n");
+			sb.append("\t@" + verb + "Mapping(name = \"Endpoint " + endpoint + "\", value = \"e" + endpoint
+			          + "/{id}\")\n");
+			if (checkBeforeCount > 0) {
+				final var rights = new ArrayList<String>();
+				for (var right = 0; right < checkBeforeCount; right++) {
+					rights.add("\"right" + (endpoint + right) % 50 + "\"");
+				}
+				sb.append("\t@CheckBefore({ " + String.join(", ", rights) + " })\n");
+			}
+			sb.append("\tpublic ResponseEntity<" + rootDtoName(endpoint % getRootDtoCount()) + "> endpoint"
+			          + endpoint + "(@PathVariable(\"id\") final String id,\n");
+			sb.append("\t\t\t@RequestParam(defaultValue = \"0\") final int page");
+			if (withBody) {
+				sb.append(",\n\t\t\t@RequestBody final " + rootDtoName((endpoint + 1) % getRootDtoCount()) + " body");
+			}
+			sb.append(") {\n\t\treturn null;\n\t}\n");
+		}
+		sb.append("}\n");
+		Files.writeString(packageDirectory.resolve(className + ".java"), sb, UTF_8);
+		return PACKAGE + "." + className;
+	}
+
+}
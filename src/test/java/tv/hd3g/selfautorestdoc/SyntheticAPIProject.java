@@ -0,0 +1,111 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+
+/**
+ * A synthetic API, generated and compiled in a directory. Its analysis runs with a class loader on its classes, like
+ * in ScaleRegressionTest: Spoon will load the DTOs classes from it.
+ */
+class SyntheticAPIProject implements AutoCloseable {
+
+	private final Path baseDirectory;
+	private final Path sourceDirectory;
+	private final List<String> controllers;
+	private final URLClassLoader classLoader;
+
+	SyntheticAPIProject(final SyntheticAPIGenerator generator, final Path baseDirectory) throws IOException {
+		this.baseDirectory = baseDirectory;
+		sourceDirectory = baseDirectory.resolve("src");
+		final var classesDirectory = baseDirectory.resolve("classes");
+		controllers = generator.generate(sourceDirectory);
+		SyntheticAPIGenerator.compile(sourceDirectory, classesDirectory);
+		classLoader = new URLClassLoader(new URL[] { classesDirectory.toUri().toURL() }, getClass().getClassLoader());
+	}
+
+	Path getSourceDirectory() {
+		return sourceDirectory;
+	}
+
+	/**
+	 * @return the qualified names of the controllers
+	 */
+	List<String> getControllers() {
+		return controllers;
+	}
+
+	/**
+	 * @param className like Controller0 or Dto0, in SyntheticAPIGenerator.PACKAGE
+	 */
+	Path getSourceFile(final String className) {
+		return sourceDirectory.resolve(SyntheticAPIGenerator.PACKAGE.replace('.', '/')).resolve(className + ".java");
+	}
+
+	/**
+	 * Only change the source file, not the compiled class.
+	 */
+	void replaceInSource(final String className, final String target, final String replacement) throws IOException {
+		final var sourceFile = getSourceFile(className);
+		final var source = Files.readString(sourceFile, UTF_8);
+		if (source.contains(target) == false) {
+			throw new IllegalArgumentException("Can't found \"" + target + "\" in " + sourceFile);
+		}
+		Files.writeString(sourceFile, source.replace(target, replacement), UTF_8);
+	}
+
+	/**
+	 * @param setup to configure the SelfAutoRESTDoc before the analysis. The source directory, the base directory and
+	 *        the controllers are already set, and the prebuilt model is disabled.
+	 */
+	APIModel getAPIModel(final Consumer<SelfAutoRESTDoc> setup) throws IOException {
+		final var currentThread = Thread.currentThread();
+		final var previousClassLoader = currentThread.getContextClassLoader();
+		try {
+			currentThread.setContextClassLoader(classLoader);
+			final var selfAutoRESTDoc = new SelfAutoRESTDoc();
+			selfAutoRESTDoc.setSourceDirectories(List.of(sourceDirectory.toFile()));
+			selfAutoRESTDoc.setBaseDirectory(baseDirectory.toFile());
+			selfAutoRESTDoc.setUsePrebuiltModel(false);
+			for (final var controller : controllers) {
+				selfAutoRESTDoc.registerClass(classLoader.loadClass(controller));
+			}
+			setup.accept(selfAutoRESTDoc);
+			return selfAutoRESTDoc.getAPIModel();
+		} catch (final ClassNotFoundException e) {
+			throw new IllegalStateException("Can't load a synthetic controller", e);
+		} finally {
+			currentThread.setContextClassLoader(previousClassLoader);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		classLoader.close();
+	}
+
+}
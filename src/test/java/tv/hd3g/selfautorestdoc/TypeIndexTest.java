@@ -0,0 +1,87 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import spoon.Launcher;
+import spoon.reflect.declaration.CtType;
+
+class TypeIndexTest {
+
+	static class Nested {
+		static class Deeper {
+		}
+	}
+
+	@TempDir
+	Path tempDir;
+
+	private TypeIndex typeIndex;
+
+	/**
+	 * A Spoon model with only the declarations of this test class
+	 */
+	@BeforeEach
+	void init() throws IOException {
+		final var packageDirectory = Files.createDirectories(tempDir.resolve("tv/hd3g/selfautorestdoc"));
+		Files.writeString(packageDirectory.resolve("TypeIndexTest.java"), String.join("\n",
+		        "package tv.hd3g.selfautorestdoc;",
+		        "class TypeIndexTest {",
+		        "	static class Nested {",
+		        "		static class Deeper {",
+		        "		}",
+		        "	}",
+		        "}"), UTF_8);
+		final var launcher = new Launcher();
+		launcher.addInputResource(tempDir.toString());
+		launcher.buildModel();
+		typeIndex = new TypeIndex(launcher.getModel());
+	}
+
+	@Test
+	void testGet() {
+		assertEquals(3, typeIndex.size());
+		assertEquals(TypeIndexTest.class.getName(),
+		        typeIndex.get(TypeIndexTest.class).map(CtType::getQualifiedName).orElseThrow());
+		assertEquals(Nested.class.getName(),
+		        typeIndex.get(Nested.class).map(CtType::getQualifiedName).orElseThrow());
+		assertEquals(Nested.Deeper.class.getName(),
+		        typeIndex.get(Nested.Deeper.class).map(CtType::getQualifiedName).orElseThrow());
+		assertTrue(typeIndex.get(String.class).isEmpty());
+	}
+
+	@Test
+	void testCounts() {
+		typeIndex.get(Nested.Deeper.class);
+		typeIndex.get(String.class);
+		typeIndex.get(Nested.Deeper.class);
+		assertEquals(3, typeIndex.getLookupCount());
+		assertEquals(2, typeIndex.getHitCount());
+	}
+
+}
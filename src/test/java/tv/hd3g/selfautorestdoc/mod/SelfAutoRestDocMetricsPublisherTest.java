@@ -0,0 +1,116 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.mod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import tv.hd3g.selfautorestdoc.model.APIModel;
+import tv.hd3g.selfautorestdoc.model.APIModelSamples;
+
+class SelfAutoRestDocMetricsPublisherTest {
+
+	private static final String PREFIX = "selfautorestdoc.export";
+
+	@TempDir
+	Path tempDir;
+	@Mock
+	private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+	private SelfAutoRestDocEndpointsListener endpointsListener;
+	private MeterRegistry registry;
+	private APIModel model;
+	private File outputFile;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		Mockito.doCallRealMethod().when(meterRegistryProvider).ifAvailable(any());
+		endpointsListener = new SelfAutoRestDocEndpointsListener("", false, false, 1, false, "markdown", false, 0);
+		registry = new SimpleMeterRegistry();
+		model = APIModelSamples.create();
+		outputFile = tempDir.resolve("API.md").toFile();
+	}
+
+	private void export() throws IOException {
+		endpointsListener.getSelfAutoRESTDoc().writeAll(model, outputFile, "/blob/master");
+	}
+
+	@Test
+	void testPublish() throws IOException {
+		Mockito.when(meterRegistryProvider.getIfAvailable()).thenReturn(registry);
+		new SelfAutoRestDocMetricsPublisher(endpointsListener, meterRegistryProvider);
+		export();
+
+		final var write = registry.get(PREFIX + ".phase").tag("phase", "write").timer();
+		assertEquals(1, write.count());
+		assertEquals(1, registry.get(PREFIX + ".phase").tag("phase", "render").timer().count());
+		assertEquals(1, registry.get(PREFIX + ".phase.allocated").tag("phase", "write").summary().count());
+		/**
+		 * No analysis: no model_build phase
+		 */
+		assertNull(registry.find(PREFIX + ".phase").tag("phase", "model_build").timer());
+
+		final var endpoints = registry.get(PREFIX + ".endpoints").summary();
+		assertEquals(model.getEndpoints().size(), endpoints.totalAmount());
+		assertEquals(model.getDtos().size(), registry.get(PREFIX + ".dtos").summary().totalAmount());
+		assertEquals(1, registry.get(PREFIX + ".heap.peak").summary().count());
+		assertEquals(1, registry.get(PREFIX + ".heap.after-last-gc").summary().count());
+		final var dtoShapeHits = registry.get(PREFIX + ".cache").tag("cache", "dtoshape").tag("result", "hit");
+		assertEquals(0, dtoShapeHits.counter().count());
+		final var analysisMisses = registry.get(PREFIX + ".cache").tag("cache", "analysis").tag("result", "miss");
+		assertEquals(0, analysisMisses.counter().count());
+		assertEquals(8, registry.get(PREFIX + ".cache").counters().size());
+
+		/**
+		 * The same meters, for each export
+		 */
+		export();
+		assertEquals(2, write.count());
+		assertEquals(2, endpoints.count());
+		assertEquals(2L * model.getEndpoints().size(), endpoints.totalAmount());
+	}
+
+	@Test
+	void testPublish_noRegistry() throws IOException {
+		new SelfAutoRestDocMetricsPublisher(endpointsListener, meterRegistryProvider);
+		export();
+		/**
+		 * Only logged
+		 */
+		Mockito.verify(meterRegistryProvider, Mockito.times(1)).getIfAvailable();
+		assertTrue(outputFile.exists());
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.mod;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpHeaders.VARY;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+import tv.hd3g.selfautorestdoc.APIDocWriter;
+import tv.hd3g.selfautorestdoc.SelfAutoRESTDoc;
+
+class SelfAutoRestDocWebControllerTest {
+
+	private static final String BASE_PROJECT_URL = "/blob/master";
+	private static final String CONTENT = "# REST API\n\nSome content, some content, some content.\n";
+
+	@Mock
+	private SelfAutoRestDocEndpointsListener endpointsListener;
+	@Mock
+	private SelfAutoRESTDoc selfAutoRESTDoc;
+	@Mock
+	private ApplicationContext applicationContext;
+	@Mock
+	private ApplicationContext otherApplicationContext;
+	@Mock
+	private APIDocWriter writer;
+	@Mock
+	private WebRequest webRequest;
+
+	private SelfAutoRestDocWebController controller;
+
+	@BeforeEach
+	void init() throws Exception {
+		MockitoAnnotations.openMocks(this).close();
+		Mockito.when(endpointsListener.getSelfAutoRESTDoc()).thenReturn(selfAutoRESTDoc);
+		Mockito.when(writer.getFileExtension()).thenReturn("md");
+		Mockito.when(writer.getMediaType()).thenReturn("text/markdown");
+		Mockito.when(selfAutoRESTDoc.makeAll(BASE_PROJECT_URL)).thenReturn(Map.of(writer, CONTENT));
+		controller = new SelfAutoRestDocWebController(endpointsListener, applicationContext, BASE_PROJECT_URL);
+	}
+
+	@AfterEach
+	void end() {
+		controller.destroy();
+	}
+
+	/**
+	 * The documents are made in background, after the context refresh.
+	 */
+	private void refreshAndWait() throws InterruptedException {
+		controller.onApplicationEvent(new ContextRefreshedEvent(applicationContext));
+		for (var pos = 0; pos < 500; pos++) {
+			if (controller.getDocument("md", null, webRequest).getStatusCode() != SERVICE_UNAVAILABLE) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private static byte[] gunzip(final byte[] content) throws IOException {
+		try (final var in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			return in.readAllBytes();
+		}
+	}
+
+	@Test
+	void testGetDocument_notReady() {
+		final var response = controller.getDocument("md", null, webRequest);
+		assertEquals(SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals("5", response.getHeaders().getFirst(RETRY_AFTER));
+	}
+
+	@Test
+	void testGetDocument_otherContext() throws Exception {
+		controller.onApplicationEvent(new ContextRefreshedEvent(otherApplicationContext));
+		Mockito.verify(endpointsListener, Mockito.never()).getSelfAutoRESTDoc();
+		assertEquals(SERVICE_UNAVAILABLE, controller.getDocument("md", null, webRequest).getStatusCode());
+	}
+
+	@Test
+	void testGetDocument() throws Exception {
+		refreshAndWait();
+
+		final var response = controller.getDocument("md", "deflate", webRequest);
+		assertEquals(OK, response.getStatusCode());
+		assertArrayEquals(CONTENT.getBytes(UTF_8), response.getBody());
+		assertEquals(new MediaType(MediaType.parseMediaType("text/markdown"), UTF_8),
+		        response.getHeaders().getContentType());
+		assertTrue(response.getHeaders().getETag().startsWith("\""));
+		assertFalse(response.getHeaders().getETag().contains("gzip"));
+		assertEquals(ACCEPT_ENCODING, response.getHeaders().getFirst(VARY));
+		assertNull(response.getHeaders().getFirst(CONTENT_ENCODING));
+	}
+
+	@Test
+	void testGetDocument_gzip() throws Exception {
+		refreshAndWait();
+		final var raw = controller.getDocument("md", null, webRequest);
+
+		final var response = controller.getDocument("md", "deflate, gzip;q=0.8", webRequest);
+		assertEquals(OK, response.getStatusCode());
+		assertEquals("gzip", response.getHeaders().getFirst(CONTENT_ENCODING));
+		assertEquals(ACCEPT_ENCODING, response.getHeaders().getFirst(VARY));
+		assertArrayEquals(CONTENT.getBytes(UTF_8), gunzip(response.getBody()));
+		/**
+		 * Each representation has its own strong ETag
+		 */
+		final var eTag = response.getHeaders().getETag();
+		assertEquals(raw.getHeaders().getETag().replace("\"", "") + "-gzip", eTag.replace("\"", ""));
+	}
+
+	@Test
+	void testGetDocument_notModified() throws Exception {
+		refreshAndWait();
+		final var eTag = controller.getDocument("md", null, webRequest).getHeaders().getETag();
+
+		Mockito.when(webRequest.checkNotModified(eTag)).thenReturn(true);
+		final var notModified = controller.getDocument("md", null, webRequest);
+		assertEquals(NOT_MODIFIED, notModified.getStatusCode());
+		assertEquals(eTag, notModified.getHeaders().getETag());
+		assertEquals(ACCEPT_ENCODING, notModified.getHeaders().getFirst(VARY));
+		assertNull(notModified.getBody());
+		/**
+		 * The gzip ETag is not the same: the gzip body is sent
+		 */
+		assertEquals(OK, controller.getDocument("md", "gzip", webRequest).getStatusCode());
+	}
+
+	@Test
+	void testGetDocument_notFound() throws Exception {
+		refreshAndWait();
+		assertEquals(NOT_FOUND, controller.getDocument("html", null, webRequest).getStatusCode());
+	}
+
+	@Test
+	void testAcceptsGzip() {
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip(null));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip(""));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("gzip"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("GZIP"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("x-gzip"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("deflate, gzip;q=0.8"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("deflate, gzip; Q=0.5"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("*"));
+		assertTrue(SelfAutoRestDocWebController.acceptsGzip("br;q=1.0, *;q=0.1"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("deflate, br"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("gzip;q=0"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("gzip;q=0.0, *"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("*;q=0"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("gzip;q=nope"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("x-gzip-foo"));
+		assertFalse(SelfAutoRestDocWebController.acceptsGzip("gzipfoo"));
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class APIModelCodecTest {
+
+	@TempDir
+	Path tempDir;
+
+	private APIModel model;
+	private byte[] bytes;
+
+	@BeforeEach
+	void init() {
+		model = APIModelSamples.create();
+		bytes = APIModelCodec.toBytes(model);
+	}
+
+	@Test
+	void testToBytes() throws IOException {
+		assertEquals(model, APIModelCodec.read(ByteBuffer.wrap(bytes)));
+		assertArrayEquals(bytes, APIModelCodec.toBytes(APIModelSamples.create()));
+		assertEquals(APIModel.EMPTY, APIModelCodec.read(ByteBuffer.wrap(APIModelCodec.toBytes(APIModel.EMPTY))));
+	}
+
+	@Test
+	void testToBytes_controllerWithoutEndpoint() throws IOException {
+		final var withEmpty = new APIModel(model.getEndpoints(), model.getDtos(), List.of("demo.EmptyController"));
+		final var read = APIModelCodec.read(ByteBuffer.wrap(APIModelCodec.toBytes(withEmpty)));
+		assertEquals(withEmpty, read);
+		assertEquals(List.of("demo.EmptyController", APIModelSamples.ITEM_CONTROLLER,
+		        APIModelSamples.STATUS_CONTROLLER), read.getControllerClassNames());
+	}
+
+	@Test
+	void testReadWrite_file() throws IOException {
+		final var file = tempDir.resolve("model.bin");
+		Files.writeString(file, "Some previous and longer content, truncated by the new model ".repeat(20));
+		APIModelCodec.write(model, file);
+		assertArrayEquals(bytes, Files.readAllBytes(file));
+		assertEquals(model, APIModelCodec.read(file));
+	}
+
+	@Test
+	void testReadWrite_stream() throws IOException {
+		final var out = new ByteArrayOutputStream();
+		out.write(1);
+		APIModelCodec.write(model, out);
+		final var written = out.toByteArray();
+		assertArrayEquals(bytes, Arrays.copyOfRange(written, 1, written.length));
+
+		final var in = new ByteArrayInputStream(written);
+		assertEquals(1, in.read());
+		assertEquals(model, APIModelCodec.read(in));
+		assertEquals(-1, in.read());
+	}
+
+	@Test
+	void testRead_bufferPosition() throws IOException {
+		final var buffer = ByteBuffer.allocate(bytes.length + 3);
+		buffer.put(new byte[] { 1, 2, 3 }).put(bytes).flip().position(3);
+		assertEquals(model, APIModelCodec.read(buffer));
+	}
+
+	@Test
+	void testRead_truncated() {
+		for (var size = 0; size < bytes.length; size++) {
+			final var truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, size));
+			final var e = assertThrows(IOException.class, () -> APIModelCodec.read(truncated));
+			assertTrue(e.getMessage().endsWith("API model file"), e.getMessage());
+		}
+	}
+
+	@Test
+	void testRead_badMagic() {
+		final var badMagic = bytes.clone();
+		badMagic[0] = 'X';
+		final var e = assertThrows(IOException.class, () -> APIModelCodec.read(ByteBuffer.wrap(badMagic)));
+		assertEquals("Not an API model file", e.getMessage());
+
+		assertThrows(IOException.class,
+		        () -> APIModelCodec.read(new ByteArrayInputStream("# REST API".getBytes(UTF_8))));
+	}
+
+	@Test
+	void testRead_badVersion() {
+		final var badVersion = bytes.clone();
+		/**
+		 * Just after the 4 bytes magic, a one byte varint
+		 */
+		badVersion[4] = APIModelCodec.VERSION + 1;
+		final var e = assertThrows(IOException.class, () -> APIModelCodec.read(ByteBuffer.wrap(badVersion)));
+		assertEquals("Unsupported API model file version: " + (APIModelCodec.VERSION + 1), e.getMessage());
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.LIST;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.MAP;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.VALUE;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small API models for the tests, made without any analysis.
+ */
+public final class APIModelSamples {
+
+	public static final String ITEM_CONTROLLER = "demo.ItemController";
+	public static final String STATUS_CONTROLLER = "demo.StatusController";
+
+	private APIModelSamples() {
+	}
+
+	/**
+	 * @param controllerClassName like demo.ItemController
+	 */
+	public static APIEndpoint.Builder endpoint(final String controllerClassName,
+	                                           final String methodName,
+	                                           final String verb,
+	                                           final String path) {
+		final var simpleName = controllerClassName.substring(controllerClassName.lastIndexOf('.') + 1);
+		return new APIEndpoint.Builder()
+		        .verbs(List.of(verb))
+		        .paths(List.of(path))
+		        .controllerSimpleName(simpleName)
+		        .controllerClassName(controllerClassName)
+		        .controllerFullPath("src/main/java/" + controllerClassName.replace('.', '/') + ".java")
+		        .methodName(methodName);
+	}
+
+	/**
+	 * @return an Item DTO (index 0), with a recursive children list, and a Page of Items (index 1)
+	 */
+	public static List<APIDto> createDtos() {
+		return List.of(
+		        new APIDto("Item", "demo.Item", List.of(
+		                new APIDtoField("children", LIST, "Item", 0),
+		                new APIDtoField("id", VALUE, "String", -1),
+		                new APIDtoField("tags", MAP, "String", -1))),
+		        new APIDto("Page", "demo.Page", List.of(
+		                new APIDtoField("items", LIST, "Item", 0),
+		                new APIDtoField("total", VALUE, "int", -1))));
+	}
+
+	/**
+	 * @return 4 endpoints in 2 controllers, with the createDtos DTOs
+	 */
+	public static APIModel create() {
+		return new APIModel(List.of(
+		        endpoint(ITEM_CONTROLLER, "getItem", "GET", "/items/{id}")
+		                .pathParameters(List.of(new APIParameter("id", "String", true, null)))
+		                .rights("read")
+		                .requestNames(List.of("Get an item"))
+		                .produces(List.of("application/json"))
+		                .responseDto(0)
+		                .lineMethodInController(20)
+		                .methodComments(List.of("Get one item, with its children"))
+		                .build(),
+		        endpoint(ITEM_CONTROLLER, "listItems", "GET", "/items")
+		                .queryParameters(List.of(new APIParameter("page", "int", false, "0")))
+		                .rights("read")
+		                .produces(List.of("application/json"))
+		                .responseDto(1)
+		                .lineMethodInController(30)
+		                .build(),
+		        endpoint(ITEM_CONTROLLER, "createItem", "POST", "/items")
+		                .rights("(write & read)")
+		                .headers(List.of("X-Request-Id"))
+		                .consumes(List.of("application/json"))
+		                .produces(List.of("application/json"))
+		                .requestBodyDto(0)
+		                .responseDto(0)
+		                .lineMethodInController(40)
+		                .build(),
+		        endpoint(STATUS_CONTROLLER, "status", "GET", "/status")
+		                .lineMethodInController(10)
+		                .methodComments(List.of("Always up"))
+		                .build()),
+		        createDtos());
+	}
+
+	/**
+	 * @return endpoints in 10 controllers, all with the createDtos DTOs: a request body on the POSTs, and a response
+	 *         on all the endpoints.
+	 */
+	public static APIModel create(final int endpoints) {
+		final var verbs = List.of("GET", "POST", "PUT", "DELETE");
+		final var result = new ArrayList<APIEndpoint>(endpoints);
+		for (var pos = 0; pos < endpoints; pos++) {
+			final var verb = verbs.get(pos % verbs.size());
+			result.add(endpoint("demo.Controller" + pos % 10, "endpoint" + pos, verb, "/api/e" + pos + "/{id}")
+			        .pathParameters(List.of(new APIParameter("id", "String", true, null)))
+			        .requestBodyDto(verb.equals("POST") ? 0 : -1)
+			        .responseDto(pos % 2)
+			        .lineMethodInController(pos)
+			        .methodComments(List.of("Endpoint " + pos))
+			        .build());
+		}
+		return new APIModel(result, createDtos());
+	}
+
+}
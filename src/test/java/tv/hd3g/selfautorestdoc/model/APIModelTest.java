@@ -0,0 +1,197 @@
+/*
+ * This file is part of SelfAutoRESTDoc.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * Copyright (C) hdsdi3g for hd3g.tv 2019
+ *
+ */
+package tv.hd3g.selfautorestdoc.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.LIST;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.MAP;
+import static tv.hd3g.selfautorestdoc.model.APIDtoField.Stratum.VALUE;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.ITEM_CONTROLLER;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.STATUS_CONTROLLER;
+import static tv.hd3g.selfautorestdoc.model.APIModelSamples.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class APIModelTest {
+
+	private static List<String> getMethodNames(final APIModel model) {
+		return model.getEndpoints().stream()
+		        .map(APIEndpoint::getMethodName)
+		        .collect(Collectors.toUnmodifiableList());
+	}
+
+	@Test
+	void testSortKey() {
+		final var endpoint = endpoint(ITEM_CONTROLLER, "listItems", "GET", "/items")
+		        .queryParameters(List.of(
+		                new APIParameter("page", "int", false, "0"),
+		                new APIParameter("name", "String", true, null)))
+		        .build();
+		assertEquals("/items?page=0&name=<String>", endpoint.getFullPaths());
+		assertEquals("/items?page=0&name=<String>GET", endpoint.getSortKey());
+	}
+
+	@Test
+	void testAnchor() {
+		final var anchor = endpoint(ITEM_CONTROLLER, "getItem", "GET", "/items/{id}").build().getAnchor();
+		assertEquals(anchor, endpoint(STATUS_CONTROLLER, "otherMethod", "GET", "/items/{id}").build().getAnchor());
+		assertNotEquals(anchor, endpoint(ITEM_CONTROLLER, "getItem", "PUT", "/items/{id}").build().getAnchor());
+		assertNotEquals(anchor, endpoint(ITEM_CONTROLLER, "getItem", "GET", "/items").build().getAnchor());
+	}
+
+	@Test
+	void testEndpointsOrder() {
+		final var model = APIModelSamples.create();
+		assertEquals(List.of("getItem", "listItems", "createItem", "status"), getMethodNames(model));
+
+		final var reversed = new ArrayList<>(model.getEndpoints());
+		Collections.reverse(reversed);
+		assertEquals(model, new APIModel(reversed, model.getDtos()));
+	}
+
+	@Test
+	void testEndpointsOrder_sameSortKey() {
+		final var endpoints = List.of(
+		        endpoint(STATUS_CONTROLLER, "a", "GET", "/status").lineMethodInController(1).build(),
+		        endpoint(ITEM_CONTROLLER, "c", "GET", "/status").lineMethodInController(1).build(),
+		        endpoint(ITEM_CONTROLLER, "b", "GET", "/status").lineMethodInController(2).build(),
+		        endpoint(ITEM_CONTROLLER, "b", "GET", "/status").lineMethodInController(1).build());
+		final var model = new APIModel(endpoints, List.of());
+
+		assertEquals(List.of("b", "b", "c", "a"), getMethodNames(model));
+		assertEquals(1, model.getEndpoints().get(0).getLineMethodInController());
+		assertEquals(2, model.getEndpoints().get(1).getLineMethodInController());
+
+		final var reversed = new ArrayList<>(endpoints);
+		Collections.reverse(reversed);
+		assertEquals(model, new APIModel(reversed, List.of()));
+	}
+
+	private static APIModel selectMethods(final APIModel model, final String... methodNames) {
+		final var names = List.of(methodNames);
+		return model.select(model.getEndpoints().stream()
+		        .filter(e -> names.contains(e.getMethodName()))
+		        .collect(Collectors.toUnmodifiableList()));
+	}
+
+	@Test
+	void testSelect() {
+		final var model = APIModelSamples.create();
+		final var selected = selectMethods(model, "listItems");
+
+		/**
+		 * Page, then Item, reached by Page
+		 */
+		assertEquals(List.of("Page", "Item"), selected.getDtos().stream()
+		        .map(APIDto::getTypeName)
+		        .collect(Collectors.toUnmodifiableList()));
+		assertEquals(0, selected.getEndpoints().get(0).getResponseDto());
+		assertEquals(1, selected.getDto(0).getFields().get(0).getDtoIndex());
+		assertEquals(1, selected.getDto(1).getFields().get(0).getDtoIndex());
+		assertEquals(model.getDto(1).getAnchor(), selected.getDto(0).getAnchor());
+
+		assertEquals(List.of(), selectMethods(model, "status").getDtos());
+	}
+
+	@Test
+	void testMerge() {
+		final var model = APIModelSamples.create();
+		assertSame(model, APIModel.merge(List.of(model)));
+		assertEquals(APIModel.EMPTY, APIModel.merge(List.of()));
+
+		/**
+		 * Item, recursive, is in the 3 models: it's kept once.
+		 */
+		final var merged = APIModel.merge(List.of(
+		        selectMethods(model, "getItem"),
+		        selectMethods(model, "listItems", "status"),
+		        selectMethods(model, "createItem")));
+		assertEquals(getMethodNames(model), getMethodNames(merged));
+		assertEquals(2, merged.getDtos().size());
+
+		final var item = merged.getEndpoints().get(0).getResponseDto();
+		assertEquals("Item", merged.getDto(item).getTypeName());
+		assertEquals(item, merged.getDto(item).getFields().get(0).getDtoIndex());
+		final var page = merged.getDto(merged.getEndpoints().get(1).getResponseDto());
+		assertEquals(item, page.getFields().get(0).getDtoIndex());
+		final var createItem = merged.getEndpoints().get(2);
+		assertEquals(item, createItem.getRequestBodyDto());
+		assertEquals(item, createItem.getResponseDto());
+	}
+
+	@Test
+	void testMerge_differentDtos() {
+		final var model = APIModelSamples.create();
+		final var otherItem = new APIModel(List.of(endpoint(STATUS_CONTROLLER, "other", "GET", "/other")
+		        .responseDto(0)
+		        .build()), List.of(new APIDto("Item", "other.Item", List.of(
+		                new APIDtoField("children", LIST, "Item", 0),
+		                new APIDtoField("id", VALUE, "String", -1),
+		                new APIDtoField("tags", MAP, "String", -1)))));
+
+		final var merged = APIModel.merge(List.of(model, otherItem));
+		assertEquals(3, merged.getDtos().size());
+		assertNotEquals(merged.getDto(0).getAnchor(), merged.getDto(2).getAnchor());
+	}
+
+	@Test
+	void testControllerClassNames() {
+		final var model = APIModelSamples.create();
+		assertEquals(List.of(ITEM_CONTROLLER, STATUS_CONTROLLER), model.getControllerClassNames());
+		assertEquals(List.of(), APIModel.EMPTY.getControllerClassNames());
+
+		final var withEmpty = new APIModel(model.getEndpoints(), model.getDtos(),
+		        List.of("demo.EmptyController", ITEM_CONTROLLER));
+		assertEquals(List.of("demo.EmptyController", ITEM_CONTROLLER, STATUS_CONTROLLER),
+		        withEmpty.getControllerClassNames());
+		assertNotEquals(model, withEmpty);
+		assertEquals(model, withEmpty.select(withEmpty.getEndpoints()));
+		assertEquals(List.of(STATUS_CONTROLLER), selectMethods(withEmpty, "status").getControllerClassNames());
+
+		final var merged = APIModel.merge(List.of(
+		        selectMethods(model, "status"),
+		        new APIModel(List.of(), List.of(), List.of("demo.EmptyController"))));
+		assertEquals(List.of("demo.EmptyController", STATUS_CONTROLLER), merged.getControllerClassNames());
+	}
+
+	@Test
+	void testUniqueAnchors() {
+		/**
+		 * Same type and fields, but not the same sub DTOs: the anchor doesn't see the DTO indexes.
+		 */
+		final var dtos = List.of(
+		        new APIDto("Box", "demo.Box", List.of(new APIDtoField("content", VALUE, "Object", 2))),
+		        new APIDto("Box", "demo.Box", List.of(new APIDtoField("content", VALUE, "Object", 3))),
+		        new APIDto("A", "demo.A", List.of()),
+		        new APIDto("B", "demo.B", List.of()));
+		final var model = new APIModel(List.of(), dtos);
+
+		final var anchor = dtos.get(0).getAnchor();
+		assertEquals(anchor, dtos.get(1).getAnchor());
+		assertEquals(anchor, model.getDto(0).getAnchor());
+		assertEquals(anchor + "-2", model.getDto(1).getAnchor());
+		assertEquals(dtos.get(1).getFields(), model.getDto(1).getFields());
+	}
+
+}